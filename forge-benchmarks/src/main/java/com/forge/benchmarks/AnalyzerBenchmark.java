@@ -0,0 +1,77 @@
+package com.forge.benchmarks;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end analysis of a generated directory, reading, parsing and checking
+ * every file. Scores are in files per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalyzerBenchmark {
+    static final int FILES = 200;
+    
+    @Param({"1", "4"})
+    private int threads;
+    
+    @Param({"1", "3"})
+    private int loopDepth;
+    
+    @Param({"0.1", "0.5"})
+    private double callDensity;
+    
+    @Param({"true"})
+    private boolean prefilter;
+    
+    private Path corpus;
+    private CodeAnalyzer analyzer;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(42);
+        generator.setFileCount(FILES);
+        generator.setLoopDepth(loopDepth);
+        generator.setCallDensity(callDensity);
+        corpus = Files.createTempDirectory("forge-bench");
+        generator.writeTo(corpus);
+        
+        analyzer = new CodeAnalyzer();
+        analyzer.setThreads(threads);
+        analyzer.setPrefilterEnabled(prefilter);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        CorpusGenerator.delete(corpus);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public AnalysisResult analyze() throws IOException {
+        return analyzer.analyze(corpus, "java");
+    }
+}
@@ -0,0 +1,24 @@
+package com.forge.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line (all by default) with the
+ * GC profiler attached, so every score comes with its allocation rate and
+ * bytes allocated per operation ({@code gc.alloc.rate.norm}). Accepts the
+ * usual JMH options, e.g. {@code java -jar target/benchmarks.jar Rule -p rule=nested-loops}.
+ */
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
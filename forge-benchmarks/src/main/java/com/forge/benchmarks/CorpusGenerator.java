@@ -0,0 +1,144 @@
+package com.forge.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic Java sources with a controlled shape. The same settings
+ * and seed always produce byte-identical files, so runs on different machines
+ * and commits measure the same input.
+ */
+public class CorpusGenerator {
+    private static final int FILES_PER_PACKAGE = 50;
+    private static final int METHODS_PER_FILE = 4;
+    private static final int HELPERS_PER_FILE = 5;
+    private static final String[] LOOP_KINDS = {"for", "while", "forEach"};
+    
+    private final long seed;
+    private int fileCount = 100;
+    private int methodSize = 20;
+    private int loopDepth = 2;
+    private double callDensity = 0.3;
+    
+    public CorpusGenerator(long seed) {
+        this.seed = seed;
+    }
+    
+    public int getFileCount() {
+        return fileCount;
+    }
+    
+    public void setFileCount(int fileCount) {
+        this.fileCount = fileCount;
+    }
+    
+    /** Statements per generated method, not counting loop bodies. */
+    public void setMethodSize(int methodSize) {
+        this.methodSize = methodSize;
+    }
+    
+    /** Depth of the loop nests placed in each method; 0 generates no loops. */
+    public void setLoopDepth(int loopDepth) {
+        this.loopDepth = loopDepth;
+    }
+    
+    /** Fraction of statements, between 0 and 1, that call a helper method. */
+    public void setCallDensity(double callDensity) {
+        if (callDensity < 0 || callDensity > 1) {
+            throw new IllegalArgumentException("Call density must be between 0 and 1, got " + callDensity);
+        }
+        this.callDensity = callDensity;
+    }
+    
+    public List<Path> writeTo(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            Path packageDirectory = Files.createDirectories(directory.resolve("pkg" + i / FILES_PER_PACKAGE));
+            Path file = packageDirectory.resolve(className(i) + ".java");
+            Files.writeString(file, generate(i));
+            files.add(file);
+        }
+        return files;
+    }
+    
+    public String generate(int index) {
+        // One generator per file keeps each file independent of the file count
+        SplittableRandom random = new SplittableRandom(seed * 31 + index);
+        StringBuilder code = new StringBuilder();
+        code.append("package bench.pkg").append(index / FILES_PER_PACKAGE).append(";\n\n");
+        code.append("import java.util.ArrayList;\n");
+        code.append("import java.util.List;\n\n");
+        code.append("public class ").append(className(index)).append(" {\n");
+        code.append("    private final List<String> items = new ArrayList<>();\n");
+        
+        for (int m = 0; m < METHODS_PER_FILE; m++) {
+            code.append("\n    public String method").append(m).append("(int n) {\n");
+            code.append("        String result = \"\";\n");
+            int loopAt = methodSize == 0 ? -1 : random.nextInt(methodSize);
+            for (int s = 0; s < methodSize; s++) {
+                if (s == loopAt && loopDepth > 0) {
+                    appendLoopNest(code, random, 0, "        ");
+                }
+                appendStatement(code, random, s, "        ");
+            }
+            code.append("        return result;\n");
+            code.append("    }\n");
+        }
+        
+        for (int h = 0; h < HELPERS_PER_FILE; h++) {
+            code.append("\n    private int helper").append(h).append("(int value) {\n");
+            code.append("        return value * ").append(h + 1).append(" + items.size();\n");
+            code.append("    }\n");
+        }
+        code.append("}\n");
+        return code.toString();
+    }
+    
+    private void appendLoopNest(StringBuilder code, SplittableRandom random, int depth, String indent) {
+        String variable = "i" + depth;
+        String kind = LOOP_KINDS[random.nextInt(LOOP_KINDS.length)];
+        switch (kind) {
+            case "for" -> code.append(indent).append("for (int ").append(variable).append(" = 0; ")
+                .append(variable).append(" < n; ").append(variable).append("++) {\n");
+            case "while" -> code.append(indent).append("int ").append(variable).append(" = 0;\n")
+                .append(indent).append("while (").append(variable).append("++ < n) {\n");
+            default -> code.append(indent).append("items.forEach(").append(variable).append(" -> {\n");
+        }
+        
+        String body = indent + "    ";
+        if (depth + 1 < loopDepth) {
+            appendLoopNest(code, random, depth + 1, body);
+        } else {
+            code.append(body).append("System.out.println(\"item\" + ").append(variable).append(");\n");
+        }
+        code.append(indent).append(kind.equals("forEach") ? "});\n" : "}\n");
+    }
+    
+    private void appendStatement(StringBuilder code, SplittableRandom random, int index, String indent) {
+        code.append(indent).append("int v").append(index).append(" = ");
+        if (random.nextDouble() < callDensity) {
+            code.append("helper").append(random.nextInt(HELPERS_PER_FILE)).append("(n)");
+        } else {
+            code.append("n * ").append(random.nextInt(100)).append(" + ").append(index);
+        }
+        code.append(";\n");
+    }
+    
+    public static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+    
+    private static String className(int index) {
+        return "Generated" + index;
+    }
+}
@@ -0,0 +1,70 @@
+package com.forge.benchmarks;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.carbon.CarbonEstimator;
+import com.forge.carbon.EstimateResult;
+import com.forge.suggestions.OptimizationSuggester;
+import com.forge.suggestions.SuggestionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stages that run after analysis: the carbon estimate and JSON
+ * serialization of suggestions, both fed from one analysis of a generated
+ * corpus. Scores are in operations per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportingBenchmark {
+    
+    @Param({"100", "1000"})
+    private int fileCount;
+    
+    private AnalysisResult analysis;
+    private SuggestionResult suggestions;
+    private final CarbonEstimator estimator = new CarbonEstimator();
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(42);
+        generator.setFileCount(fileCount);
+        Path corpus = Files.createTempDirectory("forge-bench");
+        try {
+            generator.writeTo(corpus);
+            analysis = new CodeAnalyzer().analyze(corpus, "java");
+        } finally {
+            CorpusGenerator.delete(corpus);
+        }
+        suggestions = new OptimizationSuggester().suggest(analysis);
+    }
+    
+    @Benchmark
+    public EstimateResult estimate() {
+        return estimator.estimate(analysis);
+    }
+    
+    @Benchmark
+    public String suggestionsToJson() {
+        return suggestions.toJson();
+    }
+}
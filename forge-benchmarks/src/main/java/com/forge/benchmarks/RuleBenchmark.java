@@ -0,0 +1,78 @@
+package com.forge.benchmarks;
+
+import com.forge.analyzer.rules.Rule;
+import com.forge.analyzer.rules.RuleEngine;
+import com.forge.analyzer.rules.RuleSet;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single rule on already parsed files: the engine's traversal
+ * plus that rule's callbacks, without parsing. Scores are in files per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RuleBenchmark {
+    static final int FILES = 100;
+    
+    @Param({"nested-loops", "string-concatenation-in-loop", "repeated-method-call"})
+    private String rule;
+    
+    @Param({"3"})
+    private int loopDepth;
+    
+    @Param({"0.5"})
+    private double callDensity;
+    
+    private final List<CompilationUnit> units = new ArrayList<>();
+    private RuleEngine engine;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        CorpusGenerator generator = new CorpusGenerator(42);
+        generator.setLoopDepth(loopDepth);
+        generator.setCallDensity(callDensity);
+        JavaParser parser = new JavaParser();
+        for (int i = 0; i < FILES; i++) {
+            units.add(parser.parse(generator.generate(i)).getResult().orElseThrow());
+        }
+        
+        List<Rule> selected = RuleSet.defaults().createEngine().getRules().stream()
+            .filter(candidate -> candidate.getId().equals(rule))
+            .toList();
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Unknown rule: " + rule);
+        }
+        engine = new RuleEngine(selected);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void analyze(Blackhole blackhole) {
+        for (int i = 0; i < units.size(); i++) {
+            blackhole.consume(engine.analyze(units.get(i), "Generated" + i + ".java"));
+        }
+    }
+}
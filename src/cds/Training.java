@@ -0,0 +1,30 @@
+// Analyzed by the AppCDS training run at package time (see pom.xml), so that
+// the classes used by every rule end up in the archive. Not compiled.
+import java.util.List;
+
+class Training {
+    String joinAll(List<String> names) {
+        String result = "";
+        for (String name : names) {
+            result += name.trim();
+        }
+        return result;
+    }
+    
+    int pairs(int[] values) {
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            for (int j = 0; j < values.length; j++) {
+                while (values[i] > values[j]) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+    
+    boolean twice(List<String> names) {
+        return names.size() > 1 && names.size() < 10;
+    }
+}
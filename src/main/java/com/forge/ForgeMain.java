@@ -3,22 +3,55 @@ package com.forge;
 import com.forge.cli.AnalyzeCommand;
 import com.forge.cli.SuggestCommand;
 import com.forge.cli.EstimateCommand;
+import com.forge.cli.MergeCommand;
+import com.forge.cli.RenderCommand;
+import com.forge.cli.ReportCommand;
+import com.forge.cli.ServeCommand;
 import picocli.CommandLine;
 
 @CommandLine.Command(
     name = "forge",
     mixinStandardHelpOptions = true,
     version = "1.0.0",
-    description = "Analyze codebases for inefficiencies and suggest greener alternatives",
-    subcommands = {
-        AnalyzeCommand.class,
-        SuggestCommand.class,
-        EstimateCommand.class
-    }
+    description = "Analyze codebases for inefficiencies and suggest greener alternatives"
 )
 public class ForgeMain {
+    private static final String[] SUBCOMMANDS = {"analyze", "suggest", "estimate", "report", "serve", "merge", "render"};
+    
     public static void main(String[] args) {
-        int exitCode = new CommandLine(new ForgeMain()).execute(args);
+        int exitCode = createCommandLine(args, CommandLine.defaultFactory()).execute(args);
         System.exit(exitCode);
     }
+    
+    /**
+     * Builds the command line for {@code args}. Picocli reflects over every
+     * field and method of a registered command, so when {@code args} name a
+     * subcommand only that one is registered; otherwise all of them are, for
+     * help and error messages.
+     */
+    public static CommandLine createCommandLine(String[] args, CommandLine.IFactory factory) {
+        CommandLine commandLine = new CommandLine(new ForgeMain(), factory);
+        String requested = args.length > 0 && commandClass(args[0]) != null ? args[0] : null;
+        for (String name : SUBCOMMANDS) {
+            if (requested == null || requested.equals(name)) {
+                commandLine.addSubcommand(name, commandClass(name));
+            }
+        }
+        // Enum options such as --profile and --parse-profile accept any case
+        commandLine.setCaseInsensitiveEnumValuesAllowed(true);
+        return commandLine;
+    }
+    
+    private static Class<?> commandClass(String name) {
+        return switch (name) {
+            case "analyze" -> AnalyzeCommand.class;
+            case "suggest" -> SuggestCommand.class;
+            case "estimate" -> EstimateCommand.class;
+            case "report" -> ReportCommand.class;
+            case "serve" -> ServeCommand.class;
+            case "merge" -> MergeCommand.class;
+            case "render" -> RenderCommand.class;
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,303 @@
+package com.forge.analyzer;
+
+import com.forge.jfr.FileReadEvent;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs file analysis as stages connected by bounded queues: one thread
+ * discovers files, one reads their content and a pool of workers parses and
+ * checks them. Results are merged back in discovery order,
+ * so the output is identical to a sequential run. The queues bound the
+ * number of files in flight and an optional heap budget their size; files are
+ * only read while they are at most as many files ahead of the next result to
+ * release as the queues and workers hold, so a slow file cannot make finished
+ * results pile up behind it.
+ */
+final class AnalysisPipeline {
+
+    private static final int QUEUE_CAPACITY_PER_WORKER = 4;
+    // Larger files are mapped rather than copied onto the heap, so the ones
+    // the pre-filter rules out are never loaded in full
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    private static final SourceFile END = new SourceFile(-1, null, null, 0, 0);
+    // Heap taken by a parsed file per byte of source, mostly JavaParser's
+    // token list; measured at about 170 with the FAST profile
+    private static final long PARSED_BYTES_PER_SOURCE_BYTE = 200;
+
+    interface FileWorker {
+        FileResult analyze(Path file, ByteBuffer content) throws IOException;
+    }
+
+    private final int workers;
+    private final Supplier<FileWorker> workerFactory;
+    private final AnalysisProfile profile;
+    private final PrintWriter warnings;
+    // Kilobytes of heap that files being read, parsed and checked may take,
+    // or null when unbounded
+    private final Semaphore heapBudget;
+    private final int heapBudgetKb;
+
+    /**
+     * Creates a pipeline that, for a positive {@code heapBudget}, only reads
+     * another file while the estimated heap of all files in flight stays
+     * within that many bytes. A file too large for the budget on its own
+     * waits until it is the only one. Files that cannot be read are reported
+     * to {@code warnings}.
+     */
+    AnalysisPipeline(int workers, Supplier<FileWorker> workerFactory, AnalysisProfile profile, long heapBudget,
+                     PrintWriter warnings) {
+        this.workers = workers;
+        this.workerFactory = workerFactory;
+        this.profile = profile;
+        this.warnings = warnings;
+        this.heapBudgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, heapBudget / 1024));
+        this.heapBudget = heapBudget > 0 ? new Semaphore(heapBudgetKb) : null;
+    }
+
+    int run(Iterator<Path> files, IssueListener listener) throws IOException {
+        int capacity = workers * QUEUE_CAPACITY_PER_WORKER;
+        BlockingQueue<SourceFile> pathQueue = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<SourceFile> contentQueue = new ArrayBlockingQueue<>(capacity);
+        OrderedCollector collector = new OrderedCollector(listener, capacity + workers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 2, new StageThreadFactory());
+        try {
+            CompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+            stages.submit(() -> {
+                discoverFiles(files, pathQueue);
+                return null;
+            });
+            stages.submit(() -> {
+                readFiles(pathQueue, contentQueue, collector);
+                return null;
+            });
+            for (int i = 0; i < workers; i++) {
+                stages.submit(() -> {
+                    parseFiles(contentQueue, collector);
+                    return null;
+                });
+            }
+
+            // A failing stage would leave its neighbours blocked on the queues,
+            // so the first failure cancels the whole pipeline.
+            for (int i = 0; i < workers + 2; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Analysis interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return collector.getFilesAnalyzed();
+    }
+
+    private void discoverFiles(Iterator<Path> files, BlockingQueue<SourceFile> pathQueue) throws InterruptedException {
+        try {
+            int index = 0;
+            long start = System.nanoTime();
+            while (files.hasNext()) {
+                Path file = files.next();
+                if (profile != null) {
+                    profile.record(AnalysisProfile.Phase.WALK, System.nanoTime() - start);
+                }
+                pathQueue.put(new SourceFile(index++, file, null, 0, 0));
+                start = System.nanoTime();
+            }
+        } finally {
+            pathQueue.put(END);
+        }
+    }
+
+    private void readFiles(BlockingQueue<SourceFile> pathQueue, BlockingQueue<SourceFile> contentQueue,
+                           OrderedCollector collector) throws InterruptedException {
+        try {
+            SourceFile source;
+            while ((source = pathQueue.take()) != END) {
+                int heapKb = 0;
+                try {
+                    // Waiting here backs up the path queue and so pauses discovery
+                    collector.awaitWindow(source.index());
+                    heapKb = acquireHeap(source.path());
+                    long start = System.nanoTime();
+                    ByteBuffer content = read(source.path());
+                    long readNanos = System.nanoTime() - start;
+                    if (profile != null) {
+                        profile.record(AnalysisProfile.Phase.READ, readNanos);
+                    }
+                    contentQueue.put(new SourceFile(source.index(), source.path(), content, readNanos, heapKb));
+                } catch (IOException e) {
+                    warnings.println("Warning: Could not analyze " + source.path() + ": " + e.getMessage());
+                    releaseHeap(heapKb);
+                    collector.complete(source.index(), null);
+                }
+            }
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                contentQueue.put(END);
+            }
+        }
+    }
+
+    private void parseFiles(BlockingQueue<SourceFile> contentQueue, OrderedCollector collector) throws InterruptedException {
+        FileWorker worker = workerFactory.get();
+        SourceFile source;
+        while ((source = contentQueue.take()) != END) {
+            FileResult result;
+            long start = System.nanoTime();
+            try {
+                result = worker.analyze(source.path(), source.content());
+                if (profile != null) {
+                    profile.recordFile(source.path(), source.readNanos() + System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                warnings.println("Warning: Could not analyze " + source.path() + ": " + e.getMessage());
+                result = null;
+            }
+            // Nothing keeps the file's content or syntax tree once the worker returns
+            releaseHeap(source.heapKb());
+            collector.complete(source.index(), result);
+        }
+    }
+
+    private int acquireHeap(Path file) throws IOException, InterruptedException {
+        if (heapBudget == null) {
+            return 0;
+        }
+        long estimate = Files.size(file) * PARSED_BYTES_PER_SOURCE_BYTE / 1024;
+        int heapKb = (int) Math.min(heapBudgetKb, Math.max(1, estimate));
+        heapBudget.acquire(heapKb);
+        return heapKb;
+    }
+
+    private void releaseHeap(int heapKb) {
+        if (heapKb > 0) {
+            heapBudget.release(heapKb);
+        }
+    }
+
+    static ByteBuffer read(Path file) throws IOException {
+        FileReadEvent event = new FileReadEvent();
+        event.begin();
+        ByteBuffer content;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                content = ByteBuffer.wrap(Files.readAllBytes(file));
+            } else {
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        if (event.shouldCommit()) {
+            event.path = file.toString();
+            event.size = content.remaining();
+            event.commit();
+        }
+        return content;
+    }
+
+    private static IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof UncheckedIOException uncheckedIOException) {
+            return uncheckedIOException.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    private record SourceFile(int index, Path path, ByteBuffer content, long readNanos, int heapKb) {
+    }
+
+    /**
+     * Releases per-file results to the listener in discovery order. A
+     * {@code null} result marks a file that could not be read; it is
+     * left out and not counted. At most {@code window} results wait for an
+     * earlier one, since {@link #awaitWindow} holds back the files after them.
+     */
+    private static final class OrderedCollector {
+        private final IssueListener listener;
+        private final int window;
+        private final Map<Integer, Optional<FileResult>> pending = new HashMap<>();
+        private int next;
+        private int filesAnalyzed;
+
+        OrderedCollector(IssueListener listener, int window) {
+            this.listener = listener;
+            this.window = window;
+        }
+
+        /**
+         * Waits until the file at {@code index} is within the window of the
+         * next result to release.
+         */
+        synchronized void awaitWindow(int index) throws InterruptedException {
+            while (index - next >= window) {
+                wait();
+            }
+        }
+
+        synchronized void complete(int index, FileResult result) {
+            pending.put(index, Optional.ofNullable(result));
+            int released = next;
+            while (pending.containsKey(next)) {
+                Optional<FileResult> file = pending.remove(next++);
+                if (file.isPresent()) {
+                    filesAnalyzed++;
+                    listener.onFile(file.get());
+                }
+            }
+            if (next != released) {
+                notifyAll();
+            }
+        }
+
+        synchronized int getFilesAnalyzed() {
+            return filesAnalyzed;
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "forge-analyzer-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.forge.analyzer;
+
+import com.forge.analyzer.rules.Rule;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Where the time of an analysis went: per phase, per rule and per file.
+ * Collecting costs two {@link System#nanoTime()} calls per phase and rule
+ * invocation, so it is only done when {@link CodeAnalyzer#setProfile} has
+ * been given a profile.
+ * <p>
+ * Workers record concurrently; the getters are meant to be read once the
+ * analysis has finished.
+ */
+public class AnalysisProfile {
+    private static final int DEFAULT_SLOWEST_FILES = 10;
+    
+    public enum Phase {
+        /** Listing the files of a directory. */
+        WALK,
+        /** Loading file content. */
+        READ,
+        /** The lexical pre-scan that rules files out without parsing them. */
+        PREFILTER,
+        CACHE_LOOKUP,
+        /** Decoding file content as UTF-8. */
+        DECODE,
+        PARSE,
+        /** Running all rules over the syntax tree. */
+        RULES,
+        CACHE_STORE;
+        
+        public String getName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+    }
+    
+    public record FileTime(Path file, long nanos) {
+    }
+    
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<String, RuleTimer> rules = new LinkedHashMap<>();
+    private final int slowestFileCount;
+    private final PriorityQueue<FileTime> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileTime::nanos));
+    private final Timer files = new Timer("file");
+    private long elapsedNanos;
+    
+    public AnalysisProfile() {
+        this(DEFAULT_SLOWEST_FILES);
+    }
+    
+    public AnalysisProfile(int slowestFileCount) {
+        this.slowestFileCount = slowestFileCount;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Timer(phase.getName()));
+        }
+    }
+    
+    public synchronized void record(Phase phase, long nanos) {
+        phases.get(phase).add(nanos);
+    }
+    
+    /**
+     * Records one file's run of {@code rules}, where {@code ruleNanos} holds
+     * the time of the rule at the same index and {@code issues} what they found.
+     */
+    public synchronized void recordRules(List<Rule> rules, long[] ruleNanos, List<Issue> issues) {
+        for (int i = 0; i < rules.size(); i++) {
+            String id = rules.get(i).getId();
+            RuleTimer timer = this.rules.computeIfAbsent(id, RuleTimer::new);
+            timer.add(ruleNanos[i]);
+            for (Issue issue : issues) {
+                if (issue.getRule().getId().equals(id)) {
+                    timer.issues++;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Records the total time spent on {@code file}, from reading it to its
+     * last rule.
+     */
+    public synchronized void recordFile(Path file, long nanos) {
+        files.add(nanos);
+        if (slowestFiles.size() < slowestFileCount) {
+            slowestFiles.add(new FileTime(file, nanos));
+        } else if (slowestFileCount > 0 && slowestFiles.peek().nanos() < nanos) {
+            slowestFiles.poll();
+            slowestFiles.add(new FileTime(file, nanos));
+        }
+    }
+    
+    public synchronized void recordElapsed(long nanos) {
+        elapsedNanos += nanos;
+    }
+    
+    /**
+     * Wall-clock time of the analysis. Phases run concurrently, so their
+     * totals can add up to more.
+     */
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    public synchronized Timer getFiles() {
+        return files;
+    }
+    
+    public synchronized List<Timer> getPhases() {
+        return new ArrayList<>(phases.values());
+    }
+    
+    public synchronized List<RuleTimer> getRules() {
+        return new ArrayList<>(rules.values());
+    }
+    
+    /**
+     * The files that took longest, slowest first.
+     */
+    public synchronized List<FileTime> getSlowestFiles() {
+        List<FileTime> slowest = new ArrayList<>(slowestFiles);
+        slowest.sort(Comparator.comparingLong(FileTime::nanos).reversed());
+        return slowest;
+    }
+    
+    /**
+     * The time of one phase or rule per file, keeping every sample so the
+     * percentiles are exact.
+     */
+    public static class Timer {
+        private final String name;
+        private long[] samples = new long[16];
+        private int count;
+        private long totalNanos;
+        private boolean sorted = true;
+        
+        Timer(String name) {
+            this.name = name;
+        }
+        
+        void add(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            totalNanos += nanos;
+            sorted = false;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+        
+        /**
+         * The nearest-rank percentile, {@code percentile} being between 0 and
+         * 100, or 0 when nothing was recorded.
+         */
+        public long getPercentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(samples, 0, count);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * count);
+            return samples[Math.max(rank, 1) - 1];
+        }
+        
+        public long getMaxNanos() {
+            return getPercentileNanos(100);
+        }
+    }
+    
+    public static class RuleTimer extends Timer {
+        private long issues;
+        
+        RuleTimer(String name) {
+            super(name);
+        }
+        
+        public long getIssues() {
+            return issues;
+        }
+    }
+}
@@ -1,21 +1,458 @@
 package com.forge.analyzer;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
 
-public class AnalysisResult {
-    private final List<Issue> issues;
-    private final int filesAnalyzed;
+/**
+ * The issues of a whole analysis. Besides wrapping a finished list, an
+ * instance can be passed to {@link CodeAnalyzer#analyze(java.nio.file.Path, String, IssueListener)}
+ * as a sink that collects the streamed results.
+ * <p>
+ * Issues are stored column by column in primitive arrays, which keeps large
+ * results to a few bytes per issue plus each distinct details and method
+ * text once; {@link #getIssues()} is a read-only view that creates an
+ * {@link Issue} for each element it returns.
+ * <p>
+ * With {@link #setMemoryBudget} set, the columns and their texts are appended
+ * to a temporary file whenever they outgrow the budget. Results arrive in
+ * discovery order, so the file holds the earlier issues in order and the view
+ * reads them back a block at a time. {@link #close()} deletes the file.
+ */
+public class AnalysisResult implements IssueListener, Closeable {
+    // Rule index, file id, line, column, details id and method id
+    private static final int COLUMN_BYTES = 22;
+    // A text's String, its array and its slot in the table, besides its characters
+    private static final int TEXT_OVERHEAD_BYTES = 64;
+    private static final int SPILL_BLOCK_RECORDS = 4096;
+    
+    // Indexes into ruleTable, which holds each rule once in order of first use
+    private short[] rules;
+    // Indexes into paths, which holds each file's path once
+    private int[] fileIds;
+    private int[] lines;
+    private int[] columns;
+    private int[] detailIds;
+    // Text ids of the enclosing methods plus one, zero meaning none
+    private int[] methodIds;
+    private int issueCount;
+    private RuleId[] ruleTable = new RuleId[4];
+    private final Map<RuleId, Integer> ruleIndexes = new HashMap<>();
+    private String[] paths = new String[16];
+    private final Map<String, Integer> pathIds = new HashMap<>();
+    
+    // Distinct details texts, found through an open addressing table of
+    // text ids plus one, where zero marks a free slot
+    private String[] texts = new String[16];
+    private int[] textSlots = new int[32];
+    private int textCount;
+    private long textBytes;
+    private int filesAnalyzed;
+    private int filesSkipped;
+    
+    // The files that issues are known for, as path ids, the index one past
+    // each file's last issue and whether the pre-filter ruled it out, so the
+    // results can be replayed file by file
+    private int[] files = new int[16];
+    private int[] fileEnds = new int[16];
+    private boolean[] fileSkipped = new boolean[16];
+    private int fileCount;
+    
+    // Issues before spilledCount are in spillFile, the columns and texts hold
+    // the rest. Spilled records carry their own texts, so they vary in length
+    // and spillOffsets holds where each block of them starts
+    private long memoryBudget = Long.MAX_VALUE;
+    private Path spillFile;
+    private int spilledCount;
+    private long spillSize;
+    private long[] spillOffsets = new long[16];
+    private Issue[] spillBlock;
+    private int spillBlockStart;
+    
+    public AnalysisResult() {
+        this(List.of(), 0);
+    }
     
     public AnalysisResult(List<Issue> issues, int filesAnalyzed) {
-        this.issues = issues;
+        int capacity = Math.max(16, issues.size());
+        this.rules = new short[capacity];
+        this.fileIds = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.detailIds = new int[capacity];
+        this.methodIds = new int[capacity];
+        for (Issue issue : issues) {
+            int fileId = pathIdOf(issue.getFile());
+            if (fileCount == 0 || files[fileCount - 1] != fileId) {
+                addFile(fileId, false);
+            }
+            add(issue);
+            fileEnds[fileCount - 1] = issueCount;
+        }
         this.filesAnalyzed = filesAnalyzed;
     }
     
+    /**
+     * Keeps the issues and texts held in memory under about {@code bytes},
+     * moving earlier ones to a temporary file that {@link #close()} deletes.
+     */
+    public void setMemoryBudget(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive, got " + bytes);
+        }
+        memoryBudget = Math.max((long) SPILL_BLOCK_RECORDS * COLUMN_BYTES, bytes);
+    }
+    
     public List<Issue> getIssues() {
-        return issues;
+        return new IssueView();
+    }
+    
+    public int getIssueCount() {
+        return issueCount;
+    }
+    
+    /**
+     * The rule of the issue at {@code index}, read without creating the issue.
+     */
+    public RuleId getRule(int index) {
+        checkIndex(index);
+        if (index < spilledCount) {
+            return spilledIssue(index).getRule();
+        }
+        return ruleTable[rules[index - spilledCount]];
+    }
+    
+    /**
+     * The enclosing method of the issue at {@code index}, read without
+     * creating the issue.
+     */
+    public String getMethod(int index) {
+        checkIndex(index);
+        if (index < spilledCount) {
+            return spilledIssue(index).getMethod();
+        }
+        int methodId = methodIds[index - spilledCount];
+        return methodId == 0 ? null : texts[methodId - 1];
     }
     
     public int getFilesAnalyzed() {
         return filesAnalyzed;
     }
+    
+    /**
+     * The number of analyzed files the lexical pre-filter ruled out without
+     * parsing them.
+     */
+    public int getFilesSkipped() {
+        return filesSkipped;
+    }
+    
+    /**
+     * Delivers the results to {@code listener} again, one file at a time. A
+     * result created from a list of issues only knows the files that have
+     * issues; the others are counted in {@link IssueListener#onComplete}.
+     */
+    public void replay(IssueListener listener) {
+        List<Issue> issues = getIssues();
+        int start = 0;
+        for (int i = 0; i < fileCount; i++) {
+            Path file = Path.of(paths[files[i]]);
+            listener.onFile(new FileResult(file, issues.subList(start, fileEnds[i]), fileSkipped[i]));
+            start = fileEnds[i];
+        }
+        listener.onComplete(filesAnalyzed);
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        addFile(pathIdOf(file.getFile().toString()), file.isSkipped());
+        for (Issue issue : file.getIssues()) {
+            add(issue);
+        }
+        fileEnds[fileCount - 1] = issueCount;
+        filesAnalyzed++;
+        if (file.isSkipped()) {
+            filesSkipped++;
+        }
+        if ((long) (issueCount - spilledCount) * COLUMN_BYTES + textBytes >= memoryBudget) {
+            spill();
+        }
+    }
+    
+    /**
+     * Deletes the file that issues were spilled to, if any. The issues are
+     * gone with it, so the result must not be read afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (spillFile != null) {
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+            spillBlock = null;
+        }
+    }
+    
+    // Each record is the rule index, file id, line and column followed by the
+    // details and method as UTF-8, each preceded by its length or -1 for none
+    private synchronized void spill() {
+        try {
+            if (spillFile == null) {
+                spillFile = Files.createTempFile("forge-issues", ".run");
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(spillFile, StandardOpenOption.APPEND)))) {
+                int count = issueCount - spilledCount;
+                for (int i = 0; i < count; i++) {
+                    int index = spilledCount + i;
+                    if (index % SPILL_BLOCK_RECORDS == 0) {
+                        int block = index / SPILL_BLOCK_RECORDS;
+                        if (block == spillOffsets.length) {
+                            spillOffsets = Arrays.copyOf(spillOffsets, block * 2);
+                        }
+                        spillOffsets[block] = spillSize;
+                    }
+                    out.writeShort(rules[i]);
+                    out.writeInt(fileIds[i]);
+                    out.writeInt(lines[i]);
+                    out.writeInt(columns[i]);
+                    spillSize += 14 + writeText(out, texts[detailIds[i]])
+                        + writeText(out, methodIds[i] == 0 ? null : texts[methodIds[i] - 1]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill issues to " + spillFile, e);
+        }
+        spilledCount = issueCount;
+        spillBlock = null;
+        texts = new String[16];
+        textSlots = new int[32];
+        textCount = 0;
+        textBytes = 0;
+    }
+    
+    private static int writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return 4;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4 + bytes.length;
+    }
+    
+    private synchronized Issue spilledIssue(int index) {
+        int blockStart = index - index % SPILL_BLOCK_RECORDS;
+        if (spillBlock == null || spillBlockStart != blockStart) {
+            if (spillFile == null) {
+                throw new IllegalStateException("The result was closed");
+            }
+            int block = blockStart / SPILL_BLOCK_RECORDS;
+            long start = spillOffsets[block];
+            long end = blockStart + SPILL_BLOCK_RECORDS < spilledCount ? spillOffsets[block + 1] : spillSize;
+            ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, start + bytes.position()) < 0) {
+                        throw new EOFException(spillFile + " ends before issue " + index);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read spilled issues from " + spillFile, e);
+            }
+            bytes.flip();
+            Issue[] issues = new Issue[Math.min(SPILL_BLOCK_RECORDS, spilledCount - blockStart)];
+            for (int i = 0; i < issues.length; i++) {
+                RuleId rule = ruleTable[bytes.getShort()];
+                String file = paths[bytes.getInt()];
+                int line = bytes.getInt();
+                int column = bytes.getInt();
+                issues[i] = new Issue(rule, file, line, column, readText(bytes), readText(bytes));
+            }
+            spillBlock = issues;
+            spillBlockStart = blockStart;
+        }
+        return spillBlock[index - blockStart];
+    }
+    
+    private static String readText(ByteBuffer bytes) {
+        int length = bytes.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String text = new String(bytes.array(), bytes.position(), length, StandardCharsets.UTF_8);
+        bytes.position(bytes.position() + length);
+        return text;
+    }
+    
+    private void addFile(int fileId, boolean skipped) {
+        if (fileCount == files.length) {
+            files = Arrays.copyOf(files, fileCount * 2);
+            fileEnds = Arrays.copyOf(fileEnds, fileCount * 2);
+            fileSkipped = Arrays.copyOf(fileSkipped, fileCount * 2);
+        }
+        fileSkipped[fileCount] = skipped;
+        files[fileCount++] = fileId;
+    }
+    
+    /**
+     * The number of files that were delivered with their results, as
+     * opposed to only being counted.
+     */
+    int getFileCount() {
+        return fileCount;
+    }
+    
+    String getFile(int file) {
+        return paths[files[Objects.checkIndex(file, fileCount)]];
+    }
+    
+    /**
+     * The issues of the delivered file at {@code file}.
+     */
+    List<Issue> getFileIssues(int file) {
+        Objects.checkIndex(file, fileCount);
+        return getIssues().subList(file == 0 ? 0 : fileEnds[file - 1], fileEnds[file]);
+    }
+    
+    boolean isFileSkipped(int file) {
+        return fileSkipped[Objects.checkIndex(file, fileCount)];
+    }
+    
+    /**
+     * Counts files that were analyzed without being delivered.
+     */
+    void countFiles(int analyzed, int skipped) {
+        filesAnalyzed += analyzed;
+        filesSkipped += skipped;
+    }
+    
+    private void add(Issue issue) {
+        int column = issueCount - spilledCount;
+        if (column == rules.length) {
+            int capacity = rules.length * 2;
+            rules = Arrays.copyOf(rules, capacity);
+            fileIds = Arrays.copyOf(fileIds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            detailIds = Arrays.copyOf(detailIds, capacity);
+            methodIds = Arrays.copyOf(methodIds, capacity);
+        }
+        rules[column] = ruleIndexOf(issue.getRule());
+        fileIds[column] = pathIdOf(issue.getFile());
+        lines[column] = issue.getLine();
+        columns[column] = issue.getColumn();
+        detailIds[column] = internText(issue.getDetails());
+        methodIds[column] = issue.getMethod() == null ? 0 : internText(issue.getMethod()) + 1;
+        issueCount++;
+    }
+    
+    private int pathIdOf(String path) {
+        Integer known = pathIds.get(path);
+        if (known != null) {
+            return known;
+        }
+        int id = pathIds.size();
+        if (id == paths.length) {
+            paths = Arrays.copyOf(paths, id * 2);
+        }
+        paths[id] = path;
+        pathIds.put(path, id);
+        return id;
+    }
+    
+    private short ruleIndexOf(RuleId rule) {
+        Integer known = ruleIndexes.get(rule);
+        if (known != null) {
+            return known.shortValue();
+        }
+        int index = ruleIndexes.size();
+        if (index > Short.MAX_VALUE) {
+            throw new IllegalStateException("More than " + (Short.MAX_VALUE + 1) + " rules reported issues");
+        }
+        if (index == ruleTable.length) {
+            ruleTable = Arrays.copyOf(ruleTable, index * 2);
+        }
+        ruleTable[index] = rule;
+        ruleIndexes.put(rule, index);
+        return (short) index;
+    }
+    
+    private int internText(String text) {
+        int mask = textSlots.length - 1;
+        int slot = slotOf(text, mask);
+        while (textSlots[slot] != 0) {
+            int id = textSlots[slot] - 1;
+            if (texts[id].equals(text)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        if (textCount == texts.length) {
+            texts = Arrays.copyOf(texts, textCount * 2);
+        }
+        texts[textCount] = text;
+        textSlots[slot] = textCount + 1;
+        textBytes += TEXT_OVERHEAD_BYTES + 2L * text.length();
+        if (++textCount * 2 > textSlots.length) {
+            rehashTexts();
+        }
+        return textCount - 1;
+    }
+    
+    private void rehashTexts() {
+        textSlots = new int[textSlots.length * 2];
+        int mask = textSlots.length - 1;
+        for (int id = 0; id < textCount; id++) {
+            int slot = slotOf(texts[id], mask);
+            while (textSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            textSlots[slot] = id + 1;
+        }
+    }
+    
+    private static int slotOf(String text, int mask) {
+        int hash = text.hashCode() * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+    
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, issueCount);
+    }
+    
+    private final class IssueView extends AbstractList<Issue> implements RandomAccess {
+        @Override
+        public Issue get(int index) {
+            checkIndex(index);
+            if (index < spilledCount) {
+                return spilledIssue(index);
+            }
+            int column = index - spilledCount;
+            return new Issue(ruleTable[rules[column]], paths[fileIds[column]], lines[column], columns[column],
+                texts[detailIds[column]], getMethod(index));
+        }
+        
+        @Override
+        public int size() {
+            return issueCount;
+        }
+    }
 }
@@ -0,0 +1,204 @@
+package com.forge.analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The fingerprints of known issues, so that an analysis of legacy code
+ * reports only what is new. A fingerprint hashes the issue's rule, its file
+ * relative to the analyzed directory, its enclosing method and the text of
+ * its line with whitespace collapsed, plus how many issues of the file had
+ * the same hash before it. Line numbers are left out, so code can move
+ * without its issues coming back.
+ * <p>
+ * Fingerprints are kept as a sorted {@code long[]} and looked up by binary
+ * search, eight bytes per known issue. Recording a baseline is done by
+ * passing an instance to the analysis as its listener.
+ */
+public class Baseline implements IssueListener {
+    private static final int MAGIC = 0x46474242; // "FGBB"
+    private static final int FORMAT_VERSION = 1;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    private final Path root;
+    private long[] fingerprints;
+    private int size;
+    private boolean sorted;
+    
+    /**
+     * Creates an empty baseline for the analysis of {@code root}, which file
+     * paths are taken relative to so the baseline works in any checkout.
+     */
+    public Baseline(Path root) {
+        this(root, new long[16], 0);
+    }
+    
+    private Baseline(Path root, long[] fingerprints, int size) {
+        this.root = root.toAbsolutePath().normalize();
+        this.fingerprints = fingerprints;
+        this.size = size;
+    }
+    
+    public static Baseline load(Path file, Path root) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a Forge baseline");
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException(file + " is corrupt");
+            }
+            long[] fingerprints = new long[Math.max(16, count)];
+            for (int i = 0; i < count; i++) {
+                fingerprints[i] = in.readLong();
+            }
+            return new Baseline(root, fingerprints, count);
+        }
+    }
+    
+    public void write(Path file) throws IOException {
+        sort();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(fingerprints[i]);
+            }
+        }
+    }
+    
+    /**
+     * The number of distinct fingerprints.
+     */
+    public int size() {
+        sort();
+        return size;
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        for (long fingerprint : fingerprints(file)) {
+            if (size == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, size * 2);
+            }
+            fingerprints[size++] = fingerprint;
+            sorted = false;
+        }
+    }
+    
+    /**
+     * Wraps {@code listener} so that it only receives the issues that are
+     * not in this baseline.
+     */
+    public IssueListener filter(IssueListener listener) {
+        sort();
+        return new IssueListener() {
+            @Override
+            public void onFile(FileResult file) {
+                if (file.getIssues().isEmpty()) {
+                    listener.onFile(file);
+                    return;
+                }
+                long[] fileFingerprints = fingerprints(file);
+                List<Issue> issues = new ArrayList<>();
+                for (int i = 0; i < fileFingerprints.length; i++) {
+                    if (Arrays.binarySearch(fingerprints, 0, size, fileFingerprints[i]) < 0) {
+                        issues.add(file.getIssues().get(i));
+                    }
+                }
+                listener.onFile(new FileResult(file.getFile(), issues, file.isSkipped()));
+            }
+            
+            @Override
+            public void onComplete(int filesAnalyzed) {
+                listener.onComplete(filesAnalyzed);
+            }
+        };
+    }
+    
+    /**
+     * The fingerprints of the issues of {@code file}, in the same order.
+     */
+    long[] fingerprints(FileResult file) {
+        List<Issue> issues = file.getIssues();
+        long[] result = new long[issues.size()];
+        if (issues.isEmpty()) {
+            return result;
+        }
+        String[] lines = readLines(file.getFile());
+        long fileHash = hash(FNV_OFFSET, relativePath(file.getFile()));
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < result.length; i++) {
+            Issue issue = issues.get(i);
+            int line = issue.getLine() - 1;
+            String context = line >= 0 && line < lines.length ? WHITESPACE.matcher(lines[line].strip()).replaceAll(" ") : "";
+            long hash = hash(fileHash, issue.getRule().getId());
+            hash = hash(hash, issue.getMethod() == null ? "" : issue.getMethod());
+            hash = hash(hash, context);
+            int occurrence = occurrences.merge(hash, 1, Integer::sum);
+            result[i] = mix(hash + occurrence * 0x9E3779B97F4A7C15L);
+        }
+        return result;
+    }
+    
+    private String relativePath(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        Path relative = normalized.startsWith(root) ? root.relativize(normalized) : normalized;
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+    
+    private static String[] readLines(Path file) {
+        try {
+            return LINE_BREAK.split(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), -1);
+        } catch (IOException e) {
+            // A file removed since it was analyzed is fingerprinted without its lines
+            return new String[0];
+        }
+    }
+    
+    private void sort() {
+        if (sorted) {
+            return;
+        }
+        Arrays.sort(fingerprints, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || fingerprints[distinct - 1] != fingerprints[i]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        size = distinct;
+        sorted = true;
+    }
+    
+    // FNV-1a over the characters, then a zero character so adjacent fields cannot run together
+    private static long hash(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash * FNV_PRIME;
+    }
+    
+    // The finalizer of MurmurHash3, spreading FNV's weak low bits
+    private static long mix(long hash) {
+        hash = (hash ^ hash >>> 33) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
@@ -0,0 +1,185 @@
+package com.forge.analyzer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The files, and where known the line ranges, that an analysis is limited to,
+ * so that checks of a branch scale with the size of its diff rather than with
+ * the size of the repository.
+ */
+public class ChangeSet {
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\S+ \\+(\\d+)(?:,(\\d+))? @@");
+    
+    // A null range list means the whole file counts as changed
+    private final Map<Path, List<int[]>> changedLines;
+    
+    private ChangeSet(Map<Path, List<int[]>> changedLines) {
+        this.changedLines = changedLines;
+    }
+    
+    /**
+     * Reads one path per line, relative ones being relative to
+     * {@code workingDirectory}; blank lines are ignored. Every listed file is
+     * analyzed in full.
+     */
+    public static ChangeSet fromFileList(BufferedReader reader, Path workingDirectory) throws IOException {
+        Map<Path, List<int[]>> files = new LinkedHashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                files.put(workingDirectory.resolve(line.strip()), null);
+            }
+        }
+        return new ChangeSet(files);
+    }
+    
+    /**
+     * Collects the files changed in the git working copy at {@code directory}
+     * since it diverged from {@code ref}, including uncommitted and untracked
+     * files, together with the line ranges added or modified in each. Files
+     * inside {@code workingDirectory} are given as it resolves their path
+     * relative to it, the others as absolute paths.
+     */
+    public static ChangeSet fromGit(Path directory, String ref, Path workingDirectory) throws IOException {
+        Path topLevel = Path.of(git(directory, "rev-parse", "--show-toplevel").strip());
+        String base;
+        try {
+            // Changes made on ref after the branch was created are not ours
+            base = git(directory, "merge-base", ref, "HEAD").strip();
+        } catch (IOException e) {
+            base = ref;
+        }
+        
+        Map<Path, List<int[]>> files = new LinkedHashMap<>();
+        // Names in patch headers end in a tab or are quoted when they contain spaces, quotes or
+        // control characters, so they are taken from the NUL-separated list of the same diff,
+        // whose order matches that of the patches
+        String[] names = git(directory, "diff", "--name-only", "-z", "--no-ext-diff", "--diff-filter=d", base, "--")
+            .split("\0");
+        String diff = git(directory, "diff", "-U0", "--no-color", "--no-ext-diff", "--diff-filter=d", base, "--");
+        int file = 0;
+        List<int[]> ranges = null;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("diff --git ") && file < names.length) {
+                ranges = new ArrayList<>();
+                files.put(displayPath(topLevel.resolve(names[file++]), workingDirectory), ranges);
+            } else if (ranges != null && line.startsWith("@@")) {
+                Matcher hunk = HUNK_HEADER.matcher(line);
+                if (hunk.find()) {
+                    int start = Integer.parseInt(hunk.group(1));
+                    int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                    if (count > 0) {
+                        ranges.add(new int[] {start, start + count - 1});
+                    }
+                }
+            }
+        }
+        
+        String untracked = git(directory, "ls-files", "-z", "--others", "--exclude-standard", "--full-name");
+        for (String name : untracked.split("\0")) {
+            if (!name.isEmpty()) {
+                files.put(displayPath(topLevel.resolve(name), workingDirectory), null);
+            }
+        }
+        return new ChangeSet(files);
+    }
+    
+    /**
+     * Returns the source files of this change set that lie inside
+     * {@code root}, which may also be a single file.
+     *
+     * @see CodeAnalyzer#sources(String)
+     */
+    public List<Path> filesUnder(Path root, Predicate<Path> sources) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        List<Path> files = new ArrayList<>();
+        for (Path file : changedLines.keySet()) {
+            if (sources.test(file) && file.toAbsolutePath().normalize().startsWith(normalizedRoot)) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+    
+    public boolean isChanged(Path file, int line) {
+        if (!changedLines.containsKey(file)) {
+            return false;
+        }
+        List<int[]> ranges = changedLines.get(file);
+        if (ranges == null) {
+            return true;
+        }
+        for (int[] range : ranges) {
+            if (line >= range[0] && line <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Wraps {@code listener} so it only receives issues on changed lines.
+     */
+    public IssueListener filter(IssueListener listener) {
+        return new IssueListener() {
+            @Override
+            public void onFile(FileResult file) {
+                List<Issue> issues = new ArrayList<>();
+                for (Issue issue : file.getIssues()) {
+                    if (isChanged(file.getFile(), issue.getLine())) {
+                        issues.add(issue);
+                    }
+                }
+                listener.onFile(new FileResult(file.getFile(), issues, file.isSkipped()));
+            }
+            
+            @Override
+            public void onComplete(int filesAnalyzed) {
+                listener.onComplete(filesAnalyzed);
+            }
+        };
+    }
+    
+    // Like paths given on the command line: relative when the working directory is the
+    // process's own, shown as the empty path, and absolute for a daemon's client
+    private static Path displayPath(Path file, Path workingDirectory) {
+        Path directory = workingDirectory.toAbsolutePath().normalize();
+        Path normalized = file.toAbsolutePath().normalize();
+        return normalized.startsWith(directory) ? workingDirectory.resolve(directory.relativize(normalized)) : normalized;
+    }
+    
+    private static String git(Path directory, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("-C");
+        command.add(directory.toString());
+        command.addAll(Arrays.asList(args));
+        
+        Process process = new ProcessBuilder(command).start();
+        process.getOutputStream().close();
+        try (InputStream stdout = process.getInputStream(); InputStream stderr = process.getErrorStream()) {
+            String output = new String(stdout.readAllBytes(), StandardCharsets.UTF_8);
+            String errors = new String(stderr.readAllBytes(), StandardCharsets.UTF_8);
+            if (process.waitFor() != 0) {
+                throw new IOException("git " + String.join(" ", args) + " failed: " + errors.strip());
+            }
+            return output;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running git");
+        }
+    }
+}
@@ -1,143 +1,365 @@
 package com.forge.analyzer;
 
-import com.github.javaparser.StaticJavaParser;
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.stmt.*;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.expr.StringLiteralExpr;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.forge.analyzer.cache.IssueCache;
+import com.forge.analyzer.frontend.LanguageFrontend;
+import com.forge.analyzer.frontend.SourceAnalyzer;
+import com.forge.analyzer.rules.RuleSet;
+import com.forge.jfr.ParseEvent;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public class CodeAnalyzer {
+    /** The language that selects every frontend, each for its own files. */
+    public static final String AUTO = "auto";
+    
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private RuleSet ruleSet = RuleSet.defaults();
+    private List<LanguageFrontend> frontends = LanguageFrontend.defaults();
+    private IssueCache cache;
+    private boolean prefilterEnabled = true;
+    private ParseProfile parseProfile = ParseProfile.FAST;
+    private AnalysisProfile profile;
+    private long heapBudget;
+    private PrintWriter warnings = new PrintWriter(System.err, true);
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1, got " + threads);
+        }
+        this.threads = threads;
+    }
+    
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+    
+    public void setRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+    }
+    
+    public List<LanguageFrontend> getFrontends() {
+        return frontends;
+    }
+    
+    /**
+     * Selects the languages that can be analyzed. Explicitly listed files
+     * that no frontend claims by extension are read by the first one.
+     */
+    public void setFrontends(List<LanguageFrontend> frontends) {
+        if (frontends.isEmpty()) {
+            throw new IllegalArgumentException("At least one language frontend is required");
+        }
+        this.frontends = List.copyOf(frontends);
+    }
+    
+    public IssueCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Enables reuse of per-file results across runs. The caller owns the cache
+     * and is responsible for closing it, if it needs closing, once analysis has
+     * finished.
+     */
+    public void setCache(IssueCache cache) {
+        this.cache = cache;
+    }
+    
+    public boolean isPrefilterEnabled() {
+        return prefilterEnabled;
+    }
+    
+    /**
+     * Controls the lexical pre-scan that counts files no rule can match as
+     * analyzed without parsing them. Enabled by default.
+     */
+    public void setPrefilterEnabled(boolean prefilterEnabled) {
+        this.prefilterEnabled = prefilterEnabled;
+    }
+    
+    public ParseProfile getParseProfile() {
+        return parseProfile;
+    }
+    
+    /**
+     * Selects how much optional AST information is built. Defaults to
+     * {@link ParseProfile#FAST}, which builds only what the enabled rules need.
+     */
+    public void setParseProfile(ParseProfile parseProfile) {
+        this.parseProfile = parseProfile;
+    }
+    
+    public AnalysisProfile getProfile() {
+        return profile;
+    }
+    
+    /**
+     * Records per-phase, per-rule and per-file timings of every following
+     * analysis into {@code profile}; {@code null}, the default, records none.
+     */
+    public void setProfile(AnalysisProfile profile) {
+        this.profile = profile;
+    }
+    
+    public long getHeapBudget() {
+        return heapBudget;
+    }
+    
+    /**
+     * Limits the estimated heap of the files being read, parsed and checked
+     * at the same time to {@code heapBudget} bytes by holding back file
+     * discovery; 0, the default, only limits their number.
+     */
+    public void setHeapBudget(long heapBudget) {
+        this.heapBudget = heapBudget;
+    }
+    
+    public PrintWriter getWarnings() {
+        return warnings;
+    }
+    
+    /**
+     * Sets where warnings about files that cannot be read or parsed go;
+     * standard error by default.
+     */
+    public void setWarnings(PrintWriter warnings) {
+        this.warnings = warnings;
+    }
     
     public AnalysisResult analyze(Path path, String language) throws IOException {
-        List<Issue> issues = new ArrayList<>();
-        final int[] filesAnalyzed = {0};
+        AnalysisResult result = new AnalysisResult();
+        analyze(path, language, result);
+        return result;
+    }
+    
+    /**
+     * Analyzes {@code path} and streams each file's issues to {@code listener}
+     * as soon as the file is done.
+     *
+     * @return the number of files analyzed
+     */
+    public int analyze(Path path, String language, IssueListener listener) throws IOException {
+        Predicate<Path> sources = sources(language);
+        long start = System.nanoTime();
+        int filesAnalyzed = 0;
         
         if (Files.isDirectory(path)) {
-            // Analyze all Java files in directory
-            Files.walk(path)
-                .filter(p -> p.toString().endsWith(".java"))
-                .forEach(file -> {
-                    try {
-                        issues.addAll(analyzeJavaFile(file));
-                        filesAnalyzed[0]++;
-                    } catch (IOException e) {
-                        System.err.println("Warning: Could not analyze " + file + ": " + e.getMessage());
-                    }
-                });
-        } else if (path.toString().endsWith(".java")) {
-            issues.addAll(analyzeJavaFile(path));
-            filesAnalyzed[0] = 1;
+            // Analyze all source files of the language in directory
+            AnalysisPipeline pipeline = new AnalysisPipeline(threads, this::createWorker, profile, heapBudget, warnings);
+            try (Stream<Path> files = Files.walk(path)) {
+                filesAnalyzed = pipeline.run(files.filter(sources).iterator(), listener);
+            }
+        } else if (sources.test(path)) {
+            ByteBuffer content = AnalysisPipeline.read(path);
+            long read = System.nanoTime();
+            FileResult result = createWorker().analyze(path, content);
+            if (profile != null) {
+                profile.record(AnalysisProfile.Phase.READ, read - start);
+                profile.recordFile(path, System.nanoTime() - start);
+            }
+            listener.onFile(result);
+            filesAnalyzed = 1;
         }
         
-        return new AnalysisResult(issues, filesAnalyzed[0]);
+        recordElapsed(start);
+        listener.onComplete(filesAnalyzed);
+        return filesAnalyzed;
     }
     
-    private List<Issue> analyzeJavaFile(Path file) throws IOException {
-        List<Issue> issues = new ArrayList<>();
-        String content = Files.readString(file);
-        
-        try {
-            CompilationUnit cu = StaticJavaParser.parse(content);
-            InefficiencyVisitor visitor = new InefficiencyVisitor(file.toString());
-            cu.accept(visitor, issues);
-        } catch (Exception e) {
-            System.err.println("Warning: Could not parse " + file + ": " + e.getMessage());
+    /**
+     * Lists the files {@link #analyze(Path, String, IssueListener)} analyzes
+     * for {@code path} and {@code language}, in the same order.
+     */
+    public List<Path> discover(Path path, String language) throws IOException {
+        Predicate<Path> sources = sources(language);
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                return files.filter(sources).toList();
+            }
         }
-        
-        return issues;
+        return sources.test(path) ? List.of(path) : List.of();
     }
     
-    private static class InefficiencyVisitor extends VoidVisitorAdapter<List<Issue>> {
-        private final String fileName;
-        
-        public InefficiencyVisitor(String fileName) {
-            this.fileName = fileName;
+    /**
+     * Tells the source files of {@code language} from other files: those of
+     * the frontend with that name, or with {@value #AUTO} those of any
+     * frontend.
+     *
+     * @throws IllegalArgumentException if no frontend has that name
+     */
+    public Predicate<Path> sources(String language) {
+        if (AUTO.equalsIgnoreCase(language)) {
+            return file -> frontends.stream().anyMatch(frontend -> frontend.accepts(file));
         }
-        
-        @Override
-        public void visit(MethodDeclaration md, List<Issue> issues) {
-            super.visit(md, issues);
-            
-            // Check for deep nested loops
-            checkNestedLoops(md, issues);
-            
-            // Check for string concatenation in loops
-            checkStringConcatenationInLoops(md, issues);
-            
-            // Check for repeated method calls
-            checkRepeatedMethodCalls(md, issues);
+        for (LanguageFrontend frontend : frontends) {
+            if (frontend.getName().equalsIgnoreCase(language)) {
+                return frontend::accepts;
+            }
         }
-        
-        private void checkNestedLoops(MethodDeclaration md, List<Issue> issues) {
-            md.findAll(ForStmt.class).forEach(forStmt -> {
-                int nestingLevel = getNestingLevel(forStmt);
-                if (nestingLevel > 2) {
-                    issues.add(new Issue(
-                        "Deep nested loops detected",
-                        fileName + ":" + forStmt.getBegin().get().line,
-                        "HIGH",
-                        "Nested loops with depth " + nestingLevel + " can cause exponential time complexity"
-                    ));
-                }
-            });
+        List<String> names = new ArrayList<>();
+        for (LanguageFrontend frontend : frontends) {
+            names.add(frontend.getName());
         }
-        
-        private void checkStringConcatenationInLoops(MethodDeclaration md, List<Issue> issues) {
-            md.findAll(ForStmt.class).forEach(forStmt -> {
-                forStmt.findAll(StringLiteralExpr.class).forEach(str -> {
-                    if (str.getParentNode().isPresent() && 
-                        str.getParentNode().get().toString().contains("+")) {
-                        issues.add(new Issue(
-                            "String concatenation in loop",
-                            fileName + ":" + str.getBegin().get().line,
-                            "MEDIUM",
-                            "Consider using StringBuilder for string concatenation in loops"
-                        ));
-                    }
-                });
-            });
+        names.add(AUTO);
+        throw new IllegalArgumentException("Unknown language " + language + ", expected one of " + String.join(", ", names));
+    }
+    
+    /**
+     * Analyzes exactly the given files, in order, and streams their results to
+     * {@code listener}. Each file is read by the frontend of its extension.
+     * Files that cannot be read are reported and left out.
+     *
+     * @return the number of files analyzed
+     */
+    public int analyzeFiles(Collection<Path> files, IssueListener listener) throws IOException {
+        long start = System.nanoTime();
+        int filesAnalyzed = new AnalysisPipeline(threads, this::createWorker, profile, heapBudget, warnings)
+            .run(files.iterator(), listener);
+        recordElapsed(start);
+        listener.onComplete(filesAnalyzed);
+        return filesAnalyzed;
+    }
+    
+    private static int frontendIndex(List<LanguageFrontend> frontends, Path file) {
+        for (int i = 1; i < frontends.size(); i++) {
+            if (frontends.get(i).accepts(file)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
+    private void recordElapsed(long start) {
+        if (profile != null) {
+            profile.recordElapsed(System.nanoTime() - start);
+        }
+    }
+    
+    private AnalysisPipeline.FileWorker createWorker() {
+        List<LanguageFrontend> frontends = this.frontends;
+        RuleSet ruleSet = this.ruleSet;
+        ParseProfile profile = parseProfile;
+        AnalysisProfile timings = this.profile;
+        boolean prefilter = prefilterEnabled;
+        String[] versions = new String[frontends.size()];
+        for (int i = 0; i < versions.length; i++) {
+            LanguageFrontend frontend = frontends.get(i);
+            versions[i] = frontend.getName() + "@" + frontend.getVersion() + ";" + ruleSet.getVersion();
         }
         
-        private void checkRepeatedMethodCalls(MethodDeclaration md, List<Issue> issues) {
-            List<MethodCallExpr> methodCalls = md.findAll(MethodCallExpr.class);
-            for (int i = 0; i < methodCalls.size(); i++) {
-                for (int j = i + 1; j < methodCalls.size(); j++) {
-                    MethodCallExpr call1 = methodCalls.get(i);
-                    MethodCallExpr call2 = methodCalls.get(j);
-                    
-                    if (call1.getNameAsString().equals(call2.getNameAsString()) &&
-                        call1.getArguments().size() == call2.getArguments().size()) {
-                        issues.add(new Issue(
-                            "Repeated method call detected",
-                            fileName + ":" + call2.getBegin().get().line,
-                            "MEDIUM",
-                            "Consider caching result of " + call1.getNameAsString() + "() to avoid repeated computation"
-                        ));
+        return new AnalysisPipeline.FileWorker() {
+            // Frontends set up their parsers once a file of their language
+            // actually needs one
+            private final SourceAnalyzer<?>[] analyzers = new SourceAnalyzer<?>[frontends.size()];
+            private final long[][] ruleNanos = new long[frontends.size()][];
+            private long time;
+            
+            @Override
+            public FileResult analyze(Path file, ByteBuffer bytes) throws IOException {
+                int index = frontendIndex(frontends, file);
+                SourceAnalyzer<?> analyzer = analyzers[index];
+                if (analyzer == null) {
+                    analyzer = frontends.get(index).createAnalyzer(ruleSet, profile);
+                    analyzers[index] = analyzer;
+                    ruleNanos[index] = timings == null ? null : new long[analyzer.getRules().size()];
+                }
+                
+                time = timings == null ? 0 : System.nanoTime();
+                if (prefilter) {
+                    boolean mayMatch = analyzer.mayMatch(bytes);
+                    lap(AnalysisProfile.Phase.PREFILTER);
+                    if (!mayMatch) {
+                        return new FileResult(file, new ArrayList<>(), true);
                     }
                 }
+                
+                String fileName = file.toString();
+                IssueCache.CacheKey key = cache == null ? null : cache.keyOf(bytes, versions[index]);
+                if (key != null) {
+                    List<Issue> cached = cache.get(key, fileName);
+                    lap(AnalysisProfile.Phase.CACHE_LOOKUP);
+                    if (cached != null) {
+                        return new FileResult(file, cached);
+                    }
+                }
+                
+                String content = decode(bytes);
+                lap(AnalysisProfile.Phase.DECODE);
+                try {
+                    List<Issue> issues = check(analyzer, fileName, content, bytes.remaining(), ruleNanos[index]);
+                    if (key != null) {
+                        cache.put(key, fileName, issues);
+                        lap(AnalysisProfile.Phase.CACHE_STORE);
+                    }
+                    return new FileResult(file, issues);
+                } catch (Exception e) {
+                    // Parse failures are not cached so the warning is repeated on the next run
+                    warnings.println("Warning: Could not parse " + file + ": " + e.getMessage());
+                    return new FileResult(file, new ArrayList<>());
+                }
             }
-        }
-        
-        private int getNestingLevel(Statement stmt) {
-            int level = 0;
-            Node current = stmt;
-            while (current.getParentNode().isPresent()) {
-                Node parentNode = current.getParentNode().get();
-                if (parentNode instanceof ForStmt || parentNode instanceof WhileStmt || parentNode instanceof DoStmt) {
-                    level++;
+            
+            private <T> List<Issue> check(SourceAnalyzer<T> analyzer, String fileName, String content, long size,
+                long[] nanos) {
+                T tree = parse(analyzer, fileName, content, size);
+                lap(AnalysisProfile.Phase.PARSE);
+                if (nanos != null) {
+                    Arrays.fill(nanos, 0);
+                }
+                List<Issue> issues = analyzer.analyze(tree, fileName, nanos);
+                lap(AnalysisProfile.Phase.RULES);
+                if (timings != null) {
+                    timings.recordRules(analyzer.getRules(), nanos, issues);
+                }
+                return issues;
+            }
+            
+            private void lap(AnalysisProfile.Phase phase) {
+                if (timings != null) {
+                    long now = System.nanoTime();
+                    timings.record(phase, now - time);
+                    time = now;
                 }
-                current = parentNode;
             }
-            return level + 1; // Add 1 because the current statement is also a loop
+        };
+    }
+    
+    private static <T> T parse(SourceAnalyzer<T> analyzer, String fileName, String content, long size) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        boolean successful = false;
+        try {
+            T tree = analyzer.parse(fileName, content);
+            successful = true;
+            return tree;
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = fileName;
+                event.size = size;
+                event.successful = successful;
+                event.commit();
+            }
         }
     }
+    
+    private static String decode(ByteBuffer bytes) throws CharacterCodingException {
+        // Strict decoding, like Files.readString, so binary files are reported rather than parsed
+        return StandardCharsets.UTF_8.newDecoder().decode(bytes.duplicate()).toString();
+    }
 }
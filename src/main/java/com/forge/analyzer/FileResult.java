@@ -0,0 +1,36 @@
+package com.forge.analyzer;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class FileResult {
+    private final Path file;
+    private final List<Issue> issues;
+    private final boolean skipped;
+    
+    public FileResult(Path file, List<Issue> issues) {
+        this(file, issues, false);
+    }
+    
+    public FileResult(Path file, List<Issue> issues, boolean skipped) {
+        this.file = file;
+        this.issues = issues;
+        this.skipped = skipped;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public List<Issue> getIssues() {
+        return issues;
+    }
+    
+    /**
+     * Whether the lexical pre-filter ruled the file out, so it was counted as
+     * analyzed without being parsed.
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+}
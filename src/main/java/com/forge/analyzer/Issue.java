@@ -1,36 +1,102 @@
 package com.forge.analyzer;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Objects;
+
+/**
+ * A single finding. Analyses can produce millions of them, so an issue keeps
+ * its rule, file, line and column as a shared rule id, the path string that
+ * all issues of its file share and ints; the description, location and
+ * severity are derived from those on each call.
+ */
+// The original fields come first, in the order JSON output had before issues gained the others
+@JsonPropertyOrder({"description", "location", "severity", "details", "rule", "line", "column", "method", "file"})
 public class Issue {
-    private final String description;
-    private final String location;
-    private final String severity;
+    private final RuleId rule;
+    private final String file;
+    private final int line;
+    private final int column;
     private final String details;
+    private final String method;
     
-    public Issue(String description, String location, String severity, String details) {
-        this.description = description;
-        this.location = location;
-        this.severity = severity;
+    public Issue(RuleId rule, String file, int line, int column, String details) {
+        this(rule, file, line, column, details, null);
+    }
+    
+    public Issue(RuleId rule, String file, int line, int column, String details, String method) {
+        this.rule = rule;
+        this.file = file;
+        this.line = line;
+        this.column = column;
         this.details = details;
+        this.method = method;
+    }
+    
+    public RuleId getRule() {
+        return rule;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public int getLine() {
+        return line;
+    }
+    
+    public int getColumn() {
+        return column;
     }
     
     public String getDescription() {
-        return description;
+        return rule.getDescription();
     }
     
     public String getLocation() {
-        return location;
+        return getFile() + ":" + line;
     }
     
-    public String getSeverity() {
-        return severity;
+    public Severity getSeverity() {
+        return rule.getSeverity();
     }
     
     public String getDetails() {
         return details;
     }
     
+    /**
+     * The enclosing method as it appears in stack traces, for example
+     * {@code com.example.Outer.Inner.run} or {@code com.example.Outer.<init>},
+     * or {@code null} when the issue is outside any method.
+     */
+    public String getMethod() {
+        return method;
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Issue issue)) {
+            return false;
+        }
+        return rule.equals(issue.rule)
+            && file.equals(issue.file)
+            && line == issue.line
+            && column == issue.column
+            && details.equals(issue.details)
+            && Objects.equals(method, issue.method);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(rule, file, line, column, details, method);
+    }
+    
     @Override
     public String toString() {
-        return String.format("%s at %s (%s): %s", description, location, severity, details);
+        return String.format("%s at %s (%s): %s", getDescription(), getLocation(), getSeverity(), details);
     }
 }
@@ -0,0 +1,32 @@
+package com.forge.analyzer;
+
+/**
+ * Receives analysis results file by file as soon as each file is done, so
+ * callers can report incrementally instead of waiting for the whole walk.
+ * <p>
+ * Files are delivered one at a time and in discovery order, even when the
+ * analysis runs on several threads.
+ */
+public interface IssueListener {
+    
+    void onFile(FileResult file);
+    
+    default void onComplete(int filesAnalyzed) {
+    }
+    
+    static IssueListener tee(IssueListener first, IssueListener second) {
+        return new IssueListener() {
+            @Override
+            public void onFile(FileResult file) {
+                first.onFile(file);
+                second.onFile(file);
+            }
+            
+            @Override
+            public void onComplete(int filesAnalyzed) {
+                first.onComplete(filesAnalyzed);
+                second.onComplete(filesAnalyzed);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.forge.analyzer;
+
+import com.forge.analyzer.rules.ParseFeature;
+import com.forge.analyzer.rules.Rule;
+import com.github.javaparser.ParserConfiguration;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * How much optional information the parser builds beyond what the rules need.
+ * Attributing comments to nodes alone can take longer than the rest of the
+ * parse on heavily commented code.
+ */
+public enum ParseProfile {
+    /** Only the {@link ParseFeature}s the enabled rules declare. */
+    FAST,
+    /** JavaParser's default configuration, plus whatever the rules declare. */
+    FULL;
+    
+    public ParserConfiguration createConfiguration(Collection<Rule> rules) {
+        Set<ParseFeature> features = EnumSet.noneOf(ParseFeature.class);
+        for (Rule rule : rules) {
+            features.addAll(rule.getParseFeatures());
+        }
+        
+        // Tokens stay stored in both profiles: JavaParser derives node
+        // positions from them, and every issue needs a line
+        return new ParserConfiguration()
+            .setAttributeComments(this == FULL || features.contains(ParseFeature.COMMENTS))
+            .setLexicalPreservationEnabled(features.contains(ParseFeature.LEXICAL_PRESERVATION));
+    }
+}
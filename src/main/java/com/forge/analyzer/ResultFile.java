@@ -0,0 +1,381 @@
+package com.forge.analyzer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A stored analysis result, as written by {@code forge analyze --save-result}.
+ * Besides the issues it records the analyzed directory and, for a shard, its
+ * place in the partition and each file's position among all files, which is
+ * what {@link #merge} needs to put shards back together in the order a
+ * single run would have produced.
+ * <p>
+ * A fixed header holds the counts and the offset and length of three
+ * sections: the files, the issues and a string table that paths, rule ids,
+ * details and methods refer to by index. Numbers in the first two are
+ * varints and lines are stored as the difference to the previous issue of
+ * the file, so an issue mostly takes six to eight bytes. Sections are read
+ * by mapping them, and each string is decoded once however many issues
+ * refer to it.
+ */
+public final class ResultFile {
+    private static final int MAGIC = 0x46475253; // "FGRS"
+    private static final int FORMAT_VERSION = 2;
+    // Sections, in the order of their offset and length in the header
+    private static final int FILES = 0;
+    private static final int ISSUES = 1;
+    private static final int STRINGS = 2;
+    private static final int SECTIONS = 3;
+    private static final int HEADER_BYTES = 10 * Integer.BYTES + SECTIONS * 2 * Long.BYTES;
+    
+    private final Path root;
+    private final String language;
+    private final Shard shard;
+    private final AnalysisResult result;
+    // Position of each delivered file of the result among all analyzed files
+    private final int[] positions;
+    
+    /**
+     * Wraps the result of analyzing {@code root} in full.
+     */
+    public ResultFile(Path root, String language, AnalysisResult result) {
+        this(root, language, null, result, sequence(result.getFileCount()));
+    }
+    
+    /**
+     * Wraps the result of analyzing one shard of {@code root}, where
+     * {@code position} gives a file's position among the files of all shards.
+     */
+    public ResultFile(Path root, String language, Shard shard, AnalysisResult result, ToIntFunction<Path> position) {
+        this(root, language, shard, result, positionsOf(result, position));
+    }
+    
+    private ResultFile(Path root, String language, Shard shard, AnalysisResult result, int[] positions) {
+        this.root = root;
+        this.language = language;
+        this.shard = shard;
+        this.result = result;
+        this.positions = positions;
+    }
+    
+    public Path getRoot() {
+        return root;
+    }
+    
+    public String getLanguage() {
+        return language;
+    }
+    
+    /**
+     * The shard this result covers, or {@code null} for a whole analysis.
+     */
+    public Shard getShard() {
+        return shard;
+    }
+    
+    public AnalysisResult getResult() {
+        return result;
+    }
+    
+    /**
+     * Combines the results of all shards of one analysis into the result a
+     * single run would have had, with files in the same order.
+     */
+    public static ResultFile merge(List<ResultFile> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("No results to merge");
+        }
+        int count = shards.get(0).shard == null ? 0 : shards.get(0).shard.getCount();
+        ResultFile[] byIndex = new ResultFile[count];
+        for (ResultFile shard : shards) {
+            if (shard.shard == null || shard.shard.getCount() != count) {
+                throw new IllegalArgumentException("Can only merge the shards of one analysis, got "
+                    + (shard.shard == null ? "a whole analysis" : "shard " + shard.shard) + " among shards of " + count);
+            }
+            if (byIndex[shard.shard.getIndex() - 1] != null) {
+                throw new IllegalArgumentException("Shard " + shard.shard + " is given twice");
+            }
+            byIndex[shard.shard.getIndex() - 1] = shard;
+        }
+        for (int i = 0; i < count; i++) {
+            if (byIndex[i] == null) {
+                throw new IllegalArgumentException("Shard " + (i + 1) + "/" + count + " is missing");
+            }
+        }
+        
+        // Every file of every shard, as {position, shard, file}, in discovery order
+        List<int[]> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            for (int file = 0; file < byIndex[i].positions.length; file++) {
+                files.add(new int[] {byIndex[i].positions[file], i, file});
+            }
+        }
+        files.sort(Comparator.comparingInt(file -> file[0]));
+        
+        AnalysisResult merged = new AnalysisResult();
+        for (int[] file : files) {
+            AnalysisResult part = byIndex[file[1]].result;
+            merged.onFile(new FileResult(Path.of(part.getFile(file[2])), part.getFileIssues(file[2]),
+                part.isFileSkipped(file[2])));
+        }
+        for (ResultFile shard : byIndex) {
+            int undelivered = shard.result.getFilesAnalyzed() - shard.result.getFileCount();
+            int skipped = shard.result.getFilesSkipped();
+            for (int file = 0; file < shard.result.getFileCount(); file++) {
+                if (shard.result.isFileSkipped(file)) {
+                    skipped--;
+                }
+            }
+            merged.countFiles(undelivered, skipped);
+        }
+        return new ResultFile(shards.get(0).root, shards.get(0).language, merged);
+    }
+    
+    public void write(Path file) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        List<Issue> issues = result.getIssues();
+        long[] sections = new long[SECTIONS * 2];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.write(new byte[HEADER_BYTES]);
+            
+            sections[FILES * 2] = out.size();
+            for (int i = 0; i < result.getFileCount(); i++) {
+                writeVarint(out, stringId(result.getFile(i), stringIds, strings));
+                writeVarint(out, positions[i]);
+                out.writeBoolean(result.isFileSkipped(i));
+                writeVarint(out, result.getFileIssues(i).size());
+            }
+            sections[FILES * 2 + 1] = out.size() - sections[FILES * 2];
+            
+            // Lines are stored as the difference to the previous issue of the same file
+            sections[ISSUES * 2] = out.size();
+            int issue = 0;
+            for (int i = 0; i < result.getFileCount(); i++) {
+                int previousLine = 0;
+                for (int end = issue + result.getFileIssues(i).size(); issue < end; issue++) {
+                    Issue fileIssue = issues.get(issue);
+                    writeVarint(out, stringId(fileIssue.getRule().getId(), stringIds, strings));
+                    int delta = fileIssue.getLine() - previousLine;
+                    writeVarint(out, delta << 1 ^ delta >> 31);
+                    previousLine = fileIssue.getLine();
+                    writeVarint(out, fileIssue.getColumn());
+                    writeVarint(out, stringId(fileIssue.getDetails(), stringIds, strings));
+                    writeVarint(out, fileIssue.getMethod() == null ? 0 : stringId(fileIssue.getMethod(), stringIds, strings) + 1);
+                }
+            }
+            sections[ISSUES * 2 + 1] = out.size() - sections[ISSUES * 2];
+            
+            int rootId = stringId(root.toString(), stringIds, strings);
+            int languageId = stringId(language, stringIds, strings);
+            sections[STRINGS * 2] = out.size();
+            writeStrings(out, strings);
+            sections[STRINGS * 2 + 1] = out.size() - sections[STRINGS * 2];
+            out.flush();
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Result is too large to store: more than 2 GB");
+            }
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rootId).putInt(languageId)
+                .putInt(shard == null ? 0 : shard.getIndex()).putInt(shard == null ? 0 : shard.getCount())
+                .putInt(result.getFilesAnalyzed()).putInt(result.getFilesSkipped())
+                .putInt(result.getFileCount()).putInt(issues.size());
+            for (long section : sections) {
+                header.putLong(section);
+            }
+            header.flip();
+            channel.write(header, 0);
+        }
+    }
+    
+    public static ResultFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is not a Forge result");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a Forge result");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException(file + " has result format " + version + ", expected " + FORMAT_VERSION);
+            }
+            try {
+                return read(channel, header);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                | IllegalArgumentException e) {
+                throw new IOException(file + " is corrupt", e);
+            }
+        }
+    }
+    
+    private static ResultFile read(FileChannel channel, ByteBuffer header) throws IOException {
+        int rootId = header.getInt();
+        int languageId = header.getInt();
+        int shardIndex = header.getInt();
+        int shardCount = header.getInt();
+        int filesAnalyzed = header.getInt();
+        int filesSkipped = header.getInt();
+        int fileCount = header.getInt();
+        int issueCount = header.getInt();
+        ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            long offset = header.getLong();
+            long length = header.getLong();
+            if (offset < HEADER_BYTES || length < 0 || offset + length > channel.size()) {
+                throw new IllegalArgumentException("Section " + i + " is out of bounds");
+            }
+            sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        StringTable strings = new StringTable(sections[STRINGS]);
+        
+        AnalysisResult result = new AnalysisResult();
+        ByteBuffer files = sections[FILES];
+        ByteBuffer issues = sections[ISSUES];
+        RuleId[] rules = new RuleId[strings.size()];
+        int[] positions = new int[fileCount];
+        int skippedFiles = 0;
+        int remainingIssues = issueCount;
+        for (int i = 0; i < fileCount; i++) {
+            String path = strings.get(readVarint(files));
+            positions[i] = readVarint(files);
+            boolean skipped = files.get() != 0;
+            int fileIssueCount = readVarint(files);
+            remainingIssues -= fileIssueCount;
+            if (fileIssueCount < 0 || remainingIssues < 0) {
+                throw new IllegalArgumentException("Issue count of " + path + " is out of bounds");
+            }
+            List<Issue> fileIssues = new ArrayList<>(fileIssueCount);
+            int line = 0;
+            for (int issue = 0; issue < fileIssueCount; issue++) {
+                int ruleId = readVarint(issues);
+                if (rules[ruleId] == null) {
+                    rules[ruleId] = RuleId.of(strings.get(ruleId));
+                }
+                int delta = readVarint(issues);
+                line += delta >>> 1 ^ -(delta & 1);
+                int column = readVarint(issues);
+                String details = strings.get(readVarint(issues));
+                int methodId = readVarint(issues);
+                fileIssues.add(new Issue(rules[ruleId], path, line, column, details,
+                    methodId == 0 ? null : strings.get(methodId - 1)));
+            }
+            result.onFile(new FileResult(Path.of(path), fileIssues, skipped));
+            if (skipped) {
+                skippedFiles++;
+            }
+        }
+        result.countFiles(filesAnalyzed - fileCount, filesSkipped - skippedFiles);
+        Shard shard = shardCount == 0 ? null : new Shard(shardIndex, shardCount);
+        return new ResultFile(Path.of(strings.get(rootId)), strings.get(languageId), shard, result, positions);
+    }
+    
+    // The string count, the end of each string and then all strings as UTF-8
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        out.writeInt(strings.size());
+        int end = 0;
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            end += bytes.length;
+            out.writeInt(end);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+    
+    // Seven bits per byte, least significant first, with the high bit set on all but the last
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+    
+    private static int stringId(String string, Map<String, Integer> stringIds, List<String> strings) {
+        return stringIds.computeIfAbsent(string, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+    
+    private static int[] sequence(int length) {
+        int[] sequence = new int[length];
+        Arrays.setAll(sequence, i -> i);
+        return sequence;
+    }
+    
+    private static int[] positionsOf(AnalysisResult result, ToIntFunction<Path> position) {
+        int[] positions = new int[result.getFileCount()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = position.applyAsInt(Path.of(result.getFile(i)));
+        }
+        return positions;
+    }
+    
+    /**
+     * The strings of a mapped file, decoded when first asked for.
+     */
+    private static final class StringTable {
+        private final ByteBuffer buffer;
+        private final int dataStart;
+        private final String[] decoded;
+        
+        StringTable(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.decoded = new String[buffer.getInt(0)];
+            this.dataStart = Integer.BYTES * (decoded.length + 1);
+        }
+        
+        int size() {
+            return decoded.length;
+        }
+        
+        String get(int id) {
+            String string = decoded[id];
+            if (string == null) {
+                int start = id == 0 ? 0 : buffer.getInt(Integer.BYTES * id);
+                int end = buffer.getInt(Integer.BYTES * (id + 1));
+                byte[] bytes = new byte[end - start];
+                buffer.get(dataStart + start, bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+                decoded[id] = string;
+            }
+            return string;
+        }
+    }
+}
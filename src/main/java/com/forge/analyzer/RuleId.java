@@ -0,0 +1,111 @@
+package com.forge.analyzer;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies what an issue is about. Every rule reports under exactly one id,
+ * which also fixes the issue's description and severity.
+ * <p>
+ * Ids are open, so rules added through {@link com.forge.analyzer.rules.RuleSet}
+ * define their own with {@link #define}. Each defined id has one instance per
+ * process, and ids are looked up among the built-in constants first. Instances
+ * with the same id are equal.
+ */
+public final class RuleId {
+    private static final Map<String, RuleId> DEFINED = new ConcurrentHashMap<>();
+    
+    public static final RuleId NESTED_LOOPS =
+        define("nested-loops", "Deep nested loops detected", Severity.HIGH);
+    public static final RuleId STRING_CONCATENATION_IN_LOOP =
+        define("string-concatenation-in-loop", "String concatenation in loop", Severity.MEDIUM);
+    public static final RuleId REPEATED_METHOD_CALL =
+        define("repeated-method-call", "Repeated method call detected", Severity.MEDIUM);
+    
+    private static final List<RuleId> BUILT_IN = List.of(NESTED_LOOPS, STRING_CONCATENATION_IN_LOOP, REPEATED_METHOD_CALL);
+    
+    private final String id;
+    private final String description;
+    private final Severity severity;
+    
+    private RuleId(String id, String description, Severity severity) {
+        this.id = id;
+        this.description = description;
+        this.severity = severity;
+    }
+    
+    /**
+     * Returns the id named {@code id}, defining it with {@code description}
+     * and {@code severity} unless it is defined already, in which case the
+     * first definition is kept.
+     */
+    public static RuleId define(String id, String description, Severity severity) {
+        return DEFINED.computeIfAbsent(id, key -> new RuleId(key, description, severity));
+    }
+    
+    /**
+     * Returns the id named {@code id}. Results read back from caches and
+     * result files may name rules this process does not define; those get
+     * their id as description and {@link Severity#MEDIUM}, without defining
+     * them.
+     */
+    public static RuleId of(String id) {
+        for (RuleId rule : BUILT_IN) {
+            if (rule.id.equals(id)) {
+                return rule;
+            }
+        }
+        RuleId rule = DEFINED.get(id);
+        return rule != null ? rule : new RuleId(id, id, Severity.MEDIUM);
+    }
+    
+    /**
+     * The ids of the rules that come with forge, in a fixed order.
+     */
+    public static List<RuleId> builtIn() {
+        return BUILT_IN;
+    }
+    
+    /**
+     * The stable name used in output, caches and rule set versions.
+     */
+    public String getId() {
+        return id;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public Severity getSeverity() {
+        return severity;
+    }
+    
+    /**
+     * The id in upper case with underscores, such as {@code NESTED_LOOPS},
+     * as JSON output names the rule.
+     */
+    @JsonValue
+    public String name() {
+        return id.toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof RuleId rule && id.equals(rule.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return name();
+    }
+}
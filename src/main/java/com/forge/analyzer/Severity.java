@@ -0,0 +1,7 @@
+package com.forge.analyzer;
+
+public enum Severity {
+    HIGH,
+    MEDIUM,
+    LOW
+}
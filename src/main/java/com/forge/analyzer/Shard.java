@@ -0,0 +1,120 @@
+package com.forge.analyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * One of {@code count} disjoint parts of an analysis, so that it can be split
+ * across machines. Every machine computes the same partition of the same
+ * files: they are taken largest first, in order of a hash of their path
+ * within the analyzed directory where sizes tie, and each goes to the part
+ * with the fewest bytes so far.
+ */
+public final class Shard {
+    private final int index;
+    private final int count;
+    
+    /**
+     * Creates shard {@code index} of {@code count}, counting from 1.
+     */
+    public Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Shard must be i/n with 1 <= i <= n, got " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+    
+    /**
+     * Parses {@code i/n}, as given on the command line.
+     */
+    public static Shard parse(String spec) {
+        int slash = spec.indexOf('/');
+        try {
+            return new Shard(Integer.parseInt(spec.substring(0, Math.max(slash, 0)).strip()),
+                Integer.parseInt(spec.substring(slash + 1).strip()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Shard must be i/n with 1 <= i <= n, got " + spec);
+        }
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * Selects the files of this shard among {@code files}, keeping their
+     * order. Files that cannot be sized are assigned as if empty.
+     */
+    public List<Path> select(Path root, List<Path> files) {
+        Path base = root.toAbsolutePath().normalize();
+        List<SizedFile> sized = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            sized.add(new SizedFile(i, sizeOf(file), pathHash(base, file)));
+        }
+        sized.sort(Comparator.comparingLong(SizedFile::size).reversed()
+            .thenComparingLong(SizedFile::hash)
+            .thenComparing(file -> files.get(file.position()).toString()));
+        
+        // Loads of all shards as {bytes, shard}, lightest first and the lower shard on ties
+        PriorityQueue<long[]> loads = new PriorityQueue<>(
+            Comparator.<long[]>comparingLong(load -> load[0]).thenComparingLong(load -> load[1]));
+        for (int shard = 1; shard <= count; shard++) {
+            loads.add(new long[] {0, shard});
+        }
+        Set<Integer> selected = new HashSet<>();
+        for (SizedFile file : sized) {
+            long[] lightest = loads.poll();
+            if (lightest[1] == index) {
+                selected.add(file.position());
+            }
+            lightest[0] += file.size();
+            loads.add(lightest);
+        }
+        
+        List<Path> result = new ArrayList<>(selected.size());
+        for (int i = 0; i < files.size(); i++) {
+            if (selected.contains(i)) {
+                result.add(files.get(i));
+            }
+        }
+        return result;
+    }
+    
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    private static long pathHash(Path base, Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        Path relative = normalized.startsWith(base) ? base.relativize(normalized) : normalized;
+        // String.hashCode is specified, so every JVM computes the same value
+        long hash = relative.toString().replace(relative.getFileSystem().getSeparator(), "/").hashCode();
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ hash >>> 32;
+    }
+    
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+    
+    private record SizedFile(int position, long size, long hash) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.forge.analyzer.cache;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of per-file issues keyed by a hash of the file content and the
+ * rule set version, so unchanged files are never parsed again.
+ * <p>
+ * Each entry lives in its own file and is published with an atomic rename,
+ * which makes concurrent writes from analysis workers (and from other Forge
+ * processes sharing the directory) safe. A compact binary index records entry
+ * sizes and last access times; it is loaded on open and written back on
+ * {@link #close()}, evicting least recently used entries beyond the size cap.
+ */
+public class AnalysisCache implements IssueCache, Closeable {
+    public static final String DEFAULT_DIRECTORY = ".forge-cache";
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    
+    private static final int INDEX_MAGIC = 0x46474349; // "FGCI"
+    // Version 2 stores rule ids and line and column numbers instead of descriptions and locations,
+    // version 3 adds the enclosing method of each issue
+    private static final int FORMAT_VERSION = 3;
+    private static final String INDEX_FILE = "index.bin";
+    private static final String LOCK_FILE = "index.lock";
+    private static final String ENTRIES_DIRECTORY = "entries";
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<CacheKey, IndexEntry> index;
+    private final PrintWriter warnings;
+    
+    private AnalysisCache(Path directory, long maxBytes, Map<CacheKey, IndexEntry> index, PrintWriter warnings) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.index = index;
+        this.warnings = warnings;
+    }
+    
+    public static AnalysisCache open(Path directory, long maxBytes) throws IOException {
+        return open(directory, maxBytes, new PrintWriter(System.err, true));
+    }
+    
+    /**
+     * Opens the cache in {@code directory}, reporting entries that cannot be
+     * written and an index that cannot be read to {@code warnings}.
+     */
+    public static AnalysisCache open(Path directory, long maxBytes, PrintWriter warnings) throws IOException {
+        Files.createDirectories(directory.resolve(ENTRIES_DIRECTORY));
+        return new AnalysisCache(directory, maxBytes, new ConcurrentHashMap<>(readIndex(directory, warnings)), warnings);
+    }
+    
+    public int size() {
+        return index.size();
+    }
+    
+    @Override
+    public List<Issue> get(CacheKey key, String fileName) {
+        IndexEntry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        
+        try {
+            List<Issue> issues = decode(Files.readAllBytes(entryPath(key)), fileName);
+            entry.lastAccess = System.currentTimeMillis();
+            return issues;
+        } catch (IOException e) {
+            // Evicted by another process or truncated; treat as a miss
+            index.remove(key);
+            return null;
+        }
+    }
+    
+    @Override
+    public void put(CacheKey key, String fileName, List<Issue> issues) {
+        try {
+            byte[] data = encode(issues);
+            Path target = entryPath(key);
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key.toHex(), ".tmp");
+            try {
+                Files.write(temp, data);
+                moveAtomically(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            index.put(key, new IndexEntry(data.length, System.currentTimeMillis()));
+        } catch (IOException e) {
+            warnings.println("Warning: Could not write cache entry for " + fileName + ": " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockChannel.lock()) {
+            // Another process may have saved its index since we loaded ours
+            Map<CacheKey, IndexEntry> merged = new HashMap<>(readIndex(directory, warnings));
+            index.forEach((key, entry) -> merged.merge(key, entry,
+                (onDisk, ours) -> onDisk.lastAccess >= ours.lastAccess ? onDisk : ours));
+            evict(merged);
+            writeIndex(merged);
+        }
+    }
+    
+    private void evict(Map<CacheKey, IndexEntry> entries) throws IOException {
+        long totalBytes = 0;
+        for (IndexEntry entry : entries.values()) {
+            totalBytes += entry.size;
+        }
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        
+        List<Map.Entry<CacheKey, IndexEntry>> byAge = new ArrayList<>(entries.entrySet());
+        byAge.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<CacheKey, IndexEntry> oldest : byAge) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            Files.deleteIfExists(entryPath(oldest.getKey()));
+            entries.remove(oldest.getKey());
+            totalBytes -= oldest.getValue().size;
+        }
+    }
+    
+    private void writeIndex(Map<CacheKey, IndexEntry> entries) throws IOException {
+        Path temp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<CacheKey, IndexEntry> entry : entries.entrySet()) {
+                    out.writeLong(entry.getKey().high());
+                    out.writeLong(entry.getKey().low());
+                    out.writeInt(entry.getValue().size);
+                    out.writeLong(entry.getValue().lastAccess);
+                }
+            }
+            moveAtomically(temp, directory.resolve(INDEX_FILE));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static Map<CacheKey, IndexEntry> readIndex(Path directory, PrintWriter warnings) throws IOException {
+        Map<CacheKey, IndexEntry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(INDEX_FILE))))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != FORMAT_VERSION) {
+                return entries;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                CacheKey key = new CacheKey(in.readLong(), in.readLong());
+                entries.put(key, new IndexEntry(in.readInt(), in.readLong()));
+            }
+        } catch (NoSuchFileException e) {
+            // Fresh cache directory
+        } catch (IOException e) {
+            warnings.println("Warning: Ignoring unreadable cache index in " + directory + ": " + e.getMessage());
+            entries.clear();
+        }
+        return entries;
+    }
+    
+    private Path entryPath(CacheKey key) {
+        String hex = key.toHex();
+        return directory.resolve(ENTRIES_DIRECTORY).resolve(hex.substring(0, 2)).resolve(hex);
+    }
+    
+    private static byte[] encode(List<Issue> issues) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            // The file is left out so identical content at another path can share the entry
+            out.writeInt(issues.size());
+            for (Issue issue : issues) {
+                out.writeUTF(issue.getRule().getId());
+                out.writeInt(issue.getLine());
+                out.writeInt(issue.getColumn());
+                out.writeUTF(issue.getDetails());
+                out.writeBoolean(issue.getMethod() != null);
+                if (issue.getMethod() != null) {
+                    out.writeUTF(issue.getMethod());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static List<Issue> decode(byte[] data, String fileName) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int count = in.readInt();
+            List<Issue> issues = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RuleId rule = RuleId.of(in.readUTF());
+                int line = in.readInt();
+                int column = in.readInt();
+                String details = in.readUTF();
+                String method = in.readBoolean() ? in.readUTF() : null;
+                issues.add(new Issue(rule, fileName, line, column, details, method));
+            }
+            return issues;
+        }
+    }
+    
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private static final class IndexEntry {
+        private final int size;
+        private volatile long lastAccess;
+        
+        IndexEntry(int size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
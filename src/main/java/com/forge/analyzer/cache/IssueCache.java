@@ -0,0 +1,77 @@
+package com.forge.analyzer.cache;
+
+import com.forge.analyzer.Issue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Per-file issues keyed by a hash of the file content and the rule set
+ * version. Implementations must be safe for concurrent use by analysis workers.
+ */
+public interface IssueCache {
+    
+    /**
+     * Returns the cached issues for the given key with their locations rebound
+     * to {@code fileName}, or {@code null} on a miss.
+     */
+    List<Issue> get(CacheKey key, String fileName);
+    
+    void put(CacheKey key, String fileName, List<Issue> issues);
+    
+    default CacheKey keyOf(byte[] content, String ruleSetVersion) {
+        return keyOf(ByteBuffer.wrap(content), ruleSetVersion);
+    }
+    
+    /**
+     * Hashes the remaining bytes of {@code content} without moving its position.
+     */
+    default CacheKey keyOf(ByteBuffer content, String ruleSetVersion) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(ruleSetVersion.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(content.duplicate());
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new CacheKey(hash.getLong(), hash.getLong());
+    }
+    
+    /**
+     * Returns a cache that answers from {@code front} first and falls back to
+     * {@code back}, copying entries found there to the front.
+     */
+    static IssueCache layered(IssueCache front, IssueCache back) {
+        return new IssueCache() {
+            @Override
+            public List<Issue> get(CacheKey key, String fileName) {
+                List<Issue> issues = front.get(key, fileName);
+                if (issues == null) {
+                    issues = back.get(key, fileName);
+                    if (issues != null) {
+                        front.put(key, fileName, issues);
+                    }
+                }
+                return issues;
+            }
+            
+            @Override
+            public void put(CacheKey key, String fileName, List<Issue> issues) {
+                front.put(key, fileName, issues);
+                back.put(key, fileName, issues);
+            }
+        };
+    }
+    
+    record CacheKey(long high, long low) {
+        public String toHex() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+}
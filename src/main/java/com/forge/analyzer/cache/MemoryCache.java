@@ -0,0 +1,62 @@
+package com.forge.analyzer.cache;
+
+import com.forge.analyzer.Issue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps per-file issues in memory for the lifetime of a long-running process,
+ * evicting the least recently used file once {@code maxEntries} is reached.
+ */
+public class MemoryCache implements IssueCache {
+    private final Map<CacheKey, Entry> entries;
+    
+    public MemoryCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry, got " + maxEntries);
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    @Override
+    public List<Issue> get(CacheKey key, String fileName) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.fileName().equals(fileName)) {
+            return new ArrayList<>(entry.issues());
+        }
+        
+        // Same content at another path
+        List<Issue> rebound = new ArrayList<>(entry.issues().size());
+        for (Issue issue : entry.issues()) {
+            rebound.add(new Issue(issue.getRule(), fileName, issue.getLine(), issue.getColumn(), issue.getDetails(),
+                issue.getMethod()));
+        }
+        return rebound;
+    }
+    
+    @Override
+    public synchronized void put(CacheKey key, String fileName, List<Issue> issues) {
+        entries.put(key, new Entry(fileName, List.copyOf(issues)));
+    }
+    
+    private record Entry(String fileName, List<Issue> issues) {
+    }
+}
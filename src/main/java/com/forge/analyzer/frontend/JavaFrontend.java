@@ -0,0 +1,79 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.ParseProfile;
+import com.forge.analyzer.lexical.LexicalPrefilter;
+import com.forge.analyzer.rules.Rule;
+import com.forge.analyzer.rules.RuleEngine;
+import com.forge.analyzer.rules.RuleSet;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Parses Java with JavaParser and runs the rules on its AST.
+ */
+public class JavaFrontend implements LanguageFrontend {
+    
+    @Override
+    public String getName() {
+        return "java";
+    }
+    
+    @Override
+    public List<String> getExtensions() {
+        return List.of(".java");
+    }
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public SourceAnalyzer<CompilationUnit> createAnalyzer(RuleSet ruleSet, ParseProfile parseProfile) {
+        RuleEngine engine = ruleSet.createEngine();
+        
+        return new SourceAnalyzer<>() {
+            // JavaParser instances are not thread-safe, so every worker gets its
+            // own. Configuring one is a large part of startup, so it is only done
+            // once a file actually needs parsing.
+            private JavaParser parser;
+            private LexicalPrefilter prefilter;
+            
+            @Override
+            public List<Rule> getRules() {
+                return engine.getRules();
+            }
+            
+            @Override
+            public boolean mayMatch(ByteBuffer content) {
+                if (prefilter == null) {
+                    prefilter = new LexicalPrefilter(engine.getRules());
+                }
+                return prefilter.mayMatch(content);
+            }
+            
+            @Override
+            public CompilationUnit parse(String fileName, String content) {
+                if (parser == null) {
+                    parser = new JavaParser(parseProfile.createConfiguration(engine.getRules()));
+                }
+                ParseResult<CompilationUnit> result = parser.parse(content);
+                if (!result.isSuccessful() || result.getResult().isEmpty()) {
+                    throw new ParseProblemException(result.getProblems());
+                }
+                return result.getResult().get();
+            }
+            
+            @Override
+            public List<Issue> analyze(CompilationUnit tree, String fileName, long[] ruleNanos) {
+                return engine.analyze(tree, fileName, ruleNanos);
+            }
+        };
+    }
+}
@@ -0,0 +1,296 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.rules.ScriptRuleEngine;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Walks the tokens of a JavaScript file once, telling a
+ * {@link ScriptRuleEngine} where functions, classes and loops begin and end.
+ * Every construct is opened with the index of its last token, found through
+ * the matched brackets, so a loop without braces ends with its statement.
+ * <p>
+ * Named functions and methods are functions of their own; anonymous functions
+ * and arrow functions belong to the function around them, like lambdas in
+ * Java, and count as loops when passed to an array method that calls them
+ * once per element.
+ */
+final class JavaScriptScanner {
+    static final Set<String> ITERATING_METHODS = Set.of(
+        "forEach", "map", "flatMap", "filter", "reduce", "reduceRight", "some", "every",
+        "find", "findIndex", "findLast", "findLastIndex"
+    );
+    // Names that are not calls when followed by a parenthesis, unless they are properties
+    private static final Set<String> NOT_CALLED = Set.of(
+        "if", "for", "while", "switch", "catch", "with", "function", "return", "typeof", "do", "else", "new",
+        "super", "import", "void", "delete", "in", "of", "instanceof", "case", "throw", "await", "yield"
+    );
+    // Keywords whose parenthesized part is followed by a block rather than a function body
+    private static final Set<String> BLOCK_KEYWORDS = Set.of("if", "for", "while", "switch", "catch", "with", "await");
+    // Keywords that start a statement on a new line even without a semicolon before them
+    private static final Set<String> STATEMENT_KEYWORDS = Set.of(
+        "const", "let", "var", "function", "class", "return", "if", "for", "while", "do", "switch", "try",
+        "throw", "break", "continue", "export", "import"
+    );
+    private static final byte SCOPE = 0;
+    private static final byte LOOP = 1;
+    
+    // Open constructs as the index of their last token and their kind, innermost last
+    private int[] frameEnds = new int[32];
+    private byte[] frameKinds = new byte[32];
+    private int frames;
+    
+    void scan(ScriptTokens tokens, ScriptRuleEngine engine) {
+        frames = 0;
+        for (int i = 0; i < tokens.size; i++) {
+            while (frames > 0 && frameEnds[frames - 1] < i) {
+                closeFrame(engine);
+            }
+            switch (tokens.kinds[i]) {
+                case ScriptTokens.NAME:
+                    if (!tokens.isOperator(i - 1, '.') && !tokens.is(i - 1, "?.")) {
+                        openStatement(tokens, i, engine);
+                    }
+                    if (tokens.isOperator(i + 1, '(') && engine.isCountingCalls()) {
+                        countCall(tokens, i, engine);
+                    }
+                    break;
+                case ScriptTokens.STRING:
+                    if (tokens.isOperator(i - 1, '+') || tokens.is(i - 1, "+=") || tokens.isOperator(i + 1, '+')) {
+                        engine.stringConcatenation(tokens.lines[i], tokens.columns[i]);
+                    }
+                    break;
+                case ScriptTokens.OPERATOR:
+                    if (tokens.isOperator(i, '{')) {
+                        String function = functionName(tokens, i);
+                        if (function != null) {
+                            engine.enterFunction(function);
+                            openFrame(SCOPE, tokens.pair[i] < 0 ? tokens.size : tokens.pair[i]);
+                        }
+                    } else if (tokens.is(i, "=>") && !tokens.isOperator(i + 1, '{')) {
+                        String function = arrowName(tokens, i);
+                        if (function != null) {
+                            engine.enterFunction(function);
+                            openFrame(SCOPE, end(tokens, i + 1, false));
+                        }
+                    } else if (tokens.isOperator(i, '(')) {
+                        openCallbackLoop(tokens, i, engine);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        while (frames > 0) {
+            closeFrame(engine);
+        }
+    }
+    
+    private void openStatement(ScriptTokens tokens, int i, ScriptRuleEngine engine) {
+        if (tokens.is(i, "for") || tokens.is(i, "while")) {
+            int header = tokens.is(i + 1, "await") ? i + 2 : i + 1;
+            if (!tokens.isOperator(header, '(') || tokens.pair[header] < 0 || isDoWhileTail(tokens, i)) {
+                return;
+            }
+            String kind = tokens.is(i, "while") ? "while" : forKind(tokens, header);
+            engine.enterLoop(kind, tokens.lines[i], tokens.columns[i]);
+            openFrame(LOOP, end(tokens, tokens.pair[header] + 1, true));
+        } else if (tokens.is(i, "do")) {
+            engine.enterLoop("do", tokens.lines[i], tokens.columns[i]);
+            openFrame(LOOP, end(tokens, i + 1, true));
+        } else if (tokens.is(i, "class")) {
+            String name = tokens.isName(i + 1) && !tokens.is(i + 1, "extends") ? tokens.text(i + 1) : bindingName(tokens, i);
+            int body = i + 1;
+            while (body < tokens.size && !tokens.isOperator(body, '{')) {
+                body = tokens.pair[body] > body ? tokens.pair[body] + 1 : body + 1;
+            }
+            if (name != null && body < tokens.size) {
+                engine.enterType(name);
+                openFrame(SCOPE, tokens.pair[body] < 0 ? tokens.size : tokens.pair[body]);
+            }
+        }
+    }
+    
+    // The while of do ... while (...) is not a loop of its own
+    private static boolean isDoWhileTail(ScriptTokens tokens, int i) {
+        return tokens.isOperator(i - 1, '}') && tokens.pair[i - 1] >= 0 && tokens.is(tokens.pair[i - 1] - 1, "do");
+    }
+    
+    private static String forKind(ScriptTokens tokens, int header) {
+        for (int i = header + 1; i < tokens.pair[header]; i++) {
+            if (tokens.pair[i] > i) {
+                i = tokens.pair[i];
+            } else if (tokens.is(i, "of")) {
+                return "for-of";
+            } else if (tokens.is(i, "in")) {
+                return "for-in";
+            }
+        }
+        return "for";
+    }
+    
+    /**
+     * Names the function whose body starts with the brace at {@code brace},
+     * or returns {@code null} when the brace starts anything else or an
+     * anonymous function.
+     */
+    private static String functionName(ScriptTokens tokens, int brace) {
+        int previous = brace - 1;
+        if (tokens.is(previous, "=>")) {
+            return arrowName(tokens, previous);
+        }
+        if (!tokens.isOperator(previous, ')') || tokens.pair[previous] < 0) {
+            return null;
+        }
+        int name = tokens.pair[previous] - 1;
+        if (tokens.isOperator(name, '*')) {
+            name--;
+        }
+        if (!tokens.isName(name) || tokens.nameIn(name, BLOCK_KEYWORDS) != null) {
+            return null;
+        }
+        if (tokens.is(name, "function")) {
+            return bindingName(tokens, name);
+        }
+        // A function declaration or a method
+        return tokens.text(name);
+    }
+    
+    private static String arrowName(ScriptTokens tokens, int arrow) {
+        int parameters = arrow - 1;
+        if (tokens.isOperator(parameters, ')')) {
+            parameters = tokens.pair[parameters];
+        } else if (!tokens.isName(parameters)) {
+            return null;
+        }
+        return parameters < 0 ? null : bindingName(tokens, parameters);
+    }
+    
+    /**
+     * Names the function expression starting at {@code start} after the
+     * variable, property or object key it is assigned to, if any.
+     */
+    private static String bindingName(ScriptTokens tokens, int start) {
+        int operator = tokens.is(start - 1, "async") ? start - 2 : start - 1;
+        if (!tokens.isName(operator - 1)) {
+            return null;
+        }
+        if (tokens.isOperator(operator, '=')
+                || tokens.isOperator(operator, ':') && (tokens.isOperator(operator - 2, '{') || tokens.isOperator(operator - 2, ','))) {
+            return tokens.text(operator - 1);
+        }
+        return null;
+    }
+    
+    private void openCallbackLoop(ScriptTokens tokens, int open, ScriptRuleEngine engine) {
+        int close = tokens.pair[open];
+        if (close < 0 || !tokens.isOperator(open - 2, '.') && !tokens.is(open - 2, "?.")) {
+            return;
+        }
+        String method = tokens.nameIn(open - 1, ITERATING_METHODS);
+        if (method == null) {
+            return;
+        }
+        int argument = open + 1;
+        for (int i = open + 1; i < close; i++) {
+            if (tokens.pair[i] > i) {
+                i = tokens.pair[i];
+            } else if (tokens.isOperator(i, ',')) {
+                argument = i + 1;
+            } else if (tokens.is(i, "=>") || tokens.is(i, "function")) {
+                engine.enterLoop(method, tokens.lines[argument], tokens.columns[argument]);
+                openFrame(LOOP, close);
+                return;
+            }
+        }
+    }
+    
+    private static void countCall(ScriptTokens tokens, int name, ScriptRuleEngine engine) {
+        boolean property = tokens.isOperator(name - 1, '.') || tokens.is(name - 1, "?.");
+        if (!property && tokens.nameIn(name, NOT_CALLED) != null || tokens.is(name - 1, "new")) {
+            return;
+        }
+        int close = tokens.pair[name + 1];
+        if (close >= 0 && tokens.isOperator(close + 1, '{')) {
+            // The parameters of a function or method
+            return;
+        }
+        int start = tokens.receiverStart(name);
+        String receiver = start < 0 ? "" : tokens.source.substring(tokens.starts[start], tokens.ends[name - 2]);
+        int first = start < 0 ? name : start;
+        engine.call(tokens.text(name), tokens.arity(name + 1), receiver, tokens.lines[first], tokens.columns[first]);
+    }
+    
+    /**
+     * Finds the last token of the statement, or with {@code statement} false
+     * the expression, starting at {@code start}.
+     */
+    private static int end(ScriptTokens tokens, int start, boolean statement) {
+        if (start >= tokens.size) {
+            return tokens.size - 1;
+        }
+        if (statement) {
+            if (tokens.isOperator(start, '{')) {
+                return tokens.pair[start] < 0 ? tokens.size - 1 : tokens.pair[start];
+            }
+            int header = tokens.is(start + 1, "await") ? start + 2 : start + 1;
+            boolean hasHeader = tokens.isOperator(header, '(') && tokens.pair[header] >= 0;
+            if (hasHeader && (tokens.is(start, "for") || tokens.is(start, "while") || tokens.is(start, "with"))) {
+                return end(tokens, tokens.pair[header] + 1, true);
+            }
+            if (hasHeader && tokens.is(start, "if")) {
+                int end = end(tokens, tokens.pair[header] + 1, true);
+                return tokens.is(end + 1, "else") ? end(tokens, end + 2, true) : end;
+            }
+            if (tokens.is(start, "do")) {
+                int end = end(tokens, start + 1, true);
+                if (tokens.is(end + 1, "while") && tokens.isOperator(end + 2, '(') && tokens.pair[end + 2] >= 0) {
+                    int close = tokens.pair[end + 2];
+                    return tokens.isOperator(close + 1, ';') ? close + 1 : close;
+                }
+                return end;
+            }
+        }
+        for (int i = start; i < tokens.size; i++) {
+            if (i > start && tokens.lines[i] > tokens.lines[i - 1] && tokens.nameIn(i, STATEMENT_KEYWORDS) != null) {
+                return i - 1;
+            }
+            if (tokens.kinds[i] != ScriptTokens.OPERATOR) {
+                continue;
+            }
+            if (tokens.pair[i] > i) {
+                i = tokens.pair[i];
+            } else if (tokens.pair[i] >= 0 || tokens.isOperator(i, ')') || tokens.isOperator(i, ']')
+                    || tokens.isOperator(i, '}')) {
+                // Closes a bracket the statement is inside of
+                return i - 1;
+            } else if (tokens.isOperator(i, ';')) {
+                return statement ? i : i - 1;
+            } else if (!statement && tokens.isOperator(i, ',')) {
+                return i - 1;
+            }
+        }
+        return tokens.size - 1;
+    }
+    
+    private void openFrame(byte kind, int end) {
+        if (frames == frameEnds.length) {
+            frameEnds = Arrays.copyOf(frameEnds, frames * 2);
+            frameKinds = Arrays.copyOf(frameKinds, frames * 2);
+        }
+        // Constructs nest, even where the heuristics for statements without braces disagree
+        frameEnds[frames] = frames > 0 ? Math.min(end, frameEnds[frames - 1]) : end;
+        frameKinds[frames] = kind;
+        frames++;
+    }
+    
+    private void closeFrame(ScriptRuleEngine engine) {
+        frames--;
+        if (frameKinds[frames] == SCOPE) {
+            engine.leaveScope();
+        } else {
+            engine.leaveLoop();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.forge.analyzer.frontend;
+
+import java.util.Set;
+
+/**
+ * Splits JavaScript source into {@link ScriptTokens} in a single pass over its
+ * characters. Template literals are single string tokens, including the
+ * expressions they embed, and a slash starts a regular expression wherever an
+ * operand is expected.
+ */
+final class JavaScriptTokenizer {
+    // Names after which a slash starts a regular expression rather than dividing
+    private static final Set<String> REGEX_PREFIXES = Set.of(
+        "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw", "case", "do", "else",
+        "yield", "await"
+    );
+    
+    private String source;
+    private int line;
+    private int lineStart;
+    
+    void tokenize(String source, ScriptTokens tokens) {
+        tokens.reset(source);
+        this.source = source;
+        line = 1;
+        lineStart = 0;
+        int length = source.length();
+        int i = source.startsWith("#!") ? skipLine(0) : 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            int lineBreak = ScriptTokens.lineBreak(source, i);
+            if (lineBreak > 0) {
+                i += lineBreak;
+                line++;
+                lineStart = i;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\u000B' || c == '\u00A0' || c == '\uFEFF') {
+                i++;
+                continue;
+            }
+            char next = i + 1 < length ? source.charAt(i + 1) : 0;
+            if (c == '/' && next == '/') {
+                i = skipLine(i);
+                continue;
+            }
+            if (c == '/' && next == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = skipLines(i, end < 0 ? length : end + 2);
+                continue;
+            }
+            
+            int start = i;
+            int column = i - lineStart + 1;
+            int startLine = line;
+            if (isNameStart(c)) {
+                i++;
+                while (i < length && isNamePart(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(ScriptTokens.NAME, start, i, startLine, column);
+            } else if (c == '"' || c == '\'') {
+                i = skipLines(i, skipQuoted(i));
+                tokens.add(ScriptTokens.STRING, start, i, startLine, column);
+            } else if (c == '`') {
+                i = skipLines(i, skipTemplate(i));
+                tokens.add(ScriptTokens.STRING, start, i, startLine, column);
+            } else if (ScriptTokens.isDigit(c) || c == '.' && ScriptTokens.isDigit(next)) {
+                i++;
+                while (i < length && (isNamePart(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(ScriptTokens.NUMBER, start, i, startLine, column);
+            } else if (c == '/' && startsOperand(tokens)) {
+                i = skipRegex(i);
+                tokens.add(ScriptTokens.REGEX, start, i, startLine, column);
+            } else {
+                i += operatorLength(i, c, next);
+                tokens.addOperator(start, i, startLine, column);
+            }
+        }
+    }
+    
+    // Whether the previous token leaves the parser expecting an operand
+    private static boolean startsOperand(ScriptTokens tokens) {
+        int previous = tokens.size - 1;
+        if (previous < 0) {
+            return true;
+        }
+        switch (tokens.kinds[previous]) {
+            case ScriptTokens.NAME:
+                return tokens.nameIn(previous, REGEX_PREFIXES) != null;
+            case ScriptTokens.OPERATOR:
+                return !tokens.isOperator(previous, ')') && !tokens.isOperator(previous, ']')
+                    && !tokens.isOperator(previous, '}');
+            default:
+                return false;
+        }
+    }
+    
+    private int operatorLength(int i, char c, char next) {
+        switch (c) {
+            case '(', ')', '[', ']', '{', '}', ',', ';', ':', '~':
+                return 1;
+            case '.':
+                return source.startsWith("...", i) ? 3 : 1;
+            case '=':
+                // ==, === and => are never assignments
+                if (next == '>') {
+                    return 2;
+                }
+                return next == '=' ? (source.startsWith("===", i) ? 3 : 2) : 1;
+            case '?':
+                if (next == '.' && !(i + 2 < source.length() && ScriptTokens.isDigit(source.charAt(i + 2)))) {
+                    return 2;
+                }
+                break;
+            case '<', '>':
+                int length = 1;
+                while (length < 3 && i + length < source.length() && source.charAt(i + length) == c) {
+                    length++;
+                }
+                return i + length < source.length() && source.charAt(i + length) == '=' ? length + 1 : length;
+            default:
+                break;
+        }
+        // Doubled operators such as ++, && and ??, and assignments such as +=, !== and **=
+        int length = next == c && c != '!' ? 2 : 1;
+        if (i + length < source.length() && source.charAt(i + length) == '=') {
+            length++;
+            if (c == '!' && i + length < source.length() && source.charAt(i + length) == '=') {
+                length++;
+            }
+        }
+        return length;
+    }
+    
+    private int skipLine(int i) {
+        int length = source.length();
+        while (i < length && ScriptTokens.lineBreak(source, i) == 0) {
+            i++;
+        }
+        return i;
+    }
+    
+    // Moves the line count past the line breaks between start and end
+    private int skipLines(int start, int end) {
+        int i = start;
+        while (i < end) {
+            int lineBreak = ScriptTokens.lineBreak(source, i);
+            if (lineBreak > 0) {
+                i += lineBreak;
+                line++;
+                lineStart = i;
+            } else {
+                i++;
+            }
+        }
+        return end;
+    }
+    
+    private int skipQuoted(int start) {
+        char quote = source.charAt(start);
+        int length = source.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' || c == '\r') {
+                // Unterminated
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+    
+    private int skipTemplate(int start) {
+        int length = source.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '`') {
+                return i + 1;
+            } else if (c == '$' && i + 1 < length && source.charAt(i + 1) == '{') {
+                i = skipEmbedded(i + 2);
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+    
+    // Skips the expression of a ${...} placeholder up to its closing brace
+    private int skipEmbedded(int start) {
+        int length = source.length();
+        int depth = 1;
+        int i = start;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '{') {
+                depth++;
+                i++;
+            } else if (c == '}') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            } else if (c == '"' || c == '\'') {
+                i = skipQuoted(i);
+            } else if (c == '`') {
+                i = skipTemplate(i);
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                i = skipLine(i);
+            } else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+    
+    private int skipRegex(int start) {
+        int length = source.length();
+        boolean inClass = false;
+        int i = start + 1;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\n' || c == '\r') {
+                // Not a regular expression after all; let the rest be tokenized
+                return start + 1;
+            } else if (c == '[') {
+                inClass = true;
+                i++;
+            } else if (c == ']') {
+                inClass = false;
+                i++;
+            } else if (c == '/' && !inClass) {
+                i++;
+                while (i < length && isNamePart(source.charAt(i))) {
+                    i++;
+                }
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return start + 1;
+    }
+    
+    private static boolean isNameStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$' || c == '#'
+            || c > 127 && Character.isJavaIdentifierStart(c);
+    }
+    
+    private static boolean isNamePart(char c) {
+        return isNameStart(c) || ScriptTokens.isDigit(c) || c > 127 && Character.isJavaIdentifierPart(c);
+    }
+}
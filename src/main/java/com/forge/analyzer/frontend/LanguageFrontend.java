@@ -0,0 +1,59 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.ParseProfile;
+import com.forge.analyzer.rules.RuleSet;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads the source files of one language and runs the rules on them. The
+ * analyzer picks a frontend by the language selected with {@code --lang}, or
+ * by file extension when the language is {@code auto}.
+ */
+public interface LanguageFrontend {
+    
+    /**
+     * The built-in frontends; the first one also reads files of unknown
+     * extension that are passed explicitly.
+     */
+    static List<LanguageFrontend> defaults() {
+        return List.of(
+            new JavaFrontend(),
+            new PythonFrontend(),
+            new JavaScriptFrontend()
+        );
+    }
+    
+    /**
+     * The name selected with {@code --lang}.
+     */
+    String getName();
+    
+    /**
+     * The extensions of the files this frontend reads, including the dot.
+     */
+    List<String> getExtensions();
+    
+    /**
+     * Changes whenever the frontend may report different issues for the same
+     * source and rules, so cached results are not reused across versions.
+     */
+    int getVersion();
+    
+    default boolean accepts(Path file) {
+        String name = file.toString();
+        for (String extension : getExtensions()) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Creates an analyzer for one worker thread, which may keep state across
+     * the files it analyzes.
+     */
+    SourceAnalyzer<?> createAnalyzer(RuleSet ruleSet, ParseProfile parseProfile);
+}
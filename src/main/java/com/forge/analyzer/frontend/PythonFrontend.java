@@ -0,0 +1,60 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.ParseProfile;
+import com.forge.analyzer.rules.Rule;
+import com.forge.analyzer.rules.RuleSet;
+import com.forge.analyzer.rules.ScriptRuleEngine;
+
+import java.util.List;
+
+/**
+ * Reads Python with a hand-written tokenizer and a single scan of its tokens,
+ * without building a syntax tree.
+ */
+public class PythonFrontend implements LanguageFrontend {
+    
+    @Override
+    public String getName() {
+        return "python";
+    }
+    
+    @Override
+    public List<String> getExtensions() {
+        return List.of(".py");
+    }
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public SourceAnalyzer<?> createAnalyzer(RuleSet ruleSet, ParseProfile parseProfile) {
+        ScriptRuleEngine engine = new ScriptRuleEngine(ruleSet.createEngine().getRules(), "a list and ''.join()");
+        PythonTokenizer tokenizer = new PythonTokenizer();
+        PythonScanner scanner = new PythonScanner();
+        // Reused for every file of the worker
+        ScriptTokens tokens = new ScriptTokens();
+        
+        return new SourceAnalyzer<ScriptTokens>() {
+            @Override
+            public List<Rule> getRules() {
+                return engine.getRules();
+            }
+            
+            @Override
+            public ScriptTokens parse(String fileName, String content) {
+                tokenizer.tokenize(content, tokens);
+                return tokens;
+            }
+            
+            @Override
+            public List<Issue> analyze(ScriptTokens tree, String fileName, long[] ruleNanos) {
+                engine.beginFile(fileName);
+                scanner.scan(tree, engine);
+                return engine.endFile();
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.rules.ScriptRuleEngine;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Walks the tokens of a Python file once, telling a {@link ScriptRuleEngine}
+ * where functions, classes and loops begin and end. Blocks end at the first
+ * logical line indented no deeper than their header. Comprehensions and
+ * lambdas passed to functions that call them once per element count as loops,
+ * like per-element lambdas in Java.
+ */
+final class PythonScanner {
+    static final Set<String> ITERATING_FUNCTIONS = Set.of("map", "filter", "reduce", "sorted", "min", "max");
+    private static final Set<String> KEYWORDS = Set.of(
+        "and", "as", "assert", "async", "await", "break", "class", "continue", "def", "del", "elif", "else",
+        "except", "finally", "for", "from", "global", "if", "import", "in", "is", "lambda", "nonlocal", "not",
+        "or", "pass", "raise", "return", "try", "while", "with", "yield"
+    );
+    private static final byte SCOPE = 0;
+    private static final byte LOOP = 1;
+    
+    // Open blocks as their header's indentation and kind, innermost last
+    private int[] blockIndents = new int[32];
+    private byte[] blockKinds = new byte[32];
+    private int blocks;
+    
+    // Open brackets as the loops they opened: comprehension clauses, plus the
+    // per-element lambda argument currently open, if any
+    private int[] bracketLoops = new int[32];
+    private String[] bracketFunctions = new String[32];
+    private boolean[] bracketLambdas = new boolean[32];
+    private int brackets;
+    
+    void scan(ScriptTokens tokens, ScriptRuleEngine engine) {
+        blocks = 0;
+        brackets = 0;
+        boolean lineStart = true;
+        for (int i = 0; i < tokens.size; i++) {
+            byte kind = tokens.kinds[i];
+            if (kind == ScriptTokens.NEWLINE) {
+                while (brackets > 0) {
+                    closeBracket(engine);
+                }
+                lineStart = true;
+                continue;
+            }
+            if (lineStart) {
+                lineStart = false;
+                int indent = tokens.columns[i] - 1;
+                while (blocks > 0 && blockIndents[blocks - 1] >= indent) {
+                    closeBlock(engine);
+                }
+                openStatement(tokens, i, indent, engine);
+            }
+            
+            if (kind == ScriptTokens.STRING) {
+                if (tokens.isOperator(i - 1, '+') || tokens.is(i - 1, "+=") || tokens.isOperator(i + 1, '+')) {
+                    engine.stringConcatenation(tokens.lines[i], tokens.columns[i]);
+                }
+            } else if (kind == ScriptTokens.OPERATOR) {
+                char c = tokens.source.charAt(tokens.starts[i]);
+                if (c == '(' || c == '[' || c == '{') {
+                    openBracket(tokens, i, engine);
+                } else if ((c == ')' || c == ']' || c == '}') && brackets > 0) {
+                    closeBracket(engine);
+                } else if (c == ',' && brackets > 0 && bracketLambdas[brackets - 1]) {
+                    bracketLambdas[brackets - 1] = false;
+                    engine.leaveLoop();
+                }
+            } else if (kind == ScriptTokens.NAME) {
+                if (tokens.is(i, "lambda")) {
+                    if (brackets > 0 && bracketFunctions[brackets - 1] != null && !bracketLambdas[brackets - 1]) {
+                        bracketLambdas[brackets - 1] = true;
+                        engine.enterLoop(bracketFunctions[brackets - 1], tokens.lines[i], tokens.columns[i]);
+                    }
+                } else if (tokens.isOperator(i + 1, '(') && engine.isCountingCalls()) {
+                    countCall(tokens, i, engine);
+                }
+            }
+        }
+        while (brackets > 0) {
+            closeBracket(engine);
+        }
+        while (blocks > 0) {
+            closeBlock(engine);
+        }
+    }
+    
+    private void openStatement(ScriptTokens tokens, int i, int indent, ScriptRuleEngine engine) {
+        int head = tokens.is(i, "async") ? i + 1 : i;
+        if (tokens.is(head, "def") && tokens.isName(head + 1)) {
+            openBlock(indent, SCOPE);
+            engine.enterFunction(tokens.text(head + 1));
+        } else if (tokens.is(head, "class") && tokens.isName(head + 1)) {
+            openBlock(indent, SCOPE);
+            engine.enterType(tokens.text(head + 1));
+        } else if (tokens.is(head, "for") || tokens.is(head, "while")) {
+            openBlock(indent, LOOP);
+            engine.enterLoop(tokens.text(head), tokens.lines[head], tokens.columns[head]);
+        }
+    }
+    
+    private void openBlock(int indent, byte kind) {
+        if (blocks == blockIndents.length) {
+            blockIndents = Arrays.copyOf(blockIndents, blocks * 2);
+            blockKinds = Arrays.copyOf(blockKinds, blocks * 2);
+        }
+        blockIndents[blocks] = indent;
+        blockKinds[blocks] = kind;
+        blocks++;
+    }
+    
+    private void closeBlock(ScriptRuleEngine engine) {
+        blocks--;
+        if (blockKinds[blocks] == SCOPE) {
+            engine.leaveScope();
+        } else {
+            engine.leaveLoop();
+        }
+    }
+    
+    private void openBracket(ScriptTokens tokens, int open, ScriptRuleEngine engine) {
+        // Every for clause directly inside the bracket nests one loop deeper
+        int loops = 0;
+        int close = tokens.pair[open] < 0 ? tokens.size : tokens.pair[open];
+        for (int i = open + 1; i < close; i++) {
+            if (tokens.pair[i] > i) {
+                i = tokens.pair[i];
+            } else if (tokens.is(i, "for")) {
+                loops++;
+            }
+        }
+        for (int loop = 0; loop < loops; loop++) {
+            engine.enterLoop("comprehension", tokens.lines[open], tokens.columns[open]);
+        }
+        
+        if (brackets == bracketLoops.length) {
+            bracketLoops = Arrays.copyOf(bracketLoops, brackets * 2);
+            bracketFunctions = Arrays.copyOf(bracketFunctions, brackets * 2);
+            bracketLambdas = Arrays.copyOf(bracketLambdas, brackets * 2);
+        }
+        bracketLoops[brackets] = loops;
+        bracketFunctions[brackets] = tokens.isOperator(open, '(') ? tokens.nameIn(open - 1, ITERATING_FUNCTIONS) : null;
+        bracketLambdas[brackets] = false;
+        brackets++;
+    }
+    
+    private void closeBracket(ScriptRuleEngine engine) {
+        brackets--;
+        if (bracketLambdas[brackets]) {
+            engine.leaveLoop();
+        }
+        for (int loop = 0; loop < bracketLoops[brackets]; loop++) {
+            engine.leaveLoop();
+        }
+    }
+    
+    private static void countCall(ScriptTokens tokens, int name, ScriptRuleEngine engine) {
+        if (tokens.is(name - 1, "def") || tokens.is(name - 1, "class")) {
+            return;
+        }
+        String text = tokens.text(name);
+        if (KEYWORDS.contains(text)) {
+            return;
+        }
+        int start = tokens.receiverStart(name);
+        String receiver = start < 0 ? "" : tokens.source.substring(tokens.starts[start], tokens.ends[name - 2]);
+        int first = start < 0 ? name : start;
+        engine.call(text, tokens.arity(name + 1), receiver, tokens.lines[first], tokens.columns[first]);
+    }
+}
@@ -0,0 +1,162 @@
+package com.forge.analyzer.frontend;
+
+/**
+ * Splits Python source into {@link ScriptTokens} in a single pass over its
+ * characters. Line breaks inside brackets and after a backslash join lines,
+ * as in Python; every other line with tokens ends in a
+ * {@link ScriptTokens#NEWLINE} token. Strings of every prefix and quote style,
+ * including f-strings, are single tokens.
+ */
+final class PythonTokenizer {
+    private int line;
+    private int lineStart;
+    
+    void tokenize(String source, ScriptTokens tokens) {
+        tokens.reset(source);
+        line = 1;
+        lineStart = 0;
+        boolean lineHasTokens = false;
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            int lineBreak = ScriptTokens.lineBreak(source, i);
+            if (lineBreak > 0) {
+                if (tokens.getDepth() == 0 && lineHasTokens) {
+                    tokens.add(ScriptTokens.NEWLINE, i, i, line, i - lineStart + 1);
+                    lineHasTokens = false;
+                }
+                i += lineBreak;
+                line++;
+                lineStart = i;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\f') {
+                i++;
+                continue;
+            }
+            if (c == '#') {
+                while (i < length && ScriptTokens.lineBreak(source, i) == 0) {
+                    i++;
+                }
+                continue;
+            }
+            if (c == '\\' && ScriptTokens.lineBreak(source, i + 1) > 0) {
+                i += 1 + ScriptTokens.lineBreak(source, i + 1);
+                line++;
+                lineStart = i;
+                continue;
+            }
+            
+            int start = i;
+            int column = i - lineStart + 1;
+            int startLine = line;
+            lineHasTokens = true;
+            if (isNameStart(c)) {
+                i++;
+                while (i < length && isNamePart(source.charAt(i))) {
+                    i++;
+                }
+                if (i < length && (source.charAt(i) == '"' || source.charAt(i) == '\'') && isStringPrefix(source, start, i)) {
+                    i = skipString(source, i);
+                    tokens.add(ScriptTokens.STRING, start, i, startLine, column);
+                } else {
+                    tokens.add(ScriptTokens.NAME, start, i, startLine, column);
+                }
+            } else if (c == '"' || c == '\'') {
+                i = skipString(source, i);
+                tokens.add(ScriptTokens.STRING, start, i, startLine, column);
+            } else if (ScriptTokens.isDigit(c) || c == '.' && i + 1 < length && ScriptTokens.isDigit(source.charAt(i + 1))) {
+                i++;
+                while (i < length && (isNamePart(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(ScriptTokens.NUMBER, start, i, startLine, column);
+            } else {
+                i += operatorLength(source, i, c);
+                tokens.addOperator(start, i, startLine, column);
+            }
+        }
+        if (lineHasTokens) {
+            tokens.add(ScriptTokens.NEWLINE, length, length, line, length - lineStart + 1);
+        }
+    }
+    
+    // Returns the end of the string whose quote is at start, counting the lines it spans
+    private int skipString(String source, int start) {
+        int length = source.length();
+        char quote = source.charAt(start);
+        boolean triple = start + 2 < length && source.charAt(start + 1) == quote && source.charAt(start + 2) == quote;
+        int i = start + (triple ? 3 : 1);
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == '\\' && i + 1 < length) {
+                int lineBreak = ScriptTokens.lineBreak(source, i + 1);
+                if (lineBreak > 0) {
+                    line++;
+                    lineStart = i + 1 + lineBreak;
+                }
+                i += 1 + Math.max(lineBreak, 1);
+            } else if (c == quote) {
+                if (!triple) {
+                    return i + 1;
+                }
+                if (i + 2 < length && source.charAt(i + 1) == quote && source.charAt(i + 2) == quote) {
+                    return i + 3;
+                }
+                i++;
+            } else if (ScriptTokens.lineBreak(source, i) > 0) {
+                if (!triple) {
+                    // Unterminated; the line break is left to end the logical line
+                    return i;
+                }
+                i += ScriptTokens.lineBreak(source, i);
+                line++;
+                lineStart = i;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+    
+    private static int operatorLength(String source, int i, char c) {
+        char next = i + 1 < source.length() ? source.charAt(i + 1) : 0;
+        switch (c) {
+            case '(', ')', '[', ']', '{', '}', ',', ';', '.', '~':
+                return 1;
+            case '*', '/', '<', '>':
+                // **, //, <<, >> and their augmented assignments
+                int length = next == c ? 2 : 1;
+                return i + length < source.length() && source.charAt(i + length) == '=' ? length + 1 : length;
+            case '-':
+                return next == '>' || next == '=' ? 2 : 1;
+            default:
+                // +=, ==, !=, :=, %=, &=, |=, ^=, @=
+                return next == '=' ? 2 : 1;
+        }
+    }
+    
+    private static boolean isStringPrefix(String source, int start, int end) {
+        if (end - start > 2) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            switch (source.charAt(i)) {
+                case 'r', 'R', 'b', 'B', 'u', 'U', 'f', 'F':
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isNameStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c > 127 && Character.isLetter(c);
+    }
+    
+    private static boolean isNamePart(char c) {
+        return isNameStart(c) || ScriptTokens.isDigit(c) || c > 127 && Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,202 @@
+package com.forge.analyzer.frontend;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * The tokens of one file as parallel arrays of offsets into its source, which
+ * a tokenizer refills for every file so that scanning allocates nothing per
+ * token. Keywords are names; operators are single characters except for the
+ * few the scanners tell apart, such as {@code +=} and {@code =>}.
+ * <p>
+ * The tokenizer also matches brackets: {@link #pair} links every bracket to
+ * its partner, and for an opening bracket {@link #commas} counts the commas
+ * directly inside it.
+ */
+final class ScriptTokens {
+    static final byte NAME = 0;
+    static final byte NUMBER = 1;
+    static final byte STRING = 2;
+    static final byte OPERATOR = 3;
+    /** The end of a logical line, in languages where it ends a statement. */
+    static final byte NEWLINE = 4;
+    static final byte REGEX = 5;
+    
+    String source;
+    int size;
+    byte[] kinds = new byte[1024];
+    int[] starts = new int[1024];
+    int[] ends = new int[1024];
+    int[] lines = new int[1024];
+    int[] columns = new int[1024];
+    int[] pair = new int[1024];
+    int[] commas = new int[1024];
+    private int[] openBrackets = new int[64];
+    private int depth;
+    
+    void reset(String source) {
+        this.source = source;
+        this.size = 0;
+        this.depth = 0;
+    }
+    
+    /**
+     * The number of brackets open after the last token.
+     */
+    int getDepth() {
+        return depth;
+    }
+    
+    /**
+     * Adds an operator, matching it with the open bracket it closes, if any.
+     * Unbalanced closing brackets stay unpaired.
+     */
+    int addOperator(int start, int end, int line, int column) {
+        int token = add(OPERATOR, start, end, line, column);
+        char c = source.charAt(start);
+        if (c == '(' || c == '[' || c == '{') {
+            if (depth == openBrackets.length) {
+                openBrackets = Arrays.copyOf(openBrackets, depth * 2);
+            }
+            openBrackets[depth++] = token;
+        } else if ((c == ')' || c == ']' || c == '}') && depth > 0) {
+            int open = openBrackets[--depth];
+            pair[open] = token;
+            pair[token] = open;
+        } else if (c == ',' && depth > 0) {
+            commas[openBrackets[depth - 1]]++;
+        }
+        return token;
+    }
+    
+    int add(byte kind, int start, int end, int line, int column) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            pair = Arrays.copyOf(pair, capacity);
+            commas = Arrays.copyOf(commas, capacity);
+        }
+        kinds[size] = kind;
+        starts[size] = start;
+        ends[size] = end;
+        lines[size] = line;
+        columns[size] = column;
+        pair[size] = -1;
+        commas[size] = 0;
+        return size++;
+    }
+    
+    /**
+     * Whether token {@code index} exists and is exactly {@code text}.
+     */
+    boolean is(int index, String text) {
+        return index >= 0 && index < size && ends[index] - starts[index] == text.length()
+            && source.startsWith(text, starts[index]);
+    }
+    
+    boolean isOperator(int index, char operator) {
+        return index >= 0 && index < size && kinds[index] == OPERATOR && ends[index] - starts[index] == 1
+            && source.charAt(starts[index]) == operator;
+    }
+    
+    boolean isName(int index) {
+        return index >= 0 && index < size && kinds[index] == NAME;
+    }
+    
+    /**
+     * Returns the one of {@code names} that token {@code index} is, or
+     * {@code null}, without copying the token's text.
+     */
+    String nameIn(int index, Set<String> names) {
+        if (!isName(index)) {
+            return null;
+        }
+        for (String name : names) {
+            if (is(index, name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+    
+    String text(int index) {
+        return source.substring(starts[index], ends[index]);
+    }
+    
+    /**
+     * The number of arguments between the opening bracket {@code open} and
+     * its partner, allowing for a trailing comma.
+     */
+    int arity(int open) {
+        int close = pair[open];
+        if (close < 0) {
+            return commas[open] + 1;
+        }
+        if (close == open + 1) {
+            return 0;
+        }
+        return isOperator(close - 1, ',') ? commas[open] : commas[open] + 1;
+    }
+    
+    /**
+     * The first token of the receiver of the call named by token
+     * {@code name}, as in {@code a.b[0].name(...)}, or -1 when it has none.
+     */
+    int receiverStart(int name) {
+        int start = -1;
+        int i = name - 1;
+        while (isOperator(i, '.') || is(i, "?.")) {
+            i--;
+            if (isClosing(i)) {
+                start = pair[i];
+                if (start < 0) {
+                    return -1;
+                }
+                i = start - 1;
+                // The callee or subscripted expression, if any
+                while (isClosing(i) && pair[i] >= 0) {
+                    start = pair[i];
+                    i = start - 1;
+                }
+                if (isName(i)) {
+                    start = i--;
+                }
+            } else if (i >= 0 && kinds[i] != OPERATOR && kinds[i] != NEWLINE) {
+                start = i--;
+            } else {
+                return -1;
+            }
+        }
+        return start;
+    }
+    
+    /**
+     * The length of the line break at {@code i}: 2 for {@code \r\n}, 1 for
+     * a lone {@code \n} or {@code \r}, and 0 when there is none.
+     */
+    static int lineBreak(String source, int i) {
+        if (i >= source.length()) {
+            return 0;
+        }
+        char c = source.charAt(i);
+        if (c == '\n') {
+            return 1;
+        }
+        if (c != '\r') {
+            return 0;
+        }
+        return i + 1 < source.length() && source.charAt(i + 1) == '\n' ? 2 : 1;
+    }
+    
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private boolean isClosing(int index) {
+        return isOperator(index, ')') || isOperator(index, ']');
+    }
+}
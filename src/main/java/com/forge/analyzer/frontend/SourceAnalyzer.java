@@ -0,0 +1,42 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.rules.Rule;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Analyzes the files of one language on a single thread, in two steps so that
+ * profiles can tell parsing from checking.
+ *
+ * @param <T> what parsing produces
+ */
+public interface SourceAnalyzer<T> {
+    
+    /**
+     * The rules that run, in the order of the timings {@link #analyze} records.
+     */
+    List<Rule> getRules();
+    
+    /**
+     * Whether any rule may match {@code content}, checked before decoding it
+     * when the lexical prefilter is enabled.
+     */
+    default boolean mayMatch(ByteBuffer content) {
+        return true;
+    }
+    
+    /**
+     * Parses {@code content}, throwing an exception whose message explains why
+     * when it cannot be parsed.
+     */
+    T parse(String fileName, String content);
+    
+    /**
+     * Runs the rules on a parsed file, adding the time of each rule to the
+     * same index of {@code ruleNanos} unless it is {@code null}. Frontends
+     * that check all rules in one pass leave it unchanged.
+     */
+    List<Issue> analyze(T tree, String fileName, long[] ruleNanos);
+}
@@ -0,0 +1,42 @@
+package com.forge.analyzer.lexical;
+
+import com.forge.analyzer.rules.Rule;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides from a cheap byte-level scan whether any of a set of rules could
+ * report something in a file, so files that cannot match are never parsed.
+ * <p>
+ * Like the rules it is built from, an instance belongs to a single worker.
+ */
+public class LexicalPrefilter {
+    private final List<Rule> rules;
+    private final LexicalScanner scanner;
+    
+    public LexicalPrefilter(List<Rule> rules) {
+        Set<String> triggers = new HashSet<>();
+        for (Rule rule : rules) {
+            triggers.addAll(rule.getTriggerTokens());
+        }
+        this.rules = rules;
+        this.scanner = new LexicalScanner(triggers);
+    }
+    
+    /**
+     * Returns {@code false} only if no rule can report anything in
+     * {@code content}. The buffer's position is left untouched.
+     */
+    public boolean mayMatch(ByteBuffer content) {
+        TokenSummary tokens = scanner.scan(content);
+        for (Rule rule : rules) {
+            if (rule.isTriggeredBy(tokens)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,243 @@
+package com.forge.analyzer.lexical;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A single-pass, allocation-free tokenizer over the raw bytes of a Java file.
+ * It skips comments and literals and records only the tokens it was asked
+ * for, comparing identifiers by hash before looking at their bytes.
+ * <p>
+ * Instances are not thread-safe.
+ */
+class LexicalScanner {
+    private static final Set<String> KEYWORDS_BEFORE_PAREN = Set.of(
+        "if", "for", "while", "switch", "catch", "synchronized", "try", "super", "this", "return",
+        "throw", "new", "assert", "case", "yield", "else", "do"
+    );
+    
+    private static final byte[] NEW = "new".getBytes(StandardCharsets.UTF_8);
+    
+    private final Map<Integer, byte[][]> identifierTriggers = new HashMap<>();
+    private final Set<String> operatorTriggers = new HashSet<>();
+    private final String[] singleCharTriggers = new String[128];
+    private final Map<Integer, byte[][]> keywords = new HashMap<>();
+    private int[] callNameHashes = new int[64];
+    private int callNameCount;
+    
+    LexicalScanner(Set<String> triggers) {
+        for (String trigger : triggers) {
+            if (isIdentifierStart(trigger.charAt(0))) {
+                byte[] bytes = trigger.getBytes(StandardCharsets.UTF_8);
+                identifierTriggers.merge(hash(bytes), new byte[][] {bytes}, LexicalScanner::concat);
+            } else if (trigger.length() == 1 && trigger.charAt(0) < 128) {
+                singleCharTriggers[trigger.charAt(0)] = trigger;
+            } else {
+                operatorTriggers.add(trigger);
+            }
+        }
+        for (String keyword : KEYWORDS_BEFORE_PAREN) {
+            byte[] bytes = keyword.getBytes(StandardCharsets.UTF_8);
+            keywords.merge(hash(bytes), new byte[][] {bytes}, LexicalScanner::concat);
+        }
+    }
+    
+    TokenSummary scan(ByteBuffer source) {
+        Set<String> found = new HashSet<>();
+        boolean repeatedCall = false;
+        boolean unicodeEscapes = false;
+        Arrays.fill(callNameHashes, 0, callNameCount, 0);
+        callNameCount = 0;
+        
+        // Kind of the previous significant token, used to tell calls from declarations
+        int previous = ' ';
+        boolean previousKeyword = false;
+        boolean previousNew = false;
+        int pos = source.position();
+        int limit = source.limit();
+        
+        while (pos < limit) {
+            int c = source.get(pos) & 0xff;
+            if (c <= ' ') {
+                pos++;
+            } else if (c == '/' && pos + 1 < limit && source.get(pos + 1) == '/') {
+                // Java also ends lines with a lone carriage return
+                while (pos < limit && source.get(pos) != '\n' && source.get(pos) != '\r') {
+                    pos++;
+                }
+            } else if (c == '/' && pos + 1 < limit && source.get(pos + 1) == '*') {
+                pos += 2;
+                while (pos + 1 < limit && !(source.get(pos) == '*' && source.get(pos + 1) == '/')) {
+                    pos++;
+                }
+                pos += 2;
+            } else if (c == '"' || c == '\'') {
+                pos = skipLiteral(source, pos, limit, c);
+                previous = 'L';
+                previousNew = false;
+            } else if (isIdentifierStart(c)) {
+                int start = pos;
+                int h = 0;
+                while (pos < limit && isIdentifierPart(source.get(pos) & 0xff)) {
+                    h = 31 * h + source.get(pos);
+                    pos++;
+                }
+                byte[] trigger = find(identifierTriggers.get(h), source, start, pos);
+                if (trigger != null) {
+                    found.add(new String(trigger, StandardCharsets.UTF_8));
+                }
+                // After a dot even a keyword names a member, as in Thread.yield()
+                byte[] keyword = previous == '.' ? null : find(keywords.get(h), source, start, pos);
+                int next = skipWhitespace(source, pos, limit);
+                // name( after a type or ] is a declaration such as "void run(" or "int[] values(",
+                // after @ an annotation and after new a constructor call
+                boolean declaration = (previous == 'I' && !previousKeyword) || previous == ']';
+                if (next < limit && source.get(next) == '(' && keyword == null
+                        && !declaration && previous != '@' && !previousNew) {
+                    repeatedCall |= recordCallName(h);
+                }
+                previous = 'I';
+                previousKeyword = keyword != null;
+                previousNew = Arrays.equals(keyword, NEW);
+            } else if (c == '\\' && pos + 1 < limit && source.get(pos + 1) == 'u') {
+                unicodeEscapes = true;
+                pos += 2;
+            } else if (c >= '0' && c <= '9') {
+                while (pos < limit && (isIdentifierPart(source.get(pos) & 0xff) || source.get(pos) == '.')) {
+                    pos++;
+                }
+                previous = 'L';
+                previousNew = false;
+            } else {
+                if (c == '+') {
+                    boolean increment = pos + 1 < limit && source.get(pos + 1) == '+';
+                    boolean compound = pos + 1 < limit && source.get(pos + 1) == '=';
+                    String operator = increment ? "++" : compound ? "+=" : null;
+                    if (operator == null) {
+                        if (singleCharTriggers['+'] != null) {
+                            found.add("+");
+                        }
+                        pos++;
+                    } else {
+                        if (operatorTriggers.contains(operator)) {
+                            found.add(operator);
+                        }
+                        pos += 2;
+                    }
+                } else {
+                    if (c < 128 && singleCharTriggers[c] != null) {
+                        found.add(singleCharTriggers[c]);
+                    }
+                    pos++;
+                }
+                previous = c;
+                previousNew = false;
+            }
+        }
+        
+        return new TokenSummary(found, repeatedCall, unicodeEscapes);
+    }
+    
+    private boolean recordCallName(int h) {
+        for (int i = 0; i < callNameCount; i++) {
+            if (callNameHashes[i] == h) {
+                return true;
+            }
+        }
+        if (callNameCount == callNameHashes.length) {
+            callNameHashes = Arrays.copyOf(callNameHashes, callNameCount * 2);
+        }
+        callNameHashes[callNameCount++] = h;
+        return false;
+    }
+    
+    private static int skipLiteral(ByteBuffer source, int pos, int limit, int quote) {
+        boolean textBlock = quote == '"' && pos + 2 < limit
+            && source.get(pos + 1) == '"' && source.get(pos + 2) == '"';
+        if (textBlock) {
+            pos += 3;
+            while (pos < limit) {
+                if (source.get(pos) == '\\') {
+                    pos += 2;
+                } else if (pos + 2 < limit && source.get(pos) == '"'
+                        && source.get(pos + 1) == '"' && source.get(pos + 2) == '"') {
+                    return pos + 3;
+                } else {
+                    pos++;
+                }
+            }
+            return pos;
+        }
+        pos++;
+        while (pos < limit) {
+            byte b = source.get(pos);
+            if (b == '\\') {
+                pos += 2;
+            } else if (b == quote || b == '\n' || b == '\r') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+        return pos;
+    }
+    
+    private static int skipWhitespace(ByteBuffer source, int pos, int limit) {
+        while (pos < limit && (source.get(pos) & 0xff) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+    
+    private static byte[] find(byte[][] candidates, ByteBuffer source, int start, int end) {
+        if (candidates != null) {
+            for (byte[] candidate : candidates) {
+                if (matches(source, start, end, candidate)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static boolean matches(ByteBuffer source, int start, int end, byte[] candidate) {
+        if (end - start != candidate.length) {
+            return false;
+        }
+        for (int i = 0; i < candidate.length; i++) {
+            if (source.get(start + i) != candidate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int hash(byte[] bytes) {
+        int h = 0;
+        for (byte b : bytes) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+    
+    private static byte[][] concat(byte[][] first, byte[][] second) {
+        List<byte[]> all = new ArrayList<>(List.of(first));
+        all.addAll(List.of(second));
+        return all.toArray(new byte[0][]);
+    }
+    
+    private static boolean isIdentifierStart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c >= 0x80;
+    }
+    
+    private static boolean isIdentifierPart(int c) {
+        return isIdentifierStart(c) || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,40 @@
+package com.forge.analyzer.lexical;
+
+import java.util.Set;
+
+/**
+ * What a lexical scan found in a file: which of the requested trigger tokens
+ * occur and whether some method name appears to be called more than once.
+ * Both answers err on the side of "present", never the other way round.
+ */
+public class TokenSummary {
+    private final Set<String> tokens;
+    private final boolean repeatedCallName;
+    private final boolean unicodeEscapes;
+    
+    TokenSummary(Set<String> tokens, boolean repeatedCallName, boolean unicodeEscapes) {
+        this.tokens = tokens;
+        this.repeatedCallName = repeatedCallName;
+        this.unicodeEscapes = unicodeEscapes;
+    }
+    
+    public boolean contains(String token) {
+        return unicodeEscapes || tokens.contains(token);
+    }
+    
+    public boolean containsAny(Set<String> candidates) {
+        if (unicodeEscapes) {
+            return true;
+        }
+        for (String candidate : candidates) {
+            if (tokens.contains(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public boolean hasRepeatedCallName() {
+        return unicodeEscapes || repeatedCallName;
+    }
+}
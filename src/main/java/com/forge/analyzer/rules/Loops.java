@@ -0,0 +1,192 @@
+package com.forge.analyzer.rules;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.VariableDeclarationExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.type.Type;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Classifies the nodes that repeat their body: the four loop statements and
+ * lambdas passed to stream or collection operations that run once per element.
+ * {@code map}, {@code filter} and {@code flatMap} only count when their
+ * receiver is evidently a stream, since {@link java.util.Optional} has them
+ * too.
+ */
+public final class Loops {
+    
+    public static final Set<Class<? extends Node>> NODE_TYPES = Set.of(
+        ForStmt.class, ForEachStmt.class, WhileStmt.class, DoStmt.class, LambdaExpr.class
+    );
+    
+    public static final Set<String> ITERATING_OPERATIONS = Set.of(
+        "forEach", "forEachOrdered", "map", "mapToInt", "mapToLong", "mapToDouble", "mapToObj",
+        "flatMap", "filter", "peek", "reduce", "anyMatch", "allMatch", "noneMatch",
+        "takeWhile", "dropWhile", "removeIf", "replaceAll", "forEachRemaining"
+    );
+    
+    // Also methods of Optional, where they run at most once
+    private static final Set<String> OPTIONAL_OPERATIONS = Set.of("map", "filter", "flatMap");
+    
+    // Calls that start a stream, or return one from a stream without ending it
+    private static final Set<String> STREAM_OPERATIONS = Set.of(
+        "stream", "parallelStream", "chars", "codePoints", "lines", "range", "rangeClosed", "iterate", "generate",
+        "sorted", "distinct", "limit", "skip", "boxed", "parallel", "sequential", "unordered", "onClose",
+        "asLongStream", "asDoubleStream"
+    );
+    
+    // Calls that return an Optional
+    private static final Set<String> OPTIONAL_RESULTS = Set.of(
+        "findFirst", "findAny", "min", "max", "ofNullable", "empty", "or"
+    );
+    
+    /** Keywords and operation names of which every loop contains at least one. */
+    public static final Set<String> TRIGGER_TOKENS = Stream.concat(
+        Stream.of("for", "while", "do"), ITERATING_OPERATIONS.stream()
+    ).collect(Collectors.toUnmodifiableSet());
+    
+    private Loops() {
+    }
+    
+    /**
+     * Returns a short name for the kind of loop {@code node} is, or
+     * {@code null} when it is not a loop.
+     */
+    public static String kindOf(Node node) {
+        if (node instanceof ForStmt) {
+            return "for";
+        }
+        if (node instanceof ForEachStmt) {
+            return "for-each";
+        }
+        if (node instanceof WhileStmt) {
+            return "while";
+        }
+        if (node instanceof DoStmt) {
+            return "do";
+        }
+        if (node instanceof LambdaExpr lambda
+                && lambda.getParentNode().orElse(null) instanceof MethodCallExpr call
+                && call.getArguments().contains(lambda)
+                && ITERATING_OPERATIONS.contains(call.getNameAsString())
+                && (!OPTIONAL_OPERATIONS.contains(call.getNameAsString()) || isStream(call.getScope().orElse(null)))) {
+            return call.getNameAsString();
+        }
+        return null;
+    }
+    
+    /**
+     * Whether {@code receiver} is evidently a stream, judged by the call that
+     * started its chain or by the declared type or initializer of the
+     * variable it names. Anything else, including every Optional, is not.
+     */
+    private static boolean isStream(Expression receiver) {
+        Expression current = receiver;
+        while (current instanceof MethodCallExpr call) {
+            String name = call.getNameAsString();
+            if (name.equals("of") || name.equals("empty") || name.equals("concat")) {
+                // Static factories such as Stream.of, IntStream.concat and Optional.of
+                return call.getScope().map(scope -> isStreamType(scope.toString())).orElse(false);
+            }
+            if (OPTIONAL_RESULTS.contains(name)) {
+                return false;
+            }
+            if (STREAM_OPERATIONS.contains(name)) {
+                return true;
+            }
+            if (!ITERATING_OPERATIONS.contains(name)) {
+                return false;
+            }
+            current = call.getScope().orElse(null);
+        }
+        if (current instanceof NameExpr variable) {
+            return declarationOf(variable)
+                .map(declared -> declared.type() != null && !declared.type().isVarType()
+                    ? isStreamType(declared.type().asString())
+                    : declared.initializer() != null && isStream(declared.initializer()))
+                .orElse(false);
+        }
+        return false;
+    }
+    
+    private static boolean isStreamType(String type) {
+        int arguments = type.indexOf('<');
+        String name = arguments < 0 ? type : type.substring(0, arguments);
+        return name.endsWith("Stream") && !name.endsWith("InputStream") && !name.endsWith("OutputStream");
+    }
+    
+    /**
+     * Finds the local variable, parameter or field that {@code variable}
+     * refers to by looking at the declarations of each enclosing block,
+     * callable and type, innermost first.
+     */
+    private static Optional<Declaration> declarationOf(NameExpr variable) {
+        String name = variable.getNameAsString();
+        Node child = variable;
+        for (Node parent = variable.getParentNode().orElse(null); parent != null;
+             child = parent, parent = parent.getParentNode().orElse(null)) {
+            if (parent instanceof BlockStmt block) {
+                // Only declarations before the statement holding the variable are in scope
+                for (Statement statement : block.getStatements()) {
+                    if (statement == child) {
+                        break;
+                    }
+                    if (statement instanceof ExpressionStmt expression
+                            && expression.getExpression() instanceof VariableDeclarationExpr declaration) {
+                        for (VariableDeclarator declarator : declaration.getVariables()) {
+                            if (declarator.getNameAsString().equals(name)) {
+                                return Optional.of(Declaration.of(declarator));
+                            }
+                        }
+                    }
+                }
+            } else if (parent instanceof LambdaExpr lambda) {
+                for (Parameter parameter : lambda.getParameters()) {
+                    if (parameter.getNameAsString().equals(name)) {
+                        return Optional.of(new Declaration(parameter.getType().isUnknownType() ? null : parameter.getType(), null));
+                    }
+                }
+            } else if (parent instanceof CallableDeclaration<?> callable) {
+                for (Parameter parameter : callable.getParameters()) {
+                    if (parameter.getNameAsString().equals(name)) {
+                        return Optional.of(new Declaration(parameter.getType(), null));
+                    }
+                }
+            } else if (parent instanceof TypeDeclaration<?> type) {
+                for (FieldDeclaration field : type.getFields()) {
+                    for (VariableDeclarator declarator : field.getVariables()) {
+                        if (declarator.getNameAsString().equals(name)) {
+                            return Optional.of(Declaration.of(declarator));
+                        }
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    private record Declaration(Type type, Expression initializer) {
+        static Declaration of(VariableDeclarator declarator) {
+            return new Declaration(declarator.getType(), declarator.getInitializer().orElse(null));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.RuleId;
+import com.github.javaparser.ast.Node;
+
+import java.util.Set;
+
+/**
+ * Reports every maximal loop nest deeper than {@value #MAX_NESTING} once, at
+ * its innermost loop, covering all loop statements and per-element lambdas.
+ */
+public class NestedLoopRule implements Rule {
+    private static final int MAX_NESTING = 2;
+    
+    @Override
+    public String getId() {
+        return RuleId.NESTED_LOOPS.getId();
+    }
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public Set<Class<? extends Node>> getNodeTypes() {
+        return Loops.NODE_TYPES;
+    }
+    
+    @Override
+    public Set<String> getTriggerTokens() {
+        return Loops.TRIGGER_TOKENS;
+    }
+    
+    @Override
+    public void visit(Node node, RuleContext context) {
+    }
+    
+    @Override
+    public void leave(Node node, RuleContext context) {
+        int depth = context.getLoopDepth();
+        if (isReported(depth) && context.isInnermostLoop(node)) {
+            context.report(RuleId.NESTED_LOOPS, node, details(depth, context.describeLoopChain()));
+        }
+    }
+    
+    static boolean isReported(int depth) {
+        return depth > MAX_NESTING;
+    }
+    
+    static String details(int depth, String loopChain) {
+        return "Nested loops with depth " + depth + " (" + loopChain + ") can cause exponential time complexity";
+    }
+}
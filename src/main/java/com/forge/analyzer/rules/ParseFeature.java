@@ -0,0 +1,13 @@
+package com.forge.analyzer.rules;
+
+/**
+ * Optional information JavaParser can build into the AST. Each costs parse
+ * time and memory, so it is only built when an enabled rule asks for it
+ * through {@link Rule#getParseFeatures()}.
+ */
+public enum ParseFeature {
+    /** Comments attached to the nodes they belong to, via {@code Node.getComment()}. */
+    COMMENTS,
+    /** The original formatting, as needed by {@code LexicalPreservingPrinter}. */
+    LEXICAL_PRESERVATION
+}
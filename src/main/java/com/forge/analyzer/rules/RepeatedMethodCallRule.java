@@ -0,0 +1,179 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.RuleId;
+import com.forge.analyzer.lexical.TokenSummary;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.ArrayAccessExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups the calls of each method by signature (name, arity and receiver) in
+ * a hash map, which keeps detection linear in the number of calls, and reports
+ * one issue per signature that occurs more than once.
+ * <p>
+ * Receivers are compared by structural ids rather than by their printed
+ * text: every call, field access and array access of a chain gets the id of
+ * its own name plus the ids of its parts, so a chain of n calls is described
+ * in O(n) instead of re-printing the whole chain for each of its calls.
+ */
+public class RepeatedMethodCallRule implements Rule {
+    // Calls are attributed to their innermost enclosing method only, so methods
+    // of local and anonymous classes are not counted twice
+    private final Deque<Map<CallSignature, CallSite>> callsPerMethod = new ArrayDeque<>();
+    private final Map<Expression, Integer> expressionIds = new IdentityHashMap<>();
+    private final Map<ExpressionKey, Integer> ids = new HashMap<>();
+    
+    @Override
+    public String getId() {
+        return RuleId.REPEATED_METHOD_CALL.getId();
+    }
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public Set<Class<? extends Node>> getNodeTypes() {
+        return Set.of(MethodDeclaration.class, MethodCallExpr.class);
+    }
+    
+    @Override
+    public boolean isTriggeredBy(TokenSummary tokens) {
+        return tokens.hasRepeatedCallName();
+    }
+    
+    @Override
+    public void beginFile(RuleContext context) {
+        callsPerMethod.clear();
+        expressionIds.clear();
+        ids.clear();
+    }
+    
+    @Override
+    public void visit(Node node, RuleContext context) {
+        if (node instanceof MethodDeclaration) {
+            callsPerMethod.push(new LinkedHashMap<>());
+        } else if (!callsPerMethod.isEmpty()) {
+            MethodCallExpr call = (MethodCallExpr) node;
+            CallSignature signature = new CallSignature(
+                call.getNameAsString(),
+                call.getArguments().size(),
+                call.getScope().map(this::idOf).orElse(-1)
+            );
+            callsPerMethod.peek().computeIfAbsent(signature, key -> new CallSite(call)).addLine(lineOf(call));
+        }
+    }
+    
+    @Override
+    public void leave(Node node, RuleContext context) {
+        if (node instanceof MethodDeclaration) {
+            for (CallSite site : callsPerMethod.pop().values()) {
+                if (site.count > 1) {
+                    context.report(RuleId.REPEATED_METHOD_CALL, site.firstCall,
+                        details(site.firstCall.getNameAsString(), site.lines, site.count));
+                }
+            }
+        }
+    }
+    
+    static String details(String name, int[] lines, int count) {
+        return "Consider caching result of " + name + "() to avoid repeated computation (called " + count
+            + " times at lines " + describeLines(lines, count) + ")";
+    }
+    
+    /**
+     * Lists the lines in source order, collapsing consecutive lines into
+     * ranges so generated code with thousands of calls stays readable.
+     */
+    static String describeLines(int[] lines, int count) {
+        int[] sorted = Arrays.copyOf(lines, count);
+        Arrays.sort(sorted);
+        StringBuilder builder = new StringBuilder();
+        int start = 0;
+        while (start < count) {
+            int end = start;
+            while (end + 1 < count && sorted[end + 1] - sorted[end] <= 1) {
+                end++;
+            }
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(sorted[start]);
+            if (sorted[end] != sorted[start]) {
+                builder.append('-').append(sorted[end]);
+            }
+            start = end + 1;
+        }
+        return builder.toString();
+    }
+    
+    // Other kinds of expression are identified by their text, as before
+    private int idOf(Expression expression) {
+        Integer known = expressionIds.get(expression);
+        if (known != null) {
+            return known;
+        }
+        ExpressionKey key;
+        if (expression instanceof MethodCallExpr call) {
+            List<Integer> arguments = new ArrayList<>(call.getArguments().size());
+            for (Expression argument : call.getArguments()) {
+                arguments.add(idOf(argument));
+            }
+            String name = call.getTypeArguments().map(types -> "<" + types + ">").orElse("") + call.getNameAsString() + "(";
+            key = new ExpressionKey(name, call.getScope().map(this::idOf).orElse(-1), arguments);
+        } else if (expression instanceof FieldAccessExpr field) {
+            key = new ExpressionKey(field.getNameAsString(), idOf(field.getScope()), List.of());
+        } else if (expression instanceof ArrayAccessExpr access) {
+            key = new ExpressionKey("[", idOf(access.getName()), List.of(idOf(access.getIndex())));
+        } else {
+            key = new ExpressionKey(expression.toString(), -1, List.of());
+        }
+        int id = ids.computeIfAbsent(key, k -> ids.size());
+        expressionIds.put(expression, id);
+        return id;
+    }
+    
+    private static int lineOf(Node node) {
+        return node.getBegin().map(position -> position.line).orElse(0);
+    }
+    
+    private record CallSignature(String name, int arity, int receiver) {
+    }
+    
+    // The text of an expression's own name or operator, its receiver's id (-1
+    // for none) and the ids of its arguments or index
+    private record ExpressionKey(String text, int receiver, List<Integer> arguments) {
+    }
+    
+    private static final class CallSite {
+        private final MethodCallExpr firstCall;
+        private int[] lines = new int[4];
+        private int count;
+        
+        CallSite(MethodCallExpr firstCall) {
+            this.firstCall = firstCall;
+        }
+        
+        void addLine(int line) {
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, count * 2);
+            }
+            lines[count++] = line;
+        }
+    }
+}
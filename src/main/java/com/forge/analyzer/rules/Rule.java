@@ -0,0 +1,66 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.lexical.TokenSummary;
+import com.github.javaparser.ast.Node;
+
+import java.util.Set;
+
+/**
+ * A detection rule driven by {@link RuleEngine}. Instead of walking the AST on
+ * its own, a rule subscribes to the node types it cares about and receives
+ * those nodes from the engine's single traversal of each compilation unit.
+ * <p>
+ * Rule instances are created per engine and are only ever used by one thread,
+ * so they may keep per-file state between {@link #beginFile} and {@link #endFile}.
+ */
+public interface Rule {
+    
+    String getId();
+    
+    /**
+     * Bumped whenever the rule's findings change for the same input, which
+     * invalidates results cached under the previous version.
+     */
+    default int getVersion() {
+        return 1;
+    }
+    
+    Set<Class<? extends Node>> getNodeTypes();
+    
+    /**
+     * Tokens (keywords, identifiers or operators) of which at least one must
+     * occur outside comments and literals for the rule to report anything in a
+     * file. An empty set means the rule cannot be ruled out lexically.
+     */
+    default Set<String> getTriggerTokens() {
+        return Set.of();
+    }
+    
+    /**
+     * Decides from a lexical scan whether the rule may report anything in the
+     * file. It must never answer {@code false} for a file the rule would report
+     * on, otherwise findings are silently lost when parsing is skipped.
+     */
+    default boolean isTriggeredBy(TokenSummary tokens) {
+        return getTriggerTokens().isEmpty() || tokens.containsAny(getTriggerTokens());
+    }
+    
+    /**
+     * Optional AST information the rule reads. Anything not declared by some
+     * enabled rule may be missing from the nodes the rule receives.
+     */
+    default Set<ParseFeature> getParseFeatures() {
+        return Set.of();
+    }
+    
+    default void beginFile(RuleContext context) {
+    }
+    
+    void visit(Node node, RuleContext context);
+    
+    default void leave(Node node, RuleContext context) {
+    }
+    
+    default void endFile(RuleContext context) {
+    }
+}
@@ -0,0 +1,235 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+import com.github.javaparser.Position;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-file state shared by all rules. Besides collecting issues it tracks the
+ * enclosing methods and a running stack of the loops around the current node,
+ * maintained by {@link RuleEngine} during its single traversal.
+ */
+public class RuleContext {
+    private final String fileName;
+    private final List<Issue> issues;
+    private final Deque<MethodDeclaration> methods = new ArrayDeque<>();
+    private final List<LoopFrame> loops = new ArrayList<>();
+    // Index into loops where the current member declaration starts; loops of an
+    // enclosing method do not nest with loops of a local or anonymous class
+    private final Deque<Integer> loopScopes = new ArrayDeque<>();
+    private int loopScopeStart;
+    // Numbers of the anonymous classes of each class that has been asked for one
+    private final Map<Node, Integer> anonymousClassNumbers = new IdentityHashMap<>();
+    
+    RuleContext(String fileName, List<Issue> issues) {
+        this.fileName = fileName;
+        this.issues = issues;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    
+    public boolean isInsideMethod() {
+        return !methods.isEmpty();
+    }
+    
+    /**
+     * Number of loops enclosing the current node, including the current node
+     * itself when it is a loop.
+     */
+    public int getLoopDepth() {
+        return loops.size() - loopScopeStart;
+    }
+    
+    /**
+     * Whether {@code node} is the innermost loop and no loop has been found
+     * nested inside it, i.e. it ends a maximal loop nest.
+     */
+    public boolean isInnermostLoop(Node node) {
+        if (getLoopDepth() == 0) {
+            return false;
+        }
+        LoopFrame frame = loops.get(loops.size() - 1);
+        return frame.node == node && !frame.hasNestedLoop;
+    }
+    
+    /**
+     * Describes the loops around the current node from the outside in, for
+     * example {@code for > while > forEach}.
+     */
+    public String describeLoopChain() {
+        StringBuilder chain = new StringBuilder();
+        for (int i = loopScopeStart; i < loops.size(); i++) {
+            if (chain.length() > 0) {
+                chain.append(" > ");
+            }
+            chain.append(loops.get(i).kind);
+        }
+        return chain.toString();
+    }
+    
+    public void report(Issue issue) {
+        issues.add(issue);
+    }
+    
+    /**
+     * Reports an issue of {@code rule} at the start of {@code node}, inside
+     * the method enclosing it.
+     */
+    public void report(RuleId rule, Node node, String details) {
+        Position begin = node.getBegin().orElse(null);
+        issues.add(new Issue(rule, fileName, begin == null ? 0 : begin.line, begin == null ? 0 : begin.column, details,
+            enclosingMethod(node)));
+    }
+    
+    /**
+     * Names the method {@code node} runs in the way the JVM does: constructors
+     * and instance initializers are {@code <init>}, static initializers
+     * {@code <clinit>} and code in lambdas belongs to the enclosing method.
+     * Anonymous classes are named by their number within the enclosing class,
+     * as javac numbers them, so a method of {@code Outer$1} is
+     * {@code pkg.Outer.1.run} and never merges with {@code pkg.Outer.run}.
+     */
+    private String enclosingMethod(Node node) {
+        String method = null;
+        Deque<String> names = new ArrayDeque<>();
+        Node previous = null;
+        for (Node current = node; current != null; previous = current, current = current.getParentNode().orElse(null)) {
+            if (method == null) {
+                if (current instanceof MethodDeclaration declaration) {
+                    method = declaration.getNameAsString();
+                } else if (current instanceof ConstructorDeclaration) {
+                    method = "<init>";
+                } else if (current instanceof InitializerDeclaration initializer) {
+                    method = initializer.isStatic() ? "<clinit>" : "<init>";
+                } else if (current instanceof FieldDeclaration field) {
+                    method = field.isStatic() ? "<clinit>" : "<init>";
+                } else if (current instanceof TypeDeclaration<?>) {
+                    return null;
+                }
+            } else if (current instanceof TypeDeclaration<?> type) {
+                names.push(type.getNameAsString());
+            } else if (declaresAnonymousClass(current, previous)) {
+                names.push(String.valueOf(anonymousClassNumber(current)));
+            } else if (current instanceof CompilationUnit unit) {
+                unit.getPackageDeclaration().ifPresent(declaration -> names.push(declaration.getNameAsString()));
+            }
+        }
+        if (method == null) {
+            return null;
+        }
+        names.add(method);
+        return String.join(".", names);
+    }
+    
+    // javac numbers the anonymous classes of a class in the order it enters them, which is
+    // after the arguments of their constructor call and so in post-order
+    private int anonymousClassNumber(Node anonymous) {
+        Integer number = anonymousClassNumbers.get(anonymous);
+        if (number == null) {
+            Node enclosing = enclosingClass(anonymous);
+            int count = 0;
+            for (Node candidate : enclosing.stream(Node.TreeTraversal.POSTORDER).toList()) {
+                if (candidate != enclosing && anonymousClassBody(candidate) != null && enclosingClass(candidate) == enclosing) {
+                    anonymousClassNumbers.put(candidate, ++count);
+                }
+            }
+            number = anonymousClassNumbers.get(anonymous);
+        }
+        return number;
+    }
+    
+    // The nearest named or anonymous class that node is a member of or is inside a member of
+    private static Node enclosingClass(Node node) {
+        Node previous = node;
+        for (Node current = node.getParentNode().orElse(null); current != null;
+                previous = current, current = current.getParentNode().orElse(null)) {
+            if (current instanceof TypeDeclaration<?> || declaresAnonymousClass(current, previous)) {
+                return current;
+            }
+        }
+        return node.findCompilationUnit().orElse(null);
+    }
+    
+    private static boolean declaresAnonymousClass(Node node, Node member) {
+        NodeList<BodyDeclaration<?>> body = anonymousClassBody(node);
+        if (body != null) {
+            for (BodyDeclaration<?> declaration : body) {
+                if (declaration == member) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    // The members of the anonymous class that a constructor call or enum constant declares
+    private static NodeList<BodyDeclaration<?>> anonymousClassBody(Node node) {
+        if (node instanceof ObjectCreationExpr creation) {
+            return creation.getAnonymousClassBody().orElse(null);
+        }
+        if (node instanceof EnumConstantDeclaration constant && constant.getClassBody().isNonEmpty()) {
+            return constant.getClassBody();
+        }
+        return null;
+    }
+    
+    void enterMethod(MethodDeclaration method) {
+        methods.push(method);
+    }
+    
+    void leaveMethod() {
+        methods.pop();
+    }
+    
+    void enterLoopScope() {
+        loopScopes.push(loopScopeStart);
+        loopScopeStart = loops.size();
+    }
+    
+    void leaveLoopScope() {
+        loopScopeStart = loopScopes.pop();
+    }
+    
+    void enterLoop(Node node, String kind) {
+        if (getLoopDepth() > 0) {
+            loops.get(loops.size() - 1).hasNestedLoop = true;
+        }
+        loops.add(new LoopFrame(node, kind));
+    }
+    
+    void leaveLoop() {
+        loops.remove(loops.size() - 1);
+    }
+    
+    private static final class LoopFrame {
+        private final Node node;
+        private final String kind;
+        private boolean hasNestedLoop;
+        
+        LoopFrame(Node node, String kind) {
+            this.node = node;
+            this.kind = kind;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.Issue;
+import com.forge.jfr.RuleEvaluationEvent;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches the nodes of a compilation unit to the rules subscribed to their
+ * type, visiting every node exactly once regardless of how many rules are
+ * enabled. An engine is not thread-safe; each analysis worker owns one.
+ */
+public class RuleEngine {
+    private static final int[] NO_RULES = new int[0];
+    
+    private final List<Rule> rules;
+    private final Rule[] ruleArray;
+    // Subscribed rules by node type, as indexes into ruleArray
+    private final Map<Class<?>, int[]> dispatch = new HashMap<>();
+    private long[] ruleNanos;
+    private int nodeCount;
+    
+    public RuleEngine(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        this.ruleArray = this.rules.toArray(new Rule[0]);
+    }
+    
+    public List<Rule> getRules() {
+        return rules;
+    }
+    
+    public List<Issue> analyze(CompilationUnit cu, String fileName) {
+        return analyze(cu, fileName, null);
+    }
+    
+    /**
+     * Like {@link #analyze(CompilationUnit, String)}, also adding the
+     * nanoseconds each rule spends to the element of {@code ruleNanos} at the
+     * rule's index in {@link #getRules()}, unless it is {@code null}.
+     */
+    public List<Issue> analyze(CompilationUnit cu, String fileName, long[] ruleNanos) {
+        RuleEvaluationEvent event = new RuleEvaluationEvent();
+        event.begin();
+        List<Issue> issues = new ArrayList<>();
+        RuleContext context = new RuleContext(fileName, issues);
+        this.ruleNanos = ruleNanos;
+        nodeCount = 0;
+        
+        try {
+            for (int i = 0; i < ruleArray.length; i++) {
+                long start = ruleNanos == null ? 0 : System.nanoTime();
+                ruleArray[i].beginFile(context);
+                addTime(i, start);
+            }
+            walk(cu, context);
+            for (int i = 0; i < ruleArray.length; i++) {
+                long start = ruleNanos == null ? 0 : System.nanoTime();
+                ruleArray[i].endFile(context);
+                addTime(i, start);
+            }
+        } finally {
+            this.ruleNanos = null;
+        }
+        
+        if (event.shouldCommit()) {
+            event.path = fileName;
+            event.ruleCount = ruleArray.length;
+            event.nodeCount = nodeCount;
+            event.issueCount = issues.size();
+            event.commit();
+        }
+        return issues;
+    }
+    
+    private void walk(Node node, RuleContext context) {
+        nodeCount++;
+        int[] subscribers = subscribersOf(node.getClass());
+        boolean method = node instanceof MethodDeclaration;
+        boolean member = node instanceof BodyDeclaration;
+        String loopKind = Loops.kindOf(node);
+        
+        if (member) {
+            context.enterLoopScope();
+        }
+        if (method) {
+            context.enterMethod((MethodDeclaration) node);
+        }
+        if (loopKind != null) {
+            context.enterLoop(node, loopKind);
+        }
+        for (int index : subscribers) {
+            long start = ruleNanos == null ? 0 : System.nanoTime();
+            ruleArray[index].visit(node, context);
+            addTime(index, start);
+        }
+        
+        List<Node> children = node.getChildNodes();
+        for (int i = 0; i < children.size(); i++) {
+            walk(children.get(i), context);
+        }
+        
+        for (int index : subscribers) {
+            long start = ruleNanos == null ? 0 : System.nanoTime();
+            ruleArray[index].leave(node, context);
+            addTime(index, start);
+        }
+        if (loopKind != null) {
+            context.leaveLoop();
+        }
+        if (method) {
+            context.leaveMethod();
+        }
+        if (member) {
+            context.leaveLoopScope();
+        }
+    }
+    
+    private void addTime(int index, long start) {
+        if (ruleNanos != null) {
+            ruleNanos[index] += System.nanoTime() - start;
+        }
+    }
+    
+    private int[] subscribersOf(Class<?> nodeType) {
+        return dispatch.computeIfAbsent(nodeType, type -> {
+            List<Integer> subscribers = new ArrayList<>();
+            for (int i = 0; i < ruleArray.length; i++) {
+                for (Class<? extends Node> subscribed : ruleArray[i].getNodeTypes()) {
+                    if (subscribed.isAssignableFrom(type)) {
+                        subscribers.add(i);
+                        break;
+                    }
+                }
+            }
+            return subscribers.isEmpty() ? NO_RULES : subscribers.stream().mapToInt(Integer::intValue).toArray();
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.forge.analyzer.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The rules enabled for an analysis. Rules keep per-file state, so the set
+ * holds factories and every {@link RuleEngine} gets fresh instances.
+ */
+public class RuleSet {
+    private final List<Supplier<? extends Rule>> factories;
+    private final String version;
+    
+    public RuleSet(List<Supplier<? extends Rule>> factories) {
+        this.factories = List.copyOf(factories);
+        this.version = computeVersion();
+    }
+    
+    public static RuleSet defaults() {
+        return new RuleSet(List.of(
+            NestedLoopRule::new,
+            StringConcatenationInLoopRule::new,
+            RepeatedMethodCallRule::new
+        ));
+    }
+    
+    /**
+     * Identifies the enabled rules and their versions; two rule sets with the
+     * same version produce the same issues for the same source.
+     */
+    public String getVersion() {
+        return version;
+    }
+    
+    public RuleEngine createEngine() {
+        List<Rule> rules = new ArrayList<>(factories.size());
+        for (Supplier<? extends Rule> factory : factories) {
+            rules.add(factory.get());
+        }
+        return new RuleEngine(rules);
+    }
+    
+    private String computeVersion() {
+        StringBuilder builder = new StringBuilder();
+        for (Supplier<? extends Rule> factory : factories) {
+            Rule rule = factory.get();
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(rule.getId()).append('@').append(rule.getVersion());
+        }
+        return builder.toString();
+    }
+}
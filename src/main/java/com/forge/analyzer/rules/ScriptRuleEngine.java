@@ -0,0 +1,256 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the checks of {@link NestedLoopRule}, {@link StringConcatenationInLoopRule}
+ * and {@link RepeatedMethodCallRule} for languages that are scanned rather than
+ * parsed into a JavaParser AST. A frontend's scanner reports the types,
+ * functions, loops, calls and concatenated string literals it finds, in source
+ * order, and the engine reports the same issues with the same messages,
+ * except that string concatenation points to the language's own way of
+ * joining strings.
+ * <p>
+ * Like {@link RuleContext}, functions and types start a new loop scope, and
+ * calls count towards the innermost enclosing function only.
+ */
+public class ScriptRuleEngine {
+    private final List<Rule> rules;
+    private final boolean nestedLoops;
+    private final boolean concatenation;
+    private final boolean repeatedCalls;
+    private final String concatenationDetails;
+    
+    private String fileName;
+    private List<Issue> issues;
+    private final List<Scope> scopes = new ArrayList<>();
+    private Scope function;
+    private String module;
+    
+    // The loops of all scopes, innermost last, as parallel arrays
+    private String[] loopKinds = new String[16];
+    private int[] loopLines = new int[16];
+    private int[] loopColumns = new int[16];
+    private boolean[] loopNested = new boolean[16];
+    private int loopCount;
+    private int loopScopeStart;
+    
+    /**
+     * Creates an engine that runs the checks of those of {@code rules} it
+     * knows by id, suggesting {@code joinAlternative} instead of string
+     * concatenation in loops.
+     */
+    public ScriptRuleEngine(List<Rule> rules, String joinAlternative) {
+        this.rules = rules;
+        boolean nestedLoops = false;
+        boolean concatenation = false;
+        boolean repeatedCalls = false;
+        for (Rule rule : rules) {
+            RuleId id = RuleId.of(rule.getId());
+            nestedLoops |= id.equals(RuleId.NESTED_LOOPS);
+            concatenation |= id.equals(RuleId.STRING_CONCATENATION_IN_LOOP);
+            repeatedCalls |= id.equals(RuleId.REPEATED_METHOD_CALL);
+        }
+        this.nestedLoops = nestedLoops;
+        this.concatenation = concatenation;
+        this.repeatedCalls = repeatedCalls;
+        this.concatenationDetails = StringConcatenationInLoopRule.details(joinAlternative);
+    }
+    
+    public List<Rule> getRules() {
+        return rules;
+    }
+    
+    /**
+     * Starts a file. Its functions are named after the file without its
+     * extension, followed by their enclosing types and functions.
+     */
+    public void beginFile(String fileName) {
+        this.fileName = fileName;
+        int start = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1;
+        int end = fileName.lastIndexOf('.');
+        this.module = fileName.substring(start, end > start ? end : fileName.length());
+        this.issues = new ArrayList<>();
+        scopes.clear();
+        function = null;
+        loopCount = 0;
+        loopScopeStart = 0;
+    }
+    
+    /**
+     * Ends the file, closing the scopes the scanner left open, and returns its
+     * issues.
+     */
+    public List<Issue> endFile() {
+        while (!scopes.isEmpty()) {
+            leaveScope();
+        }
+        return issues;
+    }
+    
+    public void enterType(String name) {
+        enterScope(name, false);
+    }
+    
+    public void enterFunction(String name) {
+        enterScope(name, true);
+    }
+    
+    /**
+     * Leaves the innermost type or function, together with the loops still
+     * open inside it.
+     */
+    public void leaveScope() {
+        Scope scope = scopes.remove(scopes.size() - 1);
+        loopCount = loopScopeStart;
+        loopScopeStart = scope.loopScopeStart;
+        if (scope.isFunction) {
+            for (CallSite site : scope.calls.values()) {
+                if (site.count > 1) {
+                    issues.add(new Issue(RuleId.REPEATED_METHOD_CALL, fileName, site.line, site.column,
+                        RepeatedMethodCallRule.details(site.name, site.lines, site.count), scope.qualifiedName));
+                }
+            }
+        }
+        function = scope.enclosingFunction;
+    }
+    
+    public int getLoopDepth() {
+        return loopCount - loopScopeStart;
+    }
+    
+    public void enterLoop(String kind, int line, int column) {
+        if (getLoopDepth() > 0) {
+            loopNested[loopCount - 1] = true;
+        }
+        if (loopCount == loopKinds.length) {
+            loopKinds = Arrays.copyOf(loopKinds, loopCount * 2);
+            loopLines = Arrays.copyOf(loopLines, loopCount * 2);
+            loopColumns = Arrays.copyOf(loopColumns, loopCount * 2);
+            loopNested = Arrays.copyOf(loopNested, loopCount * 2);
+        }
+        loopKinds[loopCount] = kind;
+        loopLines[loopCount] = line;
+        loopColumns[loopCount] = column;
+        loopNested[loopCount] = false;
+        loopCount++;
+    }
+    
+    /**
+     * Leaves the innermost loop, reporting it when it ends a nest that is too
+     * deep. Does nothing when the current scope has no open loop.
+     */
+    public void leaveLoop() {
+        int depth = getLoopDepth();
+        if (depth == 0) {
+            return;
+        }
+        int loop = loopCount - 1;
+        if (nestedLoops && NestedLoopRule.isReported(depth) && !loopNested[loop]) {
+            StringBuilder chain = new StringBuilder();
+            for (int i = loopScopeStart; i < loopCount; i++) {
+                if (chain.length() > 0) {
+                    chain.append(" > ");
+                }
+                chain.append(loopKinds[i]);
+            }
+            issues.add(new Issue(RuleId.NESTED_LOOPS, fileName, loopLines[loop], loopColumns[loop],
+                NestedLoopRule.details(depth, chain.toString()), methodName()));
+        }
+        loopCount--;
+    }
+    
+    /**
+     * Reports a string literal that is an operand of {@code +} or
+     * {@code +=}, if it is inside a loop.
+     */
+    public void stringConcatenation(int line, int column) {
+        if (concatenation && getLoopDepth() > 0) {
+            issues.add(new Issue(RuleId.STRING_CONCATENATION_IN_LOOP, fileName, line, column,
+                concatenationDetails, methodName()));
+        }
+    }
+    
+    /**
+     * Whether {@link #call} counts calls here, so scanners can skip working
+     * out receivers where it does not.
+     */
+    public boolean isCountingCalls() {
+        return repeatedCalls && function != null;
+    }
+    
+    /**
+     * Counts a call of {@code name} with {@code arity} arguments on the
+     * receiver with the given source text, empty for none.
+     */
+    public void call(String name, int arity, String receiver, int line, int column) {
+        if (!isCountingCalls()) {
+            return;
+        }
+        function.calls.computeIfAbsent(new CallSignature(name, arity, receiver),
+            signature -> new CallSite(name, line, column)).addLine(line);
+    }
+    
+    private void enterScope(String name, boolean isFunction) {
+        Scope enclosing = scopes.isEmpty() ? null : scopes.get(scopes.size() - 1);
+        String qualifiedName = (enclosing == null ? module : enclosing.qualifiedName) + "." + name;
+        Scope scope = new Scope(qualifiedName, isFunction, loopScopeStart, function);
+        if (isFunction) {
+            function = scope;
+        }
+        scopes.add(scope);
+        loopScopeStart = loopCount;
+    }
+    
+    // Code directly in a type or at the top of a module runs outside any function
+    private String methodName() {
+        Scope scope = scopes.isEmpty() ? null : scopes.get(scopes.size() - 1);
+        return scope != null && scope.isFunction ? scope.qualifiedName : null;
+    }
+    
+    private static final class Scope {
+        private final String qualifiedName;
+        private final boolean isFunction;
+        private final int loopScopeStart;
+        private final Scope enclosingFunction;
+        private final Map<CallSignature, CallSite> calls = new LinkedHashMap<>();
+        
+        Scope(String qualifiedName, boolean isFunction, int loopScopeStart, Scope enclosingFunction) {
+            this.qualifiedName = qualifiedName;
+            this.isFunction = isFunction;
+            this.loopScopeStart = loopScopeStart;
+            this.enclosingFunction = enclosingFunction;
+        }
+    }
+    
+    private record CallSignature(String name, int arity, String receiver) {
+    }
+    
+    private static final class CallSite {
+        private final String name;
+        private final int line;
+        private final int column;
+        private int[] lines = new int[4];
+        private int count;
+        
+        CallSite(String name, int line, int column) {
+            this.name = name;
+            this.line = line;
+            this.column = column;
+        }
+        
+        void addLine(int line) {
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, count * 2);
+            }
+            lines[count++] = line;
+        }
+    }
+}
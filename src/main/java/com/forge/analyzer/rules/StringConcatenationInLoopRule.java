@@ -0,0 +1,71 @@
+package com.forge.analyzer.rules;
+
+import com.forge.analyzer.RuleId;
+import com.forge.analyzer.lexical.TokenSummary;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class StringConcatenationInLoopRule implements Rule {
+    static final String DETAILS = details("StringBuilder");
+    private static final Set<String> CONCATENATION_OPERATORS = Set.of("+", "+=");
+    private static final Set<String> TRIGGER_TOKENS = Stream.concat(
+        Loops.TRIGGER_TOKENS.stream(), CONCATENATION_OPERATORS.stream()
+    ).collect(Collectors.toUnmodifiableSet());
+    
+    @Override
+    public String getId() {
+        return RuleId.STRING_CONCATENATION_IN_LOOP.getId();
+    }
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public Set<Class<? extends Node>> getNodeTypes() {
+        return Set.of(StringLiteralExpr.class);
+    }
+    
+    @Override
+    public Set<String> getTriggerTokens() {
+        return TRIGGER_TOKENS;
+    }
+    
+    @Override
+    public boolean isTriggeredBy(TokenSummary tokens) {
+        return tokens.containsAny(Loops.TRIGGER_TOKENS) && tokens.containsAny(CONCATENATION_OPERATORS);
+    }
+    
+    @Override
+    public void visit(Node node, RuleContext context) {
+        if (context.getLoopDepth() > 0 && isConcatenated(node)) {
+            context.report(RuleId.STRING_CONCATENATION_IN_LOOP, node, DETAILS);
+        }
+    }
+    
+    /**
+     * The details of an issue in a language whose way of building a string
+     * from parts is {@code alternative}.
+     */
+    static String details(String alternative) {
+        return "Consider using " + alternative + " for string concatenation in loops";
+    }
+    
+    private boolean isConcatenated(Node literal) {
+        Node parent = literal.getParentNode().orElse(null);
+        if (parent instanceof BinaryExpr binary) {
+            return binary.getOperator() == BinaryExpr.Operator.PLUS;
+        }
+        if (parent instanceof AssignExpr assign) {
+            return assign.getOperator() == AssignExpr.Operator.PLUS;
+        }
+        return false;
+    }
+}
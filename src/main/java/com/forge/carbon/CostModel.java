@@ -0,0 +1,261 @@
+package com.forge.carbon;
+
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.RuleId;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Collects the cost of an analysis per method and file while the results
+ * stream in, and rolls it up into packages, modules and the project.
+ * <p>
+ * Every file costs a fixed base time and every issue adds a share of it that
+ * depends on its severity. Costs are only ever added, so they stay finite
+ * however many issues a codebase has. Modules are the directories holding a
+ * build file; packages are directories below a module's source root.
+ */
+public class CostModel implements IssueListener {
+    static final double BASE_FILE_MS = 10.0;
+    private static final List<String> BUILD_FILES = List.of("pom.xml", "build.gradle", "build.gradle.kts");
+    private static final List<Path> SOURCE_ROOTS = List.of(
+        Path.of("src", "main", "java"), Path.of("src", "test", "java"), Path.of("src"));
+    private static final String DEFAULT_PACKAGE = "(default package)";
+    private static final String OUTSIDE_METHODS = "(outside methods)";
+    
+    private final Path root;
+    private final Map<Path, Path> moduleOfDirectory = new HashMap<>();
+    private final Map<String, Map<String, List<FileCost>>> modules = new LinkedHashMap<>();
+    private int fileCount;
+    private int issueCount;
+    // Analyzed files that were only counted, never delivered
+    private int undeliveredFiles;
+    
+    /**
+     * Creates a model for the analysis of {@code root}, which names modules
+     * relative to it and bounds the search for build files. Without a root,
+     * build files are searched in all parent directories of each file.
+     */
+    public CostModel(Path root) {
+        this.root = root != null && !Files.isDirectory(root) ? root.getParent() : root;
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        Path path = file.getFile();
+        Path directory = path.getParent() == null ? Path.of("") : path.getParent();
+        Path module = moduleOf(directory);
+        FileCost cost = new FileCost(path.getFileName().toString());
+        for (Issue issue : file.getIssues()) {
+            cost.add(issue);
+        }
+        modules.computeIfAbsent(moduleName(module), name -> new LinkedHashMap<>())
+            .computeIfAbsent(packageName(module, directory), name -> new ArrayList<>())
+            .add(cost);
+        fileCount++;
+        issueCount += file.getIssues().size();
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        undeliveredFiles = Math.max(0, filesAnalyzed - fileCount);
+    }
+    
+    public int getFileCount() {
+        return fileCount + undeliveredFiles;
+    }
+    
+    public int getIssueCount() {
+        return issueCount;
+    }
+    
+    /**
+     * The enclosing methods of all issues, as {@link Issue#getMethod()} names them.
+     */
+    public Set<String> getMethods() {
+        Set<String> methods = new HashSet<>();
+        forEachFile(file -> methods.addAll(file.methods.keySet()));
+        methods.remove(null);
+        return methods;
+    }
+    
+    /**
+     * Counts the issues whose enclosing method matches {@code methods}.
+     */
+    public int countIssues(Predicate<String> methods) {
+        int[] count = new int[1];
+        forEachFile(file -> file.methods.forEach((method, cost) -> {
+            if (method != null && methods.test(method)) {
+                count[0] += cost.issues;
+            }
+        }));
+        return count[0];
+    }
+    
+    /**
+     * Computes the breakdown, weighting each method's issues by its share of
+     * the CPU samples in {@code profile}, or counting them in full without one.
+     */
+    public CostNode build(CpuProfile profile) {
+        List<CostNode> moduleNodes = new ArrayList<>();
+        for (Map.Entry<String, Map<String, List<FileCost>>> module : modules.entrySet()) {
+            List<CostNode> packageNodes = new ArrayList<>();
+            for (Map.Entry<String, List<FileCost>> pkg : module.getValue().entrySet()) {
+                List<CostNode> fileNodes = new ArrayList<>();
+                for (FileCost file : pkg.getValue()) {
+                    fileNodes.add(file.build(profile));
+                }
+                packageNodes.add(sum(CostNode.Level.PACKAGE, pkg.getKey(), 0, 0, fileNodes));
+            }
+            moduleNodes.add(sum(CostNode.Level.MODULE, module.getKey(), 0, 0, packageNodes));
+        }
+        return sum(CostNode.Level.PROJECT, root == null ? "." : root.toString(),
+            undeliveredFiles * BASE_FILE_MS, undeliveredFiles, moduleNodes);
+    }
+    
+    private void forEachFile(Consumer<FileCost> action) {
+        for (Map<String, List<FileCost>> packages : modules.values()) {
+            for (List<FileCost> files : packages.values()) {
+                files.forEach(action);
+            }
+        }
+    }
+    
+    private Path moduleOf(Path directory) {
+        Path cached = moduleOfDirectory.get(directory);
+        if (cached != null) {
+            return cached;
+        }
+        Path module;
+        if (hasBuildFile(directory) || directory.equals(root)) {
+            module = directory;
+        } else if (directory.getParent() == null || (root != null && !directory.startsWith(root))) {
+            module = root != null ? root : Path.of("");
+        } else {
+            module = moduleOf(directory.getParent());
+        }
+        moduleOfDirectory.put(directory, module);
+        return module;
+    }
+    
+    private static boolean hasBuildFile(Path directory) {
+        for (String buildFile : BUILD_FILES) {
+            if (Files.isRegularFile(directory.resolve(buildFile))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private String moduleName(Path module) {
+        String name = root != null && module.startsWith(root) ? root.relativize(module).toString() : module.toString();
+        return name.isEmpty() ? "." : name;
+    }
+    
+    private static String packageName(Path module, Path directory) {
+        Path relative = directory.startsWith(module) ? module.relativize(directory) : directory;
+        for (Path sourceRoot : SOURCE_ROOTS) {
+            if (relative.startsWith(sourceRoot)) {
+                relative = sourceRoot.relativize(relative);
+                break;
+            }
+        }
+        String name = relative.toString().replace(relative.getFileSystem().getSeparator(), ".");
+        return name.isEmpty() ? DEFAULT_PACKAGE : name;
+    }
+    
+    private static CostNode sum(CostNode.Level level, String name, double ownCpuTimeMs, int ownFiles,
+                                List<CostNode> children) {
+        children.sort(Comparator.comparingDouble(CostNode::getCpuTimeMs).reversed());
+        double cpuTimeMs = ownCpuTimeMs;
+        double savings = 0;
+        int files = ownFiles;
+        int issues = 0;
+        for (CostNode child : children) {
+            cpuTimeMs += child.getCpuTimeMs();
+            savings += child.getPotentialSavings();
+            files += child.getFileCount();
+            issues += child.getIssueCount();
+        }
+        return node(level, name, cpuTimeMs, savings, files, issues, children);
+    }
+    
+    private static CostNode node(CostNode.Level level, String name, double cpuTimeMs, double savings,
+                                 int files, int issues, List<CostNode> children) {
+        double energyWh = CarbonEstimator.energyWh(cpuTimeMs);
+        return new CostNode(level, name, cpuTimeMs, energyWh, CarbonEstimator.co2Grams(energyWh), savings,
+            files, issues, children);
+    }
+    
+    /**
+     * The time an issue adds to its file, as a share of the file's base time.
+     */
+    static double penaltyOf(RuleId rule) {
+        switch (rule.getSeverity()) {
+            case HIGH:
+                return 0.5; // 50% increase for high severity issues
+            case MEDIUM:
+                return 0.2; // 20% increase for medium severity issues
+            default:
+                return 0.1; // 10% increase for low severity issues
+        }
+    }
+    
+    static double savingsOf(RuleId rule) {
+        if (rule.equals(RuleId.NESTED_LOOPS)) {
+            return 0.4; // 40% potential savings
+        } else if (rule.equals(RuleId.STRING_CONCATENATION_IN_LOOP)) {
+            return 0.2; // 20% potential savings
+        } else if (rule.equals(RuleId.REPEATED_METHOD_CALL)) {
+            return 0.3; // 30% potential savings
+        }
+        return 0.0;
+    }
+    
+    private static final class FileCost {
+        private final String name;
+        // Keyed by enclosing method; null collects the issues outside methods
+        private final Map<String, MethodCost> methods = new LinkedHashMap<>();
+        
+        FileCost(String name) {
+            this.name = name;
+        }
+        
+        void add(Issue issue) {
+            MethodCost method = methods.computeIfAbsent(issue.getMethod(), key -> new MethodCost());
+            method.penalty += penaltyOf(issue.getRule());
+            method.savings += savingsOf(issue.getRule());
+            method.issues++;
+        }
+        
+        CostNode build(CpuProfile profile) {
+            List<CostNode> methodNodes = new ArrayList<>();
+            for (Map.Entry<String, MethodCost> entry : methods.entrySet()) {
+                String method = entry.getKey();
+                MethodCost cost = entry.getValue();
+                double weight = profile == null ? 1.0 : profile.getShare(method);
+                methodNodes.add(node(CostNode.Level.METHOD, method == null ? OUTSIDE_METHODS : method,
+                    BASE_FILE_MS * cost.penalty * weight, cost.savings * weight, 0, cost.issues, new ArrayList<>()));
+            }
+            return sum(CostNode.Level.FILE, name, BASE_FILE_MS, 1, methodNodes);
+        }
+    }
+    
+    private static final class MethodCost {
+        private double penalty;
+        private double savings;
+        private int issues;
+    }
+}
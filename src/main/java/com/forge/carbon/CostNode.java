@@ -0,0 +1,94 @@
+package com.forge.carbon;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One level of the cost breakdown: the whole project, a module, a package, a
+ * file or a method. A node's figures include all of its children; children
+ * are ordered from most to least expensive.
+ */
+public class CostNode {
+    public enum Level {
+        PROJECT, MODULE, PACKAGE, FILE, METHOD
+    }
+    
+    @JsonProperty("level")
+    private final Level level;
+    
+    @JsonProperty("name")
+    private final String name;
+    
+    @JsonProperty("cpuTimeMs")
+    private final double cpuTimeMs;
+    
+    @JsonProperty("energyWh")
+    private final double energyWh;
+    
+    @JsonProperty("co2Grams")
+    private final double co2Grams;
+    
+    @JsonProperty("potentialSavings")
+    private final double potentialSavings;
+    
+    @JsonProperty("files")
+    private final int fileCount;
+    
+    @JsonProperty("issues")
+    private final int issueCount;
+    
+    @JsonProperty("children")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final List<CostNode> children;
+    
+    public CostNode(Level level, String name, double cpuTimeMs, double energyWh, double co2Grams,
+                    double potentialSavings, int fileCount, int issueCount, List<CostNode> children) {
+        this.level = level;
+        this.name = name;
+        this.cpuTimeMs = cpuTimeMs;
+        this.energyWh = energyWh;
+        this.co2Grams = co2Grams;
+        this.potentialSavings = potentialSavings;
+        this.fileCount = fileCount;
+        this.issueCount = issueCount;
+        this.children = children;
+    }
+    
+    public Level getLevel() {
+        return level;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public double getCpuTimeMs() {
+        return cpuTimeMs;
+    }
+    
+    public double getEnergyWh() {
+        return energyWh;
+    }
+    
+    public double getCo2Grams() {
+        return co2Grams;
+    }
+    
+    public double getPotentialSavings() {
+        return potentialSavings;
+    }
+    
+    public int getFileCount() {
+        return fileCount;
+    }
+    
+    public int getIssueCount() {
+        return issueCount;
+    }
+    
+    public List<CostNode> getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,173 @@
+package com.forge.carbon;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * CPU samples of a running program, counted per method, so that issues can be
+ * weighted by how much the code they are in actually runs. A method's count
+ * is the number of samples with the method anywhere on the stack.
+ * <p>
+ * Profiles are read one stack at a time and only the methods asked for are
+ * counted, so recordings far larger than the heap can be loaded.
+ */
+public class CpuProfile {
+    private static final byte[] JFR_MAGIC = {'F', 'L', 'R', 0};
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    // The number before the name of a local class, as in Outer$1Local
+    private static final Pattern LOCAL_CLASS = Pattern.compile("\\$\\d+(?=[^\\d$])");
+    // async-profiler's frame type suffixes, such as _[j] for JIT-compiled frames
+    private static final Pattern FRAME_TYPE = Pattern.compile("_\\[\\w+]$");
+    
+    private final Map<String, Long> samples;
+    private final long totalSamples;
+    
+    private CpuProfile(Map<String, Long> samples, long totalSamples) {
+        this.samples = samples;
+        this.totalSamples = totalSamples;
+    }
+    
+    /**
+     * Loads a JDK Flight Recorder recording, using its {@code jdk.ExecutionSample}
+     * events, or collapsed stacks as written by async-profiler and
+     * {@code stackcollapse} scripts: one {@code frame;frame;...;frame count}
+     * line per distinct stack. Only {@code methods}, named as
+     * {@link com.forge.analyzer.Issue#getMethod()} names them, are counted.
+     */
+    public static CpuProfile load(Path file, Set<String> methods) throws IOException {
+        byte[] magic;
+        try (InputStream in = Files.newInputStream(file)) {
+            magic = in.readNBytes(JFR_MAGIC.length);
+        }
+        return Arrays.equals(magic, JFR_MAGIC) ? loadRecording(file, methods) : loadCollapsedStacks(file, methods);
+    }
+    
+    private static CpuProfile loadCollapsedStacks(Path file, Set<String> methods) throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        Set<String> onStack = new HashSet<>();
+        long totalSamples = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                int separator = line.lastIndexOf(' ');
+                long count;
+                try {
+                    count = Long.parseLong(line.substring(separator + 1).strip());
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ":" + lineNumber + ": expected a stack followed by a sample count");
+                }
+                totalSamples += count;
+                
+                onStack.clear();
+                for (String frame : line.substring(0, Math.max(separator, 0)).split(";")) {
+                    String method = methodOfFrame(frame);
+                    if (method != null && methods.contains(method)) {
+                        onStack.add(method);
+                    }
+                }
+                for (String method : onStack) {
+                    samples.merge(method, count, Long::sum);
+                }
+            }
+        }
+        return new CpuProfile(samples, totalSamples);
+    }
+    
+    private static CpuProfile loadRecording(Path file, Set<String> methods) throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        Set<String> onStack = new HashSet<>();
+        long totalSamples = 0;
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace == null || !event.getEventType().getName().equals(EXECUTION_SAMPLE)) {
+                    continue;
+                }
+                totalSamples++;
+                
+                onStack.clear();
+                for (RecordedFrame frame : stackTrace.getFrames()) {
+                    RecordedMethod recorded = frame.getMethod();
+                    if (frame.isJavaFrame() && recorded != null) {
+                        String method = methodOf(recorded.getType().getName(), recorded.getName());
+                        if (methods.contains(method)) {
+                            onStack.add(method);
+                        }
+                    }
+                }
+                for (String method : onStack) {
+                    samples.merge(method, 1L, Long::sum);
+                }
+            }
+        }
+        return new CpuProfile(samples, totalSamples);
+    }
+    
+    private static String methodOfFrame(String frame) {
+        String name = FRAME_TYPE.matcher(frame.strip()).replaceFirst("");
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0 || dot == name.length() - 1) {
+            // Native, kernel and thread frames
+            return null;
+        }
+        return methodOf(name.substring(0, dot).replace('/', '.'), name.substring(dot + 1));
+    }
+    
+    /**
+     * Maps a JVM class and method name to the name the analyzer gives the
+     * source method: nested classes are separated by dots, anonymous classes
+     * keep their number as in {@code Outer.1.run}, local class numbers are
+     * dropped and lambdas belong to the method declaring them.
+     */
+    static String methodOf(String className, String methodName) {
+        String type = LOCAL_CLASS.matcher(className).replaceAll("\\$");
+        String method = methodName;
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = method.substring("lambda$".length(), end < 0 ? method.length() : end);
+            if (method.equals("static")) {
+                method = "<clinit>";
+            } else if (method.equals("new")) {
+                method = "<init>";
+            }
+        }
+        return type.replace('$', '.') + "." + method;
+    }
+    
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+    
+    public long getSamples(String method) {
+        return method == null ? 0 : samples.getOrDefault(method, 0L);
+    }
+    
+    /**
+     * The fraction of all samples that ran {@code method} or code it called.
+     */
+    public double getShare(String method) {
+        return totalSamples == 0 ? 0 : (double) getSamples(method) / totalSamples;
+    }
+}
@@ -1,7 +1,12 @@
 package com.forge.carbon;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
 
 public class EstimateResult {
     @JsonProperty("estimatedCpuTimeMs")
@@ -22,14 +27,26 @@ public class EstimateResult {
     @JsonProperty("savingsPercentage")
     private final double savingsPercentage;
     
+    @JsonProperty("breakdown")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final CostNode breakdown;
+    
     public EstimateResult(double estimatedCpuTimeMs, double estimatedEnergyWh, double estimatedCo2Grams,
                          double potentialSavings, double potentialCo2Reduction, double savingsPercentage) {
+        this(estimatedCpuTimeMs, estimatedEnergyWh, estimatedCo2Grams, potentialSavings, potentialCo2Reduction,
+            savingsPercentage, null);
+    }
+    
+    public EstimateResult(double estimatedCpuTimeMs, double estimatedEnergyWh, double estimatedCo2Grams,
+                         double potentialSavings, double potentialCo2Reduction, double savingsPercentage,
+                         CostNode breakdown) {
         this.estimatedCpuTimeMs = estimatedCpuTimeMs;
         this.estimatedEnergyWh = estimatedEnergyWh;
         this.estimatedCo2Grams = estimatedCo2Grams;
         this.potentialSavings = potentialSavings;
         this.potentialCo2Reduction = potentialCo2Reduction;
         this.savingsPercentage = savingsPercentage;
+        this.breakdown = breakdown;
     }
     
     public double getEstimatedCpuTimeMs() {
@@ -56,10 +73,42 @@ public class EstimateResult {
         return savingsPercentage;
     }
     
+    /**
+     * The cost per module, package, file and method, or {@code null} when
+     * the estimate was not broken down.
+     */
+    public CostNode getBreakdown() {
+        return breakdown;
+    }
+    
+    /**
+     * Writes the estimate as JSON and a line break to {@code out}, without
+     * building the text in memory first.
+     */
+    public void writeJson(Writer out) throws IOException {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        Json.MAPPER.writeValue(out, this);
+        out.write(System.lineSeparator());
+        if (event.shouldCommit()) {
+            event.format = "json";
+            event.content = "estimate";
+            event.commit();
+        }
+    }
+    
     public String toJson() {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.writeValueAsString(this);
+            String json = Json.MAPPER.writeValueAsString(this);
+            if (event.shouldCommit()) {
+                event.format = "json";
+                event.content = "estimate";
+                event.length = json.length();
+                event.commit();
+            }
+            return json;
         } catch (Exception e) {
             return "{\"error\": \"Failed to serialize to JSON\"}";
         }
@@ -0,0 +1,283 @@
+package com.forge.cli;
+
+import com.forge.analyzer.AnalysisProfile;
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.ChangeSet;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.ParseProfile;
+import com.forge.analyzer.ResultFile;
+import com.forge.analyzer.Shard;
+import com.forge.analyzer.cache.AnalysisCache;
+import com.forge.analyzer.cache.IssueCache;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options shared by every command that runs an analysis.
+ */
+public class AnalysisOptions {
+    // Collected issues get one eighth of --max-heap-budget, files in flight the rest
+    private static final long ISSUE_BUDGET_DIVISOR = 8;
+    
+    private final IssueCache sharedCache;
+    private final Path workingDirectory;
+    
+    @CommandLine.Option(names = {"--threads", "-t"}, description = "Number of parser threads (default: available processors)")
+    private Integer threads;
+    
+    @CommandLine.Option(names = "--cache", arity = "0..1", fallbackValue = AnalysisCache.DEFAULT_DIRECTORY,
+        paramLabel = "DIR", description = "Reuse results for unchanged files (default directory: ${FALLBACK-VALUE})")
+    private Path cacheDirectory;
+    
+    @CommandLine.Option(names = "--cache-max-size", defaultValue = "256", paramLabel = "MB",
+        description = "Cache size limit before least recently used entries are evicted (default: ${DEFAULT-VALUE} MB)")
+    private long cacheMaxSizeMb;
+    
+    @CommandLine.Option(names = "--no-prefilter", description = "Parse every file, even those a lexical scan shows no rule can match")
+    private boolean noPrefilter;
+    
+    @CommandLine.Option(names = "--parse-profile", defaultValue = "FAST", paramLabel = "PROFILE",
+        description = "AST detail to build: FAST builds only what the rules need, FULL keeps JavaParser's defaults (default: ${DEFAULT-VALUE})")
+    private ParseProfile parseProfile;
+    
+    @CommandLine.Option(names = "--profile", arity = "0..1", fallbackValue = "text", paramLabel = "FORMAT",
+        description = "Report the time spent per phase, rule and file on standard error, as text or json (default: ${FALLBACK-VALUE})")
+    private ProfileReportWriter.Format profileFormat;
+    
+    private String language;
+    private Long maxHeapBudgetMb;
+    
+    @CommandLine.Option(names = "--save-result", paramLabel = "FILE",
+        description = "Also store the result in FILE, for forge render and forge merge")
+    private Path saveResult;
+    
+    @CommandLine.ArgGroup(exclusive = true)
+    private Scope scope;
+    
+    @CommandLine.Spec(CommandLine.Spec.Target.MIXEE)
+    private CommandLine.Model.CommandSpec spec;
+    
+    static class Scope {
+        @CommandLine.Option(names = "--changed-since", paramLabel = "REF",
+            description = "Only analyze files changed since the branch left REF, reporting issues on changed lines only")
+        String changedSince;
+        
+        @CommandLine.Option(names = "--files-from", paramLabel = "FILE",
+            description = "Only analyze the files listed in FILE, one per line (- reads standard input)")
+        Path filesFrom;
+    }
+    
+    public AnalysisOptions() {
+        this(null, Path.of(""));
+    }
+    
+    /**
+     * Creates options whose analyzers also use {@code sharedCache}, which a
+     * long-running process keeps across commands, in front of any cache
+     * selected on the command line. Paths of changed and listed files are
+     * resolved against the working directory of the client the process
+     * runs the command for.
+     */
+    public AnalysisOptions(IssueCache sharedCache, Path workingDirectory) {
+        this.sharedCache = sharedCache;
+        this.workingDirectory = workingDirectory;
+    }
+    
+    @CommandLine.Option(names = {"--lang", "-l"}, defaultValue = "java",
+        description = "Programming language: java, python, javascript, or auto to pick by file extension (default: ${DEFAULT-VALUE})")
+    private void setLanguage(String language) {
+        try {
+            new CodeAnalyzer().sources(language);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLine.ParameterException(spec.commandLine(), e.getMessage());
+        }
+        this.language = language;
+    }
+    
+    @CommandLine.Option(names = "--max-heap-budget", paramLabel = "MB",
+        description = "Heap to use for files in flight and collected issues; files wait and issues spill to disk beyond it")
+    private void setMaxHeapBudgetMb(long megabytes) {
+        if (megabytes <= 0) {
+            throw new CommandLine.ParameterException(spec.commandLine(),
+                "--max-heap-budget must be a positive number of megabytes, got " + megabytes);
+        }
+        maxHeapBudgetMb = megabytes;
+    }
+    
+    /**
+     * Opens the cache selected on the command line, or returns {@code null}
+     * when caching is disabled.
+     */
+    public AnalysisCache openCache() throws IOException {
+        return cacheDirectory == null ? null : AnalysisCache.open(cacheDirectory, cacheMaxSizeMb * 1024 * 1024, err());
+    }
+    
+    /**
+     * The language selected with {@code --lang}, which is known to a frontend.
+     */
+    public String getLanguage() {
+        return language;
+    }
+    
+    /**
+     * The file {@code --save-result} stores the result in, or {@code null}.
+     */
+    public Path getSaveResult() {
+        return saveResult;
+    }
+    
+    /**
+     * Analyzes {@code path}, limited to the changed or listed files when
+     * {@code --changed-since} or {@code --files-from} is given.
+     */
+    public int analyze(CodeAnalyzer analyzer, Path path, String language, IssueListener listener) throws IOException {
+        if (saveResult == null) {
+            return run(analyzer, path, language, listener);
+        }
+        try (AnalysisResult saved = createResult()) {
+            int filesAnalyzed = run(analyzer, path, language, IssueListener.tee(saved, listener));
+            new ResultFile(path, language, saved).write(saveResult);
+            return filesAnalyzed;
+        }
+    }
+    
+    private int run(CodeAnalyzer analyzer, Path path, String language, IssueListener listener) throws IOException {
+        int filesAnalyzed;
+        if (scope == null) {
+            filesAnalyzed = analyzer.analyze(path, language, listener);
+        } else {
+            ChangeSet changes = loadChanges(path);
+            filesAnalyzed = analyzer.analyzeFiles(changes.filesUnder(path, analyzer.sources(language)),
+                changes.filter(listener));
+        }
+        if (analyzer.getProfile() != null) {
+            writeProfile(analyzer.getProfile());
+        }
+        return filesAnalyzed;
+    }
+    
+    /**
+     * Analyzes the files of {@code shard} among those {@link #analyze} would
+     * analyze. A saved result records the position of each of them among all
+     * files, for {@code forge merge}.
+     */
+    public void analyzeShard(CodeAnalyzer analyzer, Path path, String language, Shard shard, IssueListener listener)
+        throws IOException {
+        try (AnalysisResult saved = saveResult == null ? null : createResult()) {
+            if (saved != null) {
+                listener = IssueListener.tee(saved, listener);
+            }
+            List<Path> files;
+            if (scope == null) {
+                files = analyzer.discover(path, language);
+            } else {
+                ChangeSet changes = loadChanges(path);
+                files = changes.filesUnder(path, analyzer.sources(language));
+                listener = changes.filter(listener);
+            }
+            Map<Path, Integer> positions = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                positions.put(files.get(i), i);
+            }
+            analyzer.analyzeFiles(shard.select(Files.isDirectory(path) ? path : path.toAbsolutePath().getParent(), files),
+                listener);
+            if (analyzer.getProfile() != null) {
+                writeProfile(analyzer.getProfile());
+            }
+            if (saved != null) {
+                new ResultFile(path, language, shard, saved, positions::get).write(saveResult);
+            }
+        }
+    }
+    
+    /**
+     * Analyzes {@code path} into a new result, which the caller closes.
+     */
+    public AnalysisResult analyze(CodeAnalyzer analyzer, Path path, String language) throws IOException {
+        AnalysisResult result = createResult();
+        try {
+            run(analyzer, path, language, result);
+            if (saveResult != null) {
+                new ResultFile(path, language, result).write(saveResult);
+            }
+        } catch (IOException | RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+    
+    /**
+     * Creates a result to collect issues into, which spills them to disk
+     * beyond its share of {@code --max-heap-budget} until it is closed.
+     */
+    public AnalysisResult createResult() {
+        AnalysisResult result = new AnalysisResult();
+        if (maxHeapBudgetMb != null) {
+            result.setMemoryBudget(maxHeapBudgetMb * 1024 * 1024 / ISSUE_BUDGET_DIVISOR);
+        }
+        return result;
+    }
+    
+    private void writeProfile(AnalysisProfile profile) throws IOException {
+        ProfileReportWriter writer = new ProfileReportWriter(err());
+        if (profileFormat == ProfileReportWriter.Format.JSON) {
+            writer.writeJson(profile);
+        } else {
+            writer.writeText(profile);
+        }
+    }
+    
+    // The command's error stream, which a daemon sends to its client
+    private PrintWriter err() {
+        return spec != null ? spec.commandLine().getErr() : new PrintWriter(System.err, true);
+    }
+    
+    private ChangeSet loadChanges(Path path) throws IOException {
+        if (scope.changedSince != null) {
+            Path directory = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+            return ChangeSet.fromGit(directory, scope.changedSince, workingDirectory);
+        }
+        if (scope.filesFrom.toString().equals("-")) {
+            return ChangeSet.fromFileList(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+                workingDirectory);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(scope.filesFrom)) {
+            return ChangeSet.fromFileList(reader, workingDirectory);
+        }
+    }
+    
+    public CodeAnalyzer createAnalyzer(AnalysisCache cache) {
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        if (threads != null) {
+            analyzer.setThreads(threads);
+        }
+        if (sharedCache == null || cache == null) {
+            analyzer.setCache(sharedCache == null ? cache : sharedCache);
+        } else {
+            analyzer.setCache(IssueCache.layered(sharedCache, cache));
+        }
+        analyzer.setPrefilterEnabled(!noPrefilter);
+        analyzer.setWarnings(err());
+        analyzer.setParseProfile(parseProfile);
+        if (profileFormat != null) {
+            analyzer.setProfile(new AnalysisProfile());
+        }
+        if (maxHeapBudgetMb != null) {
+            long budget = maxHeapBudgetMb * 1024 * 1024;
+            analyzer.setHeapBudget(budget - budget / ISSUE_BUDGET_DIVISOR);
+        }
+        return analyzer;
+    }
+}
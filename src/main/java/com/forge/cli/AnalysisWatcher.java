@@ -0,0 +1,222 @@
+package com.forge.cli;
+
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Re-analyzes files as they change and prints which issues appeared or
+ * disappeared. The results of every file are kept in memory, so each round
+ * only reads the files touched since the previous one.
+ * <p>
+ * Before {@link #watch()} is called, the watcher is used as the listener of
+ * the initial full analysis to record those results.
+ */
+class AnalysisWatcher implements IssueListener {
+    // Editors often write a file in several steps; wait for a quiet period,
+    // but never longer than the maximum delay while events keep coming
+    private static final long DEBOUNCE_MILLIS = 50;
+    private static final long MAX_DELAY_MILLIS = 1000;
+    
+    private final CodeAnalyzer analyzer;
+    private final Path path;
+    private final Predicate<Path> sources;
+    private final PrintWriter out;
+    private final Map<Path, List<Issue>> results = new HashMap<>();
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    
+    AnalysisWatcher(CodeAnalyzer analyzer, Path path, String language, PrintWriter out) {
+        this.analyzer = analyzer;
+        this.path = path;
+        this.sources = analyzer.sources(language);
+        this.out = out;
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        results.put(file.getFile(), file.getIssues());
+    }
+    
+    /**
+     * Watches until the thread is interrupted or the process is stopped.
+     */
+    void watch() throws IOException, InterruptedException {
+        boolean directory = Files.isDirectory(path);
+        try (WatchService service = path.getFileSystem().newWatchService()) {
+            if (directory) {
+                registerTree(service, path);
+            } else {
+                register(service, path.toAbsolutePath().getParent());
+            }
+            out.println();
+            out.println("👀 Watching " + path + " for changes (Ctrl+C to stop)");
+            out.flush();
+            
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(service, service.take(), changed);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS);
+                WatchKey key;
+                while (System.nanoTime() < deadline
+                        && (key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(service, key, changed);
+                }
+                
+                if (overflow) {
+                    // Events were lost, so every known and current file is suspect
+                    changed.addAll(results.keySet());
+                    changed.addAll(directory ? sourcesUnder(path) : List.of(path));
+                }
+                if (!changed.isEmpty()) {
+                    update(changed);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Stopped from another thread
+        }
+    }
+    
+    private boolean collect(WatchService service, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = directories.get(key);
+        boolean overflow = false;
+        
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path child = directory.resolve((Path) event.context());
+            
+            if (isTracked(child)) {
+                // In single file mode, keep the path as it was given on the command line
+                changed.add(Files.isDirectory(path) ? child : path);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // A deleted or moved directory only reports itself, not its files
+                for (Path known : results.keySet()) {
+                    if (known.startsWith(child)) {
+                        changed.add(known);
+                    }
+                }
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child) && Files.isDirectory(path)) {
+                registerTree(service, child);
+                changed.addAll(sourcesUnder(child));
+            }
+        }
+        
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+    
+    private void update(Set<Path> changed) throws IOException {
+        long start = System.nanoTime();
+        List<Path> existing = changed.stream().filter(Files::isRegularFile).toList();
+        Map<Path, List<Issue>> fresh = new HashMap<>();
+        analyzer.analyzeFiles(existing, file -> fresh.put(file.getFile(), file.getIssues()));
+        
+        List<Issue> added = new ArrayList<>();
+        List<Issue> removed = new ArrayList<>();
+        for (Path file : changed) {
+            List<Issue> before = results.getOrDefault(file, List.of());
+            List<Issue> after = fresh.getOrDefault(file, List.of());
+            
+            // Compared as multisets, since one file can report the same issue twice
+            List<Issue> remaining = new ArrayList<>(before);
+            for (Issue issue : after) {
+                if (!remaining.remove(issue)) {
+                    added.add(issue);
+                }
+            }
+            removed.addAll(remaining);
+            
+            if (fresh.containsKey(file)) {
+                results.put(file, after);
+            } else {
+                results.remove(file);
+            }
+        }
+        
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        out.println();
+        out.println("🔄 " + changed.size() + (changed.size() == 1 ? " file" : " files")
+            + " re-analyzed in " + elapsedMillis + " ms");
+        if (added.isEmpty() && removed.isEmpty()) {
+            out.println("  No change in issues");
+        }
+        for (Issue issue : removed) {
+            out.println("  - " + issue.getDescription() + " at " + issue.getLocation() + " (" + issue.getSeverity() + ")");
+        }
+        for (Issue issue : added) {
+            out.println("  + " + issue.getDescription() + " at " + issue.getLocation() + " (" + issue.getSeverity() + ")");
+        }
+        out.println("Issues found: " + totalIssues() + " (+" + added.size() + ", -" + removed.size() + ")");
+        out.flush();
+    }
+    
+    private int totalIssues() {
+        int total = 0;
+        for (List<Issue> issues : results.values()) {
+            total += issues.size();
+        }
+        return total;
+    }
+    
+    private boolean isTracked(Path file) {
+        if (Files.isDirectory(path)) {
+            return file.startsWith(path) && sources.test(file);
+        }
+        return file.toAbsolutePath().normalize().equals(path.toAbsolutePath().normalize());
+    }
+    
+    private void registerTree(WatchService service, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(service, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+    
+    private void register(WatchService service, Path dir) throws IOException {
+        WatchKey key = dir.register(service,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+        directories.put(key, dir);
+    }
+    
+    private List<Path> sourcesUnder(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> sources.test(p) && Files.isRegularFile(p)).toList();
+        }
+    }
+}
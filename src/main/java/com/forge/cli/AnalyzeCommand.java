@@ -1,9 +1,17 @@
 package com.forge.cli;
 
+import com.forge.analyzer.Baseline;
 import com.forge.analyzer.CodeAnalyzer;
-import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.Shard;
+import com.forge.analyzer.cache.AnalysisCache;
+import com.forge.analyzer.cache.IssueCache;
+import com.forge.analyzer.cache.MemoryCache;
 import picocli.CommandLine;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.Callable;
 
@@ -12,41 +20,120 @@ import java.util.concurrent.Callable;
     description = "Analyze code for inefficient patterns"
 )
 public class AnalyzeCommand implements Callable<Integer> {
+    private static final int WATCH_CACHE_ENTRIES = 100_000;
     
     @CommandLine.Parameters(index = "0", description = "Path to the code to analyze")
     private Path path;
     
-    @CommandLine.Option(names = {"--lang", "-l"}, description = "Programming language", defaultValue = "java")
-    private String language;
+    @CommandLine.Mixin
+    private AnalysisOptions analysisOptions;
+    
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json, ndjson or sarif", defaultValue = "text")
+    private OutputFormat outputFormat;
+    
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Option(names = "--watch", description = "Keep running and print added and removed issues as files change")
+    private boolean watch;
+    
+    @CommandLine.Option(names = "--baseline", paramLabel = "FILE",
+        description = "Only report issues that are not in the baseline FILE")
+    private Path baselineFile;
+    
+    @CommandLine.Option(names = "--write-baseline",
+        description = "Record every issue found in the --baseline file instead of filtering by it")
+    private boolean writeBaseline;
+    
+    @CommandLine.Option(names = "--shard", paramLabel = "I/N",
+        description = "Only analyze part I of N, splitting the files by size so the parts take about as long")
+    private String shard;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
     
     @Override
     public Integer call() {
-        try {
-            CodeAnalyzer analyzer = new CodeAnalyzer();
-            AnalysisResult result = analyzer.analyze(path, language);
-            
-            System.out.println("🔍 Analysis Results for " + path);
-            System.out.println("Language: " + language);
-            System.out.println("Files analyzed: " + result.getFilesAnalyzed());
-            System.out.println("Issues found: " + result.getIssues().size());
-            System.out.println();
-            
-            if (result.getIssues().isEmpty()) {
-                System.out.println("✅ No inefficiencies detected!");
+        String language = analysisOptions.getLanguage();
+        try (AnalysisCache cache = analysisOptions.openCache();
+             PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            CodeAnalyzer analyzer = analysisOptions.createAnalyzer(cache);
+            if (watch) {
+                return watch(analyzer, out);
+            }
+            if (writeBaseline && baselineFile == null) {
+                spec.commandLine().getErr().println("❌ Error during analysis: --write-baseline needs --baseline FILE");
+                return 2;
+            }
+            Shard part;
+            try {
+                part = shard == null ? null : Shard.parse(shard);
+            } catch (IllegalArgumentException e) {
+                spec.commandLine().getErr().println("❌ Error during analysis: " + e.getMessage());
+                return 2;
+            }
+            SarifIssueWriter sarif = null;
+            IssueListener listener;
+            if (outputFormat == OutputFormat.JSON) {
+                listener = new JsonIssueWriter(out);
+            } else if (outputFormat == OutputFormat.NDJSON) {
+                listener = new NdjsonIssueWriter(out);
+            } else if (outputFormat == OutputFormat.SARIF) {
+                sarif = new SarifIssueWriter(out, path, null);
+                listener = sarif;
+            } else {
+                listener = new TextIssuePrinter(out, path, language);
+            }
+            Path root = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+            Baseline baseline = null;
+            if (writeBaseline) {
+                baseline = new Baseline(root);
+                listener = IssueListener.tee(baseline, listener);
+            } else if (baselineFile != null) {
+                listener = Baseline.load(baselineFile, root).filter(listener);
+            }
+            if (part == null) {
+                analysisOptions.analyze(analyzer, path, language, listener);
             } else {
-                System.out.println("⚠️  Inefficiencies found:");
-                result.getIssues().forEach(issue -> {
-                    System.out.println("  • " + issue.getDescription());
-                    System.out.println("    Location: " + issue.getLocation());
-                    System.out.println("    Severity: " + issue.getSeverity());
-                    System.out.println();
-                });
+                analysisOptions.analyzeShard(analyzer, path, language, part, listener);
+            }
+            if (sarif != null) {
+                sarif.finish(null);
             }
             
+            if (baseline != null) {
+                baseline.write(baselineFile);
+                spec.commandLine().getErr().println("📌 Baseline of " + baseline.size() + " issues written to " + baselineFile);
+            }
             return 0;
         } catch (Exception e) {
-            System.err.println("❌ Error during analysis: " + e.getMessage());
+            spec.commandLine().getErr().println("❌ Error during analysis: " + e.getMessage());
             return 1;
         }
     }
+    
+    private int watch(CodeAnalyzer analyzer, PrintWriter out) throws IOException, InterruptedException {
+        if (outputFormat != OutputFormat.TEXT) {
+            spec.commandLine().getErr().println("❌ Error during analysis: --watch only supports text output");
+            return 2;
+        }
+        if (baselineFile != null) {
+            spec.commandLine().getErr().println("❌ Error during analysis: --watch does not support --baseline");
+            return 2;
+        }
+        if (shard != null || analysisOptions.getSaveResult() != null) {
+            spec.commandLine().getErr().println("❌ Error during analysis: --watch does not support --shard or --save-result");
+            return 2;
+        }
+        
+        // Saving a file without changing it must not cost a parse
+        MemoryCache memory = new MemoryCache(WATCH_CACHE_ENTRIES);
+        analyzer.setCache(analyzer.getCache() == null ? memory : IssueCache.layered(memory, analyzer.getCache()));
+        
+        String language = analysisOptions.getLanguage();
+        AnalysisWatcher watcher = new AnalysisWatcher(analyzer, path, language, out);
+        analyzer.analyze(path, language, IssueListener.tee(new TextIssuePrinter(out, path, language), watcher));
+        watcher.watch();
+        return 0;
+    }
 }
@@ -1,10 +1,19 @@
 package com.forge.cli;
 
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.cache.AnalysisCache;
 import com.forge.carbon.CarbonEstimator;
+import com.forge.carbon.CostModel;
+import com.forge.carbon.CostNode;
+import com.forge.carbon.CpuProfile;
 import com.forge.carbon.EstimateResult;
 import picocli.CommandLine;
 
+import java.io.PrintWriter;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 @CommandLine.Command(
@@ -12,46 +21,112 @@ import java.util.concurrent.Callable;
     description = "Estimate carbon footprint of code execution"
 )
 public class EstimateCommand implements Callable<Integer> {
+    private static final int HEAVIEST_PACKAGES = 5;
     
     @CommandLine.Parameters(index = "0", description = "Path to the code to analyze")
     private Path path;
     
-    @CommandLine.Option(names = {"--lang", "-l"}, description = "Programming language", defaultValue = "java")
-    private String language;
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json or sarif", defaultValue = "text")
+    private OutputFormat outputFormat;
     
-    @CommandLine.Option(names = {"--output", "-o"}, description = "Output format", defaultValue = "text")
-    private String outputFormat;
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Option(names = "--profile-data", paramLabel = "FILE",
+        description = "CPU samples of the running code, as a JFR recording or collapsed stacks, to weight issues by how much their methods run")
+    private Path profileData;
+    
+    @CommandLine.Mixin
+    private AnalysisOptions analysisOptions;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
     
     @Override
     public Integer call() {
-        try {
-            CarbonEstimator estimator = new CarbonEstimator();
-            EstimateResult result = estimator.estimate(path, language);
+        String unsupported = RenderCommand.unsupported("estimate", outputFormat);
+        if (unsupported != null) {
+            spec.commandLine().getErr().println("❌ Error during carbon estimation: " + unsupported);
+            return 2;
+        }
+        String language = analysisOptions.getLanguage();
+        try (AnalysisCache cache = analysisOptions.openCache();
+             PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            CostModel model = new CostModel(path);
+            SarifIssueWriter sarif = outputFormat == OutputFormat.SARIF ? new SarifIssueWriter(out, path, null) : null;
+            analysisOptions.analyze(analysisOptions.createAnalyzer(cache), path, language,
+                sarif == null ? model : IssueListener.tee(model, sarif));
+            CpuProfile profile = profileData == null ? null : CpuProfile.load(profileData, model.getMethods());
+            EstimateResult result = new CarbonEstimator().estimate(model, profile);
             
-            if ("json".equalsIgnoreCase(outputFormat)) {
-                System.out.println(result.toJson());
+            if (sarif != null) {
+                sarif.finish(result);
+            } else if (outputFormat == OutputFormat.JSON) {
+                result.writeJson(out);
             } else {
-                System.out.println("🌱 Carbon Footprint Estimate for " + path);
-                System.out.println("Language: " + language);
-                System.out.println();
-                System.out.println("📊 Current Estimate:");
-                System.out.println("  • CPU Time: " + String.format("%.2f", result.getEstimatedCpuTimeMs()) + " ms");
-                System.out.println("  • Energy Usage: " + String.format("%.4f", result.getEstimatedEnergyWh()) + " Wh");
-                System.out.println("  • CO₂ Emissions: " + String.format("%.6f", result.getEstimatedCo2Grams()) + " g CO₂");
-                System.out.println();
-                
-                if (result.getPotentialSavings() > 0) {
-                    System.out.println("💚 Potential Savings (with optimizations):");
-                    System.out.println("  • Energy Savings: " + String.format("%.4f", result.getPotentialSavings()) + " Wh");
-                    System.out.println("  • CO₂ Reduction: " + String.format("%.6f", result.getPotentialCo2Reduction()) + " g CO₂");
-                    System.out.println("  • Percentage: " + String.format("%.1f", result.getSavingsPercentage()) + "%");
-                }
+                printText(out, path, language, model, profile, result);
             }
             
             return 0;
         } catch (Exception e) {
-            System.err.println("❌ Error during carbon estimation: " + e.getMessage());
+            spec.commandLine().getErr().println("❌ Error during carbon estimation: " + e.getMessage());
             return 1;
         }
     }
+    
+    static void printText(PrintWriter out, Path path, String language, CostModel model, CpuProfile profile,
+                          EstimateResult result) {
+        out.println("🌱 Carbon Footprint Estimate for " + path);
+        out.println("Language: " + language);
+        out.println();
+        if (profile != null) {
+            printProfileCoverage(out, model, profile);
+        }
+        printEstimate(out, result);
+    }
+    
+    private static void printProfileCoverage(PrintWriter out, CostModel model, CpuProfile profile) {
+        int sampled = model.countIssues(method -> profile.getSamples(method) > 0);
+        out.println("📈 Profile: " + profile.getTotalSamples() + " samples; " + sampled + " of "
+            + model.getIssueCount() + " issues are in methods that ran");
+        out.println();
+    }
+    
+    static void printEstimate(PrintWriter out, EstimateResult result) {
+        out.println("📊 Current Estimate:");
+        out.println("  • CPU Time: " + String.format("%.2f", result.getEstimatedCpuTimeMs()) + " ms");
+        out.println("  • Energy Usage: " + String.format("%.4f", result.getEstimatedEnergyWh()) + " Wh");
+        out.println("  • CO₂ Emissions: " + String.format("%.6f", result.getEstimatedCo2Grams()) + " g CO₂");
+        out.println();
+        
+        if (result.getPotentialSavings() > 0) {
+            out.println("💚 Potential Savings (with optimizations):");
+            out.println("  • Energy Savings: " + String.format("%.4f", result.getPotentialSavings()) + " Wh");
+            out.println("  • CO₂ Reduction: " + String.format("%.6f", result.getPotentialCo2Reduction()) + " g CO₂");
+            out.println("  • Percentage: " + String.format("%.1f", result.getSavingsPercentage()) + "%");
+        }
+        
+        List<CostNode> packages = heaviestPackages(result.getBreakdown());
+        if (!packages.isEmpty()) {
+            out.println();
+            out.println("📦 Heaviest Packages:");
+            for (CostNode pkg : packages) {
+                out.println("  • " + pkg.getName() + ": " + String.format("%.2f", pkg.getCpuTimeMs()) + " ms, "
+                    + String.format("%.4f", pkg.getEnergyWh()) + " Wh (" + pkg.getFileCount() + " files, "
+                    + pkg.getIssueCount() + " issues)");
+            }
+        }
+    }
+    
+    private static List<CostNode> heaviestPackages(CostNode breakdown) {
+        List<CostNode> packages = new ArrayList<>();
+        if (breakdown == null) {
+            return packages;
+        }
+        for (CostNode module : breakdown.getChildren()) {
+            packages.addAll(module.getChildren());
+        }
+        packages.sort(Comparator.comparingDouble(CostNode::getCpuTimeMs).reversed());
+        return packages.subList(0, Math.min(HEAVIEST_PACKAGES, packages.size()));
+    }
 }
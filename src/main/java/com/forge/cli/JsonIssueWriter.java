@@ -0,0 +1,71 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the analysis as one JSON object whose issues stream out file by
+ * file. The counts follow the issues, since they are only known at the end.
+ */
+class JsonIssueWriter implements IssueListener {
+    private final JsonGenerator generator;
+    private int issueCount;
+    private int filesSkipped;
+    
+    JsonIssueWriter(Writer out) throws IOException {
+        this.generator = Json.createGenerator(out);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("issues");
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        if (file.isSkipped()) {
+            filesSkipped++;
+        }
+        if (file.getIssues().isEmpty()) {
+            return;
+        }
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            for (Issue issue : file.getIssues()) {
+                generator.writeObject(issue);
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        issueCount += file.getIssues().size();
+        if (event.shouldCommit()) {
+            event.format = "json";
+            event.content = "issues";
+            event.path = file.getFile().toString();
+            event.issueCount = file.getIssues().size();
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        try {
+            generator.writeEndArray();
+            generator.writeNumberField("issueCount", issueCount);
+            generator.writeNumberField("filesAnalyzed", filesAnalyzed);
+            generator.writeNumberField("filesSkipped", filesSkipped);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.forge.cli;
+
+import com.forge.analyzer.ResultFile;
+import picocli.CommandLine;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(
+    name = "merge",
+    description = "Combine the results of analyze --shard runs into one report"
+)
+public class MergeCommand implements Callable<Integer> {
+    
+    @CommandLine.Parameters(arity = "1..*", paramLabel = "RESULT",
+        description = "Results of every shard, saved with analyze --shard I/N --save-result")
+    private List<Path> results;
+    
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json or sarif", defaultValue = "text")
+    private OutputFormat outputFormat;
+    
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Option(names = "--save-result", paramLabel = "FILE", description = "Also store the merged result in FILE")
+    private Path saveResult;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
+    
+    @Override
+    public Integer call() {
+        String unsupported = RenderCommand.unsupported("report", outputFormat);
+        if (unsupported != null) {
+            spec.commandLine().getErr().println("❌ Error during merge: " + unsupported);
+            return 2;
+        }
+        try (PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            List<ResultFile> shards = new ArrayList<>();
+            for (Path result : results) {
+                shards.add(ResultFile.read(result));
+            }
+            ResultFile merged = ResultFile.merge(shards);
+            if (saveResult != null) {
+                merged.write(saveResult);
+            }
+            
+            RenderCommand.render(out, merged, "report", outputFormat, null);
+            
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().println("❌ Error during merge: " + e.getMessage());
+            return 1;
+        }
+    }
+}
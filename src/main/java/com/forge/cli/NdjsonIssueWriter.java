@@ -0,0 +1,62 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON object per issue and line, flushing after every file so
+ * consumers see results while the analysis is still running.
+ */
+class NdjsonIssueWriter implements IssueListener {
+    private final JsonGenerator generator;
+    
+    NdjsonIssueWriter(Writer out) throws IOException {
+        this.generator = Json.createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            for (Issue issue : file.getIssues()) {
+                generator.writeStartObject();
+                generator.writeStringField("file", file.getFile().toString());
+                generator.writeStringField("description", issue.getDescription());
+                generator.writeStringField("location", issue.getLocation());
+                generator.writeStringField("severity", issue.getSeverity().name());
+                generator.writeStringField("details", issue.getDetails());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (event.shouldCommit()) {
+            event.format = "ndjson";
+            event.content = "issues";
+            event.path = file.getFile().toString();
+            event.issueCount = file.getIssues().size();
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
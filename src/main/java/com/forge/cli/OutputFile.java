@@ -0,0 +1,109 @@
+package com.forge.cli;
+
+import picocli.CommandLine;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The {@code --output-file} option of commands that print results.
+ */
+class OutputFile {
+    
+    @CommandLine.Option(names = "--output-file", paramLabel = "FILE", description = "Write the output to FILE instead of standard output")
+    private Path file;
+    
+    /**
+     * Opens the file to write to, or wraps {@code standardOutput} so that
+     * closing the result only flushes it. A {@link PrintWriter} swallows
+     * write errors, so the file remembers the first one and closing it throws
+     * {@link UncheckedIOException} if there was any.
+     */
+    PrintWriter open(PrintWriter standardOutput) throws IOException {
+        if (file != null) {
+            FailureRecorder target = new FailureRecorder(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            return new PrintWriter(target) {
+                @Override
+                public void close() {
+                    super.close();
+                    if (target.failure != null) {
+                        throw new UncheckedIOException("Could not write " + file + ": " + target.failure.getMessage(),
+                            target.failure);
+                    }
+                }
+            };
+        }
+        return new PrintWriter(new FilterWriter(standardOutput) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        });
+    }
+    
+    private static final class FailureRecorder extends FilterWriter {
+        private IOException failure;
+        
+        FailureRecorder(Writer out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int c) throws IOException {
+            try {
+                super.write(c);
+            } catch (IOException e) {
+                throw recorded(e);
+            }
+        }
+        
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            try {
+                super.write(buffer, offset, length);
+            } catch (IOException e) {
+                throw recorded(e);
+            }
+        }
+        
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            try {
+                super.write(text, offset, length);
+            } catch (IOException e) {
+                throw recorded(e);
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            try {
+                super.flush();
+            } catch (IOException e) {
+                throw recorded(e);
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } catch (IOException e) {
+                throw recorded(e);
+            }
+        }
+        
+        private IOException recorded(IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            return e;
+        }
+    }
+}
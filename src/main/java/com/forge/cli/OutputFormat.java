@@ -0,0 +1,13 @@
+package com.forge.cli;
+
+/**
+ * The formats selected with {@code --output}. Only {@code analyze} and
+ * {@code render --view analyze} write {@link #NDJSON}; the other commands
+ * reject it, see {@link RenderCommand#unsupported}.
+ */
+enum OutputFormat {
+    TEXT,
+    JSON,
+    NDJSON,
+    SARIF
+}
@@ -0,0 +1,117 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.AnalysisProfile;
+import com.forge.json.Json;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Prints an {@link AnalysisProfile} as a table or as a single JSON object
+ * whose times are in nanoseconds.
+ */
+class ProfileReportWriter {
+    enum Format {
+        TEXT,
+        JSON
+    }
+    
+    private static final String ROW = "  %-24s %7d %10.2f %9.3f %9.3f %9.3f%n";
+    private static final String RULE_ROW = "  %-32s %7d %7d %10.2f %9.3f %9.3f %9.3f%n";
+    
+    private final PrintWriter out;
+    
+    ProfileReportWriter(PrintWriter out) {
+        this.out = out;
+    }
+    
+    void writeText(AnalysisProfile profile) {
+        AnalysisProfile.Timer files = profile.getFiles();
+        out.println("⏱️  Analysis profile");
+        out.printf("Elapsed: %.2f ms for %d files%n", millis(profile.getElapsedNanos()), files.getCount());
+        out.println();
+        
+        out.printf("  %-24s %7s %10s %9s %9s %9s%n", "Phase", "Files", "Total ms", "p50 ms", "p99 ms", "Max ms");
+        for (AnalysisProfile.Timer phase : profile.getPhases()) {
+            if (phase.getCount() > 0) {
+                out.printf(ROW, phase.getName(), phase.getCount(), millis(phase.getTotalNanos()),
+                    millis(phase.getPercentileNanos(50)), millis(phase.getPercentileNanos(99)), millis(phase.getMaxNanos()));
+            }
+        }
+        out.printf(ROW, "per file", files.getCount(), millis(files.getTotalNanos()),
+            millis(files.getPercentileNanos(50)), millis(files.getPercentileNanos(99)), millis(files.getMaxNanos()));
+        
+        List<AnalysisProfile.RuleTimer> rules = profile.getRules();
+        if (!rules.isEmpty()) {
+            out.println();
+            out.printf("  %-32s %7s %7s %10s %9s %9s %9s%n", "Rule", "Files", "Issues", "Total ms", "p50 ms", "p99 ms", "Max ms");
+            for (AnalysisProfile.RuleTimer rule : rules) {
+                out.printf(RULE_ROW, rule.getName(), rule.getCount(), rule.getIssues(), millis(rule.getTotalNanos()),
+                    millis(rule.getPercentileNanos(50)), millis(rule.getPercentileNanos(99)), millis(rule.getMaxNanos()));
+            }
+        }
+        
+        List<AnalysisProfile.FileTime> slowest = profile.getSlowestFiles();
+        if (!slowest.isEmpty()) {
+            out.println();
+            out.println("Slowest files:");
+            for (AnalysisProfile.FileTime file : slowest) {
+                out.printf("  %10.2f ms  %s%n", millis(file.nanos()), file.file());
+            }
+        }
+        out.flush();
+    }
+    
+    void writeJson(AnalysisProfile profile) throws IOException {
+        try (JsonGenerator generator = Json.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("elapsedNanos", profile.getElapsedNanos());
+            generator.writeFieldName("files");
+            writeTimer(generator, profile.getFiles());
+            
+            generator.writeArrayFieldStart("phases");
+            for (AnalysisProfile.Timer phase : profile.getPhases()) {
+                writeTimer(generator, phase);
+            }
+            generator.writeEndArray();
+            
+            generator.writeArrayFieldStart("rules");
+            for (AnalysisProfile.RuleTimer rule : profile.getRules()) {
+                writeTimer(generator, rule);
+            }
+            generator.writeEndArray();
+            
+            generator.writeArrayFieldStart("slowestFiles");
+            for (AnalysisProfile.FileTime file : profile.getSlowestFiles()) {
+                generator.writeStartObject();
+                generator.writeStringField("file", file.file().toString());
+                generator.writeNumberField("nanos", file.nanos());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        out.println();
+        out.flush();
+    }
+    
+    private static void writeTimer(JsonGenerator generator, AnalysisProfile.Timer timer) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", timer.getName());
+        generator.writeNumberField("count", timer.getCount());
+        if (timer instanceof AnalysisProfile.RuleTimer rule) {
+            generator.writeNumberField("issues", rule.getIssues());
+        }
+        generator.writeNumberField("totalNanos", timer.getTotalNanos());
+        generator.writeNumberField("p50Nanos", timer.getPercentileNanos(50));
+        generator.writeNumberField("p99Nanos", timer.getPercentileNanos(99));
+        generator.writeNumberField("maxNanos", timer.getMaxNanos());
+        generator.writeEndObject();
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.forge.cli;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.ResultFile;
+import com.forge.carbon.CarbonEstimator;
+import com.forge.carbon.CostModel;
+import com.forge.carbon.CpuProfile;
+import com.forge.carbon.EstimateResult;
+import com.forge.suggestions.OptimizationSuggester;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(
+    name = "render",
+    description = "Print a result stored with --save-result without analyzing the code again"
+)
+public class RenderCommand implements Callable<Integer> {
+    private static final List<String> VIEWS = List.of("analyze", "suggest", "estimate", "report");
+    
+    @CommandLine.Parameters(index = "0", paramLabel = "RESULT", description = "Result stored with --save-result")
+    private Path resultFile;
+    
+    @CommandLine.Option(names = "--view", defaultValue = "report",
+        description = "Output of which command to print: analyze, suggest, estimate or report (default: ${DEFAULT-VALUE})")
+    private String view;
+    
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json, sarif or, for analyze, ndjson",
+        defaultValue = "text")
+    private OutputFormat outputFormat;
+    
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Option(names = "--profile-data", paramLabel = "FILE",
+        description = "CPU samples of the running code to weight the estimate by, as for forge estimate")
+    private Path profileData;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
+    
+    @Override
+    public Integer call() {
+        String unsupported = unsupported(view, outputFormat);
+        if (unsupported != null) {
+            spec.commandLine().getErr().println("❌ Error during rendering: " + unsupported);
+            return 2;
+        }
+        try (PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            render(out, ResultFile.read(resultFile), view, outputFormat, profileData);
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().println("❌ Error during rendering: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Explains why {@code view} cannot be printed as {@code format}, or
+     * returns {@code null} if it can.
+     */
+    static String unsupported(String view, OutputFormat format) {
+        if (!VIEWS.contains(view.toLowerCase())) {
+            return "unknown view " + view + ", expected one of " + String.join(", ", VIEWS);
+        }
+        if (format == OutputFormat.NDJSON && !view.equalsIgnoreCase("analyze")) {
+            return "ndjson output needs --view analyze";
+        }
+        return null;
+    }
+    
+    /**
+     * Prints what {@code view} prints for the stored result, replaying its
+     * issues instead of analyzing.
+     */
+    static void render(PrintWriter out, ResultFile stored, String view, OutputFormat format, Path profileData)
+        throws IOException {
+        AnalysisResult analysis = stored.getResult();
+        Path root = stored.getRoot();
+        String language = stored.getLanguage();
+        boolean json = format == OutputFormat.JSON;
+        boolean sarif = format == OutputFormat.SARIF;
+        
+        switch (view.toLowerCase()) {
+            case "analyze" -> {
+                if (sarif) {
+                    SarifIssueWriter writer = new SarifIssueWriter(out, root, null);
+                    analysis.replay(writer);
+                    writer.finish(null);
+                } else if (json) {
+                    analysis.replay(new JsonIssueWriter(out));
+                } else if (format == OutputFormat.NDJSON) {
+                    analysis.replay(new NdjsonIssueWriter(out));
+                } else {
+                    analysis.replay(new TextIssuePrinter(out, root, language));
+                }
+            }
+            case "suggest" -> {
+                if (sarif) {
+                    SarifIssueWriter writer = new SarifIssueWriter(out, root, new OptimizationSuggester());
+                    analysis.replay(writer);
+                    writer.finish(null);
+                } else if (json) {
+                    analysis.replay(new SuggestionWriter(out));
+                } else {
+                    SuggestCommand.printText(out, root, language, new OptimizationSuggester().suggest(analysis));
+                }
+            }
+            case "estimate" -> {
+                CostModel model = new CostModel(root);
+                SarifIssueWriter writer = sarif ? new SarifIssueWriter(out, root, null) : null;
+                analysis.replay(writer == null ? model : IssueListener.tee(model, writer));
+                CpuProfile profile = profileData == null ? null : CpuProfile.load(profileData, model.getMethods());
+                EstimateResult estimate = new CarbonEstimator().estimate(model, profile);
+                if (writer != null) {
+                    writer.finish(estimate);
+                } else if (json) {
+                    estimate.writeJson(out);
+                } else {
+                    EstimateCommand.printText(out, root, language, model, profile, estimate);
+                }
+            }
+            default -> {
+                CostModel model = new CostModel(root);
+                if (sarif) {
+                    SarifIssueWriter writer = new SarifIssueWriter(out, root, new OptimizationSuggester());
+                    analysis.replay(IssueListener.tee(model, writer));
+                    writer.finish(new CarbonEstimator().estimate(model, null));
+                    return;
+                }
+                analysis.replay(json ? model : IssueListener.tee(new TextIssuePrinter(out, root, language), model));
+                ReportCommand.printReport(out, analysis, model, json);
+            }
+        }
+    }
+}
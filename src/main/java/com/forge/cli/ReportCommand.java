@@ -0,0 +1,128 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.cache.AnalysisCache;
+import com.forge.carbon.CarbonEstimator;
+import com.forge.carbon.CostModel;
+import com.forge.carbon.EstimateResult;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+import com.forge.suggestions.OptimizationSuggester;
+import com.forge.suggestions.Suggestion;
+import com.forge.suggestions.SuggestionResult;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(
+    name = "report",
+    description = "Analyze code once and report issues, suggestions and carbon footprint together"
+)
+public class ReportCommand implements Callable<Integer> {
+    
+    @CommandLine.Parameters(index = "0", description = "Path to the code to analyze")
+    private Path path;
+    
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json or sarif", defaultValue = "text")
+    private OutputFormat outputFormat;
+    
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Mixin
+    private AnalysisOptions analysisOptions;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
+    
+    @Override
+    public Integer call() {
+        String unsupported = RenderCommand.unsupported("report", outputFormat);
+        if (unsupported != null) {
+            spec.commandLine().getErr().println("❌ Error during report generation: " + unsupported);
+            return 2;
+        }
+        String language = analysisOptions.getLanguage();
+        try (AnalysisCache cache = analysisOptions.openCache();
+             PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            if (outputFormat == OutputFormat.SARIF) {
+                // Each result carries its suggestions, so no issue needs to be kept
+                CostModel model = new CostModel(path);
+                SarifIssueWriter sarif = new SarifIssueWriter(out, path, new OptimizationSuggester());
+                analysisOptions.analyze(analysisOptions.createAnalyzer(cache), path, language, IssueListener.tee(model, sarif));
+                sarif.finish(new CarbonEstimator().estimate(model, null));
+                return 0;
+            }
+            boolean json = outputFormat == OutputFormat.JSON;
+            try (AnalysisResult analysis = analysisOptions.createResult()) {
+                CostModel model = new CostModel(path);
+                IssueListener listener = IssueListener.tee(analysis, model);
+                if (!json) {
+                    listener = IssueListener.tee(new TextIssuePrinter(out, path, language), listener);
+                }
+                analysisOptions.analyze(analysisOptions.createAnalyzer(cache), path, language, listener);
+                
+                printReport(out, analysis, model, json);
+            }
+            
+            return 0;
+        } catch (Exception e) {
+            spec.commandLine().getErr().println("❌ Error during report generation: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Prints the suggestions and the carbon estimate, following the issues
+     * printed while the analysis ran, or the whole report as JSON.
+     */
+    static void printReport(PrintWriter out, AnalysisResult analysis, CostModel model, boolean json) throws IOException {
+        EstimateResult estimate = new CarbonEstimator().estimate(model, null);
+        
+        if (json) {
+            SerializationEvent event = new SerializationEvent();
+            event.begin();
+            writeJson(out, analysis, estimate);
+            if (event.shouldCommit()) {
+                event.format = "json";
+                event.content = "report";
+                event.issueCount = analysis.getIssueCount();
+                event.commit();
+            }
+        } else {
+            SuggestionResult suggestions = new OptimizationSuggester().suggest(analysis);
+            out.println();
+            out.println("💡 Optimization Suggestions");
+            SuggestCommand.printSuggestions(out, suggestions);
+            out.println();
+            out.println("🌱 Carbon Footprint Estimate");
+            out.println();
+            EstimateCommand.printEstimate(out, estimate);
+        }
+    }
+    
+    // Suggestions are derived from each issue while writing rather than collected first
+    private static void writeJson(PrintWriter out, AnalysisResult analysis, EstimateResult estimate) throws IOException {
+        OptimizationSuggester suggester = new OptimizationSuggester();
+        try (JsonGenerator generator = Json.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("analysis", analysis);
+            generator.writeArrayFieldStart("suggestions");
+            for (Issue issue : analysis.getIssues()) {
+                for (Suggestion suggestion : suggester.suggest(issue)) {
+                    generator.writeObject(suggestion);
+                }
+            }
+            generator.writeEndArray();
+            generator.writeObjectField("estimate", estimate);
+            generator.writeEndObject();
+        }
+        out.println();
+    }
+}
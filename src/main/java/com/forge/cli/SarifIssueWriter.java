@@ -0,0 +1,222 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.analyzer.RuleId;
+import com.forge.analyzer.Severity;
+import com.forge.carbon.EstimateResult;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+import com.forge.suggestions.OptimizationSuggester;
+import com.forge.suggestions.Suggestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes issues as a SARIF 2.1.0 log, with one run whose results stream out
+ * file by file. File locations are relative to the analyzed directory, which
+ * the log names as {@code SRCROOT}, so code scanning tools can map them to
+ * any checkout. Suggestions are attached to the properties of each result
+ * and an estimate to those of the run; the log ends with {@link #finish}.
+ */
+class SarifIssueWriter implements IssueListener {
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String ROOT_ID = "SRCROOT";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    
+    private final JsonGenerator generator;
+    private final Path root;
+    private final OptimizationSuggester suggester;
+    private int filesAnalyzed;
+    
+    /**
+     * Starts the log for the analysis of {@code path}, attaching the
+     * suggestions of {@code suggester} to each result unless it is null.
+     */
+    SarifIssueWriter(Writer out, Path path, OptimizationSuggester suggester) throws IOException {
+        this.suggester = suggester;
+        Path absolute = path.toAbsolutePath().normalize();
+        this.root = Files.isDirectory(absolute) || absolute.getParent() == null ? absolute : absolute.getParent();
+        this.generator = Json.createGenerator(out);
+        generator.writeStartObject();
+        generator.writeStringField("$schema", SCHEMA);
+        generator.writeStringField("version", "2.1.0");
+        generator.writeArrayFieldStart("runs");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("tool");
+        generator.writeObjectFieldStart("driver");
+        generator.writeStringField("name", "forge");
+        generator.writeArrayFieldStart("rules");
+        for (RuleId rule : RuleId.builtIn()) {
+            generator.writeStartObject();
+            generator.writeStringField("id", rule.getId());
+            generator.writeObjectFieldStart("shortDescription");
+            generator.writeStringField("text", rule.getDescription());
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("defaultConfiguration");
+            generator.writeStringField("level", level(rule.getSeverity()));
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeObjectFieldStart("originalUriBaseIds");
+        generator.writeObjectFieldStart(ROOT_ID);
+        generator.writeStringField("uri", root.toUri().toString());
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("results");
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        if (file.getIssues().isEmpty()) {
+            return;
+        }
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            Path absolute = file.getFile().toAbsolutePath().normalize();
+            boolean relative = absolute.startsWith(root);
+            String uri = relative ? relativeUri(root.relativize(absolute)) : absolute.toUri().toString();
+            for (Issue issue : file.getIssues()) {
+                writeResult(issue, uri, relative);
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (event.shouldCommit()) {
+            event.format = "sarif";
+            event.content = "issues";
+            event.path = file.getFile().toString();
+            event.issueCount = file.getIssues().size();
+            event.commit();
+        }
+    }
+    
+    private void writeResult(Issue issue, String uri, boolean relative) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("ruleId", issue.getRule().getId());
+        // Only the built-in rules are described in the driver
+        int ruleIndex = RuleId.builtIn().indexOf(issue.getRule());
+        if (ruleIndex >= 0) {
+            generator.writeNumberField("ruleIndex", ruleIndex);
+        }
+        generator.writeStringField("level", level(issue.getSeverity()));
+        generator.writeObjectFieldStart("message");
+        generator.writeStringField("text", issue.getDescription() + ": " + issue.getDetails());
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("locations");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("physicalLocation");
+        generator.writeObjectFieldStart("artifactLocation");
+        generator.writeStringField("uri", uri);
+        if (relative) {
+            generator.writeStringField("uriBaseId", ROOT_ID);
+        }
+        generator.writeEndObject();
+        if (issue.getLine() > 0) {
+            generator.writeObjectFieldStart("region");
+            generator.writeNumberField("startLine", issue.getLine());
+            if (issue.getColumn() > 0) {
+                generator.writeNumberField("startColumn", issue.getColumn());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        if (issue.getMethod() != null) {
+            generator.writeArrayFieldStart("logicalLocations");
+            generator.writeStartObject();
+            generator.writeStringField("fullyQualifiedName", issue.getMethod());
+            generator.writeStringField("kind", "function");
+            generator.writeEndObject();
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        generator.writeEndArray();
+        if (suggester != null) {
+            List<Suggestion> suggestions = suggester.suggest(issue);
+            if (!suggestions.isEmpty()) {
+                generator.writeObjectFieldStart("properties");
+                generator.writeObjectField("suggestions", suggestions);
+                generator.writeEndObject();
+            }
+        }
+        generator.writeEndObject();
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        this.filesAnalyzed = filesAnalyzed;
+        try {
+            generator.writeEndArray();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Ends the log once the analysis is complete, adding {@code estimate} to
+     * the run's properties unless it is null.
+     */
+    void finish(EstimateResult estimate) throws IOException {
+        generator.writeObjectFieldStart("properties");
+        generator.writeNumberField("filesAnalyzed", filesAnalyzed);
+        if (estimate != null) {
+            generator.writeObjectField("estimate", estimate);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        generator.close();
+    }
+    
+    /**
+     * The URI reference of {@code path} relative to the root, with every
+     * byte of a name outside the unreserved characters of RFC 3986
+     * percent-encoded, so that names with spaces, {@code %}, {@code #} or
+     * {@code :} resolve to the file itself.
+     */
+    static String relativeUri(Path path) {
+        StringBuilder uri = new StringBuilder();
+        for (Path name : path) {
+            if (uri.length() > 0) {
+                uri.append('/');
+            }
+            for (byte b : name.toString().getBytes(StandardCharsets.UTF_8)) {
+                char c = (char) (b & 0xff);
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '.' || c == '_' || c == '~') {
+                    uri.append(c);
+                } else {
+                    uri.append('%').append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                }
+            }
+        }
+        return uri.toString();
+    }
+    
+    private static String level(Severity severity) {
+        switch (severity) {
+            case HIGH:
+                return "error";
+            case MEDIUM:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+}
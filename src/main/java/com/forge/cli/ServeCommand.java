@@ -0,0 +1,241 @@
+package com.forge.cli;
+
+import com.forge.ForgeMain;
+import com.forge.analyzer.cache.IssueCache;
+import com.forge.analyzer.cache.MemoryCache;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps one JVM running so repeated checks skip startup, class loading and
+ * JIT warm-up, and reuses per-file results between requests.
+ * <p>
+ * Each connection carries one request: a line with the client's working
+ * directory followed by the command line arguments, all separated by tabs.
+ * The daemon runs the command as {@code forge} would, streams its output and
+ * error text back, ends with a {@value #EXIT_PREFIX} line holding the exit
+ * code and closes the connection.
+ * <p>
+ * A TCP port can be reached by any local user, so connections to it must
+ * first send a line with the token from {@code --token-file}, which only the
+ * daemon's user may read.
+ */
+@CommandLine.Command(
+    name = "serve",
+    description = "Run a daemon that answers analyze, suggest, estimate and report requests over a local socket"
+)
+public class ServeCommand implements Callable<Integer> {
+    static final String EXIT_PREFIX = "forge-exit: ";
+    
+    @CommandLine.ArgGroup(exclusive = true)
+    private Endpoint endpoint;
+    
+    @CommandLine.Option(names = "--max-cached-files", defaultValue = "100000",
+        description = "Files whose results are kept in memory between requests (default: ${DEFAULT-VALUE})")
+    private int maxCachedFiles;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
+    
+    static class Endpoint {
+        @CommandLine.Option(names = "--socket", paramLabel = "PATH",
+            description = "Unix domain socket to listen on (default: forge-<user>.sock in the temp directory)")
+        Path socket;
+        
+        @CommandLine.Option(names = "--port", description = "Listen on this localhost TCP port instead of a socket, "
+            + "for clients that send the token of --token-file first")
+        Integer port;
+    }
+    
+    @CommandLine.Option(names = "--token-file", paramLabel = "FILE",
+        description = "File holding the token that clients of --port must send, readable only by its owner")
+    private Path tokenFile;
+    
+    static Path defaultSocket() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "forge-" + System.getProperty("user.name") + ".sock");
+    }
+    
+    @Override
+    public Integer call() {
+        PrintWriter out = spec.commandLine().getOut();
+        MemoryCache cache = new MemoryCache(maxCachedFiles);
+        byte[] token = null;
+        if (endpoint != null && endpoint.port != null) {
+            try {
+                token = readToken();
+            } catch (IOException e) {
+                spec.commandLine().getErr().println("❌ Error running daemon: " + e.getMessage());
+                return 2;
+            }
+        }
+        byte[] requiredToken = token;
+        
+        try (ServerSocketChannel server = bind();
+             ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor()) {
+            out.println("🔥 Forge daemon listening on " + server.getLocalAddress());
+            out.flush();
+            
+            while (true) {
+                SocketChannel client = server.accept();
+                connections.submit(() -> handle(client, cache, requiredToken));
+            }
+        } catch (Exception e) {
+            spec.commandLine().getErr().println("❌ Error running daemon: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    private ServerSocketChannel bind() throws IOException {
+        if (endpoint != null && endpoint.port != null) {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), endpoint.port));
+            return server;
+        }
+        
+        Path socket = endpoint != null ? endpoint.socket : defaultSocket();
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(socket);
+        if (Files.exists(socket)) {
+            if (isListening(address)) {
+                throw new IOException("Another daemon is already listening on " + socket);
+            }
+            // Left behind by a daemon that was killed
+            Files.delete(socket);
+        }
+        
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(address);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.deleteIfExists(socket);
+            } catch (IOException e) {
+                // Nothing left to do while shutting down
+            }
+        }));
+        return server;
+    }
+    
+    private byte[] readToken() throws IOException {
+        if (tokenFile == null) {
+            throw new IOException("--port needs --token-file FILE, readable only by its owner");
+        }
+        PosixFileAttributeView view = Files.getFileAttributeView(tokenFile, PosixFileAttributeView.class);
+        if (view == null) {
+            throw new IOException("Cannot check who may read " + tokenFile + " on this file system");
+        }
+        Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+        for (PosixFilePermission permission : permissions) {
+            if (!permission.name().startsWith("OWNER_")) {
+                throw new IOException(tokenFile + " must be readable only by its owner, but has permissions "
+                    + PosixFilePermissions.toString(permissions));
+            }
+        }
+        String token = Files.readString(tokenFile, StandardCharsets.UTF_8).strip();
+        if (token.isEmpty()) {
+            throw new IOException(tokenFile + " holds no token");
+        }
+        return token.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static boolean isListening(SocketAddress address) {
+        try (SocketChannel probe = SocketChannel.open(address)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private void handle(SocketChannel client, IssueCache cache, byte[] token) {
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                 Channels.newInputStream(client), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                 Channels.newOutputStream(client), StandardCharsets.UTF_8), true)) {
+            if (token != null) {
+                String line = in.readLine();
+                // Compared in constant time, so the time taken reveals nothing about the token
+                if (line == null || !MessageDigest.isEqual(token, line.strip().getBytes(StandardCharsets.UTF_8))) {
+                    out.println("❌ Error: the request must start with the daemon's token");
+                    out.println(EXIT_PREFIX + 2);
+                    return;
+                }
+            }
+            String request = in.readLine();
+            if (request == null) {
+                return;
+            }
+            String[] fields = request.split("\t", -1);
+            int exitCode = execute(Path.of(fields[0]), Arrays.copyOfRange(fields, 1, fields.length), out, cache);
+            out.println(EXIT_PREFIX + exitCode);
+        } catch (Exception e) {
+            System.err.println("Warning: Could not answer request: " + e.getMessage());
+        }
+    }
+    
+    private int execute(Path workingDirectory, String[] args, PrintWriter out, IssueCache cache) {
+        if (!workingDirectory.isAbsolute()) {
+            out.println("❌ Error: the request must start with an absolute working directory");
+            return 2;
+        }
+        if (args.length > 0 && args[0].equals(spec.name())) {
+            out.println("❌ Error: the daemon cannot start another daemon");
+            return 2;
+        }
+        
+        // Commands keep their parsed options in fields, so every request gets
+        // fresh instances; only the cache is shared
+        CommandLine commandLine = ForgeMain.createCommandLine(args, new SharedCacheFactory(cache, workingDirectory));
+        commandLine.registerConverter(Path.class, value -> {
+            // Standard input and output are the daemon's, not the client's
+            if (value.equals("-")) {
+                throw new CommandLine.TypeConversionException("- cannot be used through the daemon, pass a file instead");
+            }
+            return workingDirectory.resolve(value);
+        });
+        commandLine.setOut(out);
+        commandLine.setErr(out);
+        return commandLine.execute(args);
+    }
+    
+    private static final class SharedCacheFactory implements CommandLine.IFactory {
+        private final IssueCache cache;
+        private final Path workingDirectory;
+        
+        SharedCacheFactory(IssueCache cache, Path workingDirectory) {
+            this.cache = cache;
+            this.workingDirectory = workingDirectory;
+        }
+        
+        @Override
+        public <K> K create(Class<K> type) throws Exception {
+            if (type == AnalysisOptions.class) {
+                return type.cast(new AnalysisOptions(cache, workingDirectory));
+            }
+            return CommandLine.defaultFactory().create(type);
+        }
+    }
+}
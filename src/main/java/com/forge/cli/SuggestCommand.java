@@ -1,9 +1,13 @@
 package com.forge.cli;
 
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.analyzer.cache.AnalysisCache;
 import com.forge.suggestions.OptimizationSuggester;
 import com.forge.suggestions.SuggestionResult;
 import picocli.CommandLine;
 
+import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.util.concurrent.Callable;
 
@@ -16,46 +20,72 @@ public class SuggestCommand implements Callable<Integer> {
     @CommandLine.Parameters(index = "0", description = "Path to the code to analyze")
     private Path path;
     
-    @CommandLine.Option(names = {"--lang", "-l"}, description = "Programming language", defaultValue = "java")
-    private String language;
+    @CommandLine.Option(names = {"--output", "-o"}, paramLabel = "FORMAT", description = "Output format: text, json or sarif", defaultValue = "text")
+    private OutputFormat outputFormat;
     
-    @CommandLine.Option(names = {"--output", "-o"}, description = "Output format", defaultValue = "text")
-    private String outputFormat;
+    @CommandLine.Mixin
+    private OutputFile outputFile;
+    
+    @CommandLine.Mixin
+    private AnalysisOptions analysisOptions;
+    
+    @CommandLine.Spec
+    private CommandLine.Model.CommandSpec spec;
     
     @Override
     public Integer call() {
-        try {
-            OptimizationSuggester suggester = new OptimizationSuggester();
-            SuggestionResult result = suggester.suggest(path, language);
-            
-            if ("json".equalsIgnoreCase(outputFormat)) {
-                System.out.println(result.toJson());
+        String unsupported = RenderCommand.unsupported("suggest", outputFormat);
+        if (unsupported != null) {
+            spec.commandLine().getErr().println("❌ Error during suggestion generation: " + unsupported);
+            return 2;
+        }
+        String language = analysisOptions.getLanguage();
+        try (AnalysisCache cache = analysisOptions.openCache();
+             PrintWriter out = outputFile.open(spec.commandLine().getOut())) {
+            CodeAnalyzer analyzer = analysisOptions.createAnalyzer(cache);
+            if (outputFormat == OutputFormat.JSON) {
+                // Suggestions only depend on their issue, so they are written as files finish
+                analysisOptions.analyze(analyzer, path, language, new SuggestionWriter(out));
+            } else if (outputFormat == OutputFormat.SARIF) {
+                SarifIssueWriter sarif = new SarifIssueWriter(out, path, new OptimizationSuggester());
+                analysisOptions.analyze(analyzer, path, language, sarif);
+                sarif.finish(null);
             } else {
-                System.out.println("💡 Optimization Suggestions for " + path);
-                System.out.println("Language: " + language);
-                System.out.println("Suggestions found: " + result.getSuggestions().size());
-                System.out.println();
-                
-                if (result.getSuggestions().isEmpty()) {
-                    System.out.println("✅ No optimization suggestions available!");
-                } else {
-                    result.getSuggestions().forEach(suggestion -> {
-                        System.out.println("🔧 " + suggestion.getTitle());
-                        System.out.println("   Description: " + suggestion.getDescription());
-                        System.out.println("   Location: " + suggestion.getLocation());
-                        System.out.println("   Impact: " + suggestion.getImpact());
-                        System.out.println("   Example:");
-                        System.out.println("     Before: " + suggestion.getBeforeExample());
-                        System.out.println("     After:  " + suggestion.getAfterExample());
-                        System.out.println();
-                    });
+                try (AnalysisResult analysis = analysisOptions.analyze(analyzer, path, language)) {
+                    printText(out, path, language, new OptimizationSuggester().suggest(analysis));
                 }
             }
             
             return 0;
         } catch (Exception e) {
-            System.err.println("❌ Error during suggestion generation: " + e.getMessage());
+            spec.commandLine().getErr().println("❌ Error during suggestion generation: " + e.getMessage());
             return 1;
         }
     }
+    
+    static void printText(PrintWriter out, Path path, String language, SuggestionResult result) {
+        out.println("💡 Optimization Suggestions for " + path);
+        out.println("Language: " + language);
+        printSuggestions(out, result);
+    }
+    
+    static void printSuggestions(PrintWriter out, SuggestionResult result) {
+        out.println("Suggestions found: " + result.getSuggestions().size());
+        out.println();
+        
+        if (result.getSuggestions().isEmpty()) {
+            out.println("✅ No optimization suggestions available!");
+        } else {
+            result.getSuggestions().forEach(suggestion -> {
+                out.println("🔧 " + suggestion.getTitle());
+                out.println("   Description: " + suggestion.getDescription());
+                out.println("   Location: " + suggestion.getLocation());
+                out.println("   Impact: " + suggestion.getImpact());
+                out.println("   Example:");
+                out.println("     Before: " + suggestion.getBeforeExample());
+                out.println("     After:  " + suggestion.getAfterExample());
+                out.println();
+            });
+        }
+    }
 }
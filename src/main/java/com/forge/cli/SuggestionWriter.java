@@ -0,0 +1,68 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
+import com.forge.suggestions.OptimizationSuggester;
+import com.forge.suggestions.Suggestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes the suggestions for each file's issues as soon as the file is
+ * analyzed, in the same document {@code SuggestionResult.toJson()} produces,
+ * so suggesting for a large codebase does not keep its issues.
+ */
+class SuggestionWriter implements IssueListener {
+    private final JsonGenerator generator;
+    private final OptimizationSuggester suggester = new OptimizationSuggester();
+    
+    SuggestionWriter(Writer out) throws IOException {
+        this.generator = Json.createGenerator(out);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("suggestions");
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        if (file.getIssues().isEmpty()) {
+            return;
+        }
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        try {
+            for (Issue issue : file.getIssues()) {
+                for (Suggestion suggestion : suggester.suggest(issue)) {
+                    generator.writeObject(suggestion);
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (event.shouldCommit()) {
+            event.format = "json";
+            event.content = "suggestions";
+            event.path = file.getFile().toString();
+            event.issueCount = file.getIssues().size();
+            event.commit();
+        }
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
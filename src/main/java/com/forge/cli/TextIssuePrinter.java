@@ -0,0 +1,54 @@
+package com.forge.cli;
+
+import com.forge.analyzer.FileResult;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.IssueListener;
+
+import java.io.PrintWriter;
+import java.nio.file.Path;
+
+/**
+ * Prints issues as soon as each file is analyzed and the totals once the
+ * analysis has finished.
+ */
+class TextIssuePrinter implements IssueListener {
+    private final PrintWriter out;
+    private int issuesFound;
+    private int filesSkipped;
+    
+    TextIssuePrinter(PrintWriter out, Path path, String language) {
+        this.out = out;
+        out.println("🔍 Analysis Results for " + path);
+        out.println("Language: " + language);
+        out.println();
+    }
+    
+    @Override
+    public void onFile(FileResult file) {
+        if (file.isSkipped()) {
+            filesSkipped++;
+        }
+        for (Issue issue : file.getIssues()) {
+            if (issuesFound++ == 0) {
+                out.println("⚠️  Inefficiencies found:");
+            }
+            out.println("  • " + issue.getDescription());
+            out.println("    Location: " + issue.getLocation());
+            out.println("    Severity: " + issue.getSeverity());
+            out.println();
+        }
+    }
+    
+    @Override
+    public void onComplete(int filesAnalyzed) {
+        if (issuesFound == 0) {
+            out.println("✅ No inefficiencies detected!");
+            out.println();
+        }
+        out.println("Files analyzed: " + filesAnalyzed);
+        if (filesSkipped > 0) {
+            out.println("Files ruled out without parsing: " + filesSkipped);
+        }
+        out.println("Issues found: " + issuesFound);
+    }
+}
@@ -0,0 +1,20 @@
+package com.forge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.forge.Estimate")
+@Label("Carbon Estimate")
+@Category({"Forge", "Estimation"})
+@Description("Estimating the carbon footprint of an analysis")
+@StackTrace(false)
+public class EstimateEvent extends jdk.jfr.Event {
+    @Label("Files")
+    public int fileCount;
+    
+    @Label("Issues")
+    public int issueCount;
+}
@@ -0,0 +1,26 @@
+package com.forge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading one source file. Like all Forge events it is only committed while a
+ * recording has it enabled; otherwise creating and timing it is optimized away.
+ */
+@Name("com.forge.FileRead")
+@Label("File Read")
+@Category({"Forge", "Analysis"})
+@Description("Reading a source file before analysis")
+@StackTrace(false)
+public class FileReadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+    
+    @Label("Size")
+    @DataAmount
+    public long size;
+}
@@ -0,0 +1,25 @@
+package com.forge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.forge.Parse")
+@Label("Parse")
+@Category({"Forge", "Analysis"})
+@Description("Parsing a source file into a syntax tree")
+@StackTrace(false)
+public class ParseEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+    
+    @Label("Size")
+    @DataAmount
+    public long size;
+    
+    @Label("Successful")
+    public boolean successful;
+}
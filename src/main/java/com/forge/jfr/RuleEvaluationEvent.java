@@ -0,0 +1,26 @@
+package com.forge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.forge.RuleEvaluation")
+@Label("Rule Evaluation")
+@Category({"Forge", "Analysis"})
+@Description("Running the enabled rules over one file's syntax tree")
+@StackTrace(false)
+public class RuleEvaluationEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+    
+    @Label("Rules")
+    public int ruleCount;
+    
+    @Label("Nodes")
+    public int nodeCount;
+    
+    @Label("Issues")
+    public int issueCount;
+}
@@ -0,0 +1,35 @@
+package com.forge.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Writing results as JSON: either the output for one file of a stream, in
+ * which case {@link #path} is set, or a whole document.
+ */
+@Name("com.forge.Serialization")
+@Label("Serialization")
+@Category({"Forge", "Output"})
+@Description("Writing analysis results as JSON")
+@StackTrace(false)
+public class SerializationEvent extends jdk.jfr.Event {
+    @Label("Format")
+    public String format;
+    
+    @Label("Content")
+    @Description("What was written: issues, suggestions, estimate or report")
+    public String content;
+    
+    @Label("Path")
+    public String path;
+    
+    @Label("Issues")
+    public int issueCount;
+    
+    @Label("Characters")
+    @Description("Length of the written text, where it is known")
+    public long length;
+}
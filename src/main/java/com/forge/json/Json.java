@@ -0,0 +1,32 @@
+package com.forge.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The Jackson configuration shared by all JSON output. A mapper caches the
+ * serializers it builds, so one instance serves every command and thread,
+ * and writing through it never closes the target, which is usually standard
+ * output or a client connection.
+ */
+public final class Json {
+    public static final ObjectMapper MAPPER = new ObjectMapper(JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .build());
+    
+    private Json() {
+    }
+    
+    /**
+     * Creates a generator that writes to {@code out} as values are added and
+     * can write whole objects with {@link #MAPPER}.
+     */
+    public static JsonGenerator createGenerator(Writer out) throws IOException {
+        return MAPPER.getFactory().createGenerator(out);
+    }
+}
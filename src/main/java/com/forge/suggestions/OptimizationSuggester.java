@@ -3,6 +3,8 @@ package com.forge.suggestions;
 import com.forge.analyzer.CodeAnalyzer;
 import com.forge.analyzer.AnalysisResult;
 import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+import com.forge.analyzer.frontend.LanguageFrontend;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -10,58 +12,106 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class OptimizationSuggester {
+    private static final List<LanguageFrontend> FRONTENDS = LanguageFrontend.defaults();
     
     public SuggestionResult suggest(Path path, String language) throws IOException {
         CodeAnalyzer analyzer = new CodeAnalyzer();
-        AnalysisResult analysis = analyzer.analyze(path, language);
-        
+        return suggest(analyzer.analyze(path, language));
+    }
+    
+    public SuggestionResult suggest(AnalysisResult analysis) {
         List<Suggestion> suggestions = new ArrayList<>();
         
         for (Issue issue : analysis.getIssues()) {
-            suggestions.addAll(generateSuggestionsForIssue(issue));
+            suggestions.addAll(suggest(issue));
         }
         
         return new SuggestionResult(suggestions);
     }
     
-    private List<Suggestion> generateSuggestionsForIssue(Issue issue) {
+    /**
+     * The suggestions for a single issue, so they can be written out while
+     * the analysis is still running. Examples are in the language of the
+     * issue's file.
+     */
+    public List<Suggestion> suggest(Issue issue) {
         List<Suggestion> suggestions = new ArrayList<>();
         
-        switch (issue.getDescription()) {
-            case "Deep nested loops detected":
-                suggestions.add(new Suggestion(
-                    "Use divide-and-conquer algorithm",
-                    "Replace nested loops with a more efficient algorithm like divide-and-conquer",
+        RuleId rule = issue.getRule();
+        String language = languageOf(issue);
+        if (rule.equals(RuleId.NESTED_LOOPS)) {
+            suggestions.add(new Suggestion(
+                "Use divide-and-conquer algorithm",
+                "Replace nested loops with a more efficient algorithm like divide-and-conquer",
+                issue.getLocation(),
+                "HIGH",
+                switch (language) {
+                    case "python" -> "for i in range(n):\n    for j in range(n):\n        for k in range(n):\n            # O(n³) complexity";
+                    case "javascript" -> "for (let i = 0; i < n; i++) {\n  for (let j = 0; j < n; j++) {\n    for (let k = 0; k < n; k++) {\n      // O(n³) complexity\n    }\n  }\n}";
+                    default -> "for (int i = 0; i < n; i++) {\n  for (int j = 0; j < n; j++) {\n    for (int k = 0; k < n; k++) {\n      // O(n³) complexity\n    }\n  }\n}";
+                },
+                switch (language) {
+                    case "python" -> "# Use divide-and-conquer or dynamic programming\n# Example: Merge sort, Quick sort, or matrix multiplication algorithms";
+                    default -> "// Use divide-and-conquer or dynamic programming\n// Example: Merge sort, Quick sort, or matrix multiplication algorithms";
+                }
+            ));
+        } else if (rule.equals(RuleId.STRING_CONCATENATION_IN_LOOP)) {
+            suggestions.add(switch (language) {
+                case "python" -> new Suggestion(
+                    "Use str.join for string concatenation",
+                    "Collect the parts in a list and join them once to avoid creating multiple string objects",
                     issue.getLocation(),
-                    "HIGH",
-                    "for (int i = 0; i < n; i++) {\n  for (int j = 0; j < n; j++) {\n    for (int k = 0; k < n; k++) {\n      // O(n³) complexity\n    }\n  }\n}",
-                    "// Use divide-and-conquer or dynamic programming\n// Example: Merge sort, Quick sort, or matrix multiplication algorithms"
-                ));
-                break;
-                
-            case "String concatenation in loop":
-                suggestions.add(new Suggestion(
+                    "MEDIUM",
+                    "result = \"\"\nfor i in range(n):\n    result += \"item\" + str(i)",
+                    "parts = []\nfor i in range(n):\n    parts.append(\"item\" + str(i))\nresult = \"\".join(parts)"
+                );
+                case "javascript" -> new Suggestion(
+                    "Use Array.join for string concatenation",
+                    "Collect the parts in an array and join them once to avoid creating multiple string objects",
+                    issue.getLocation(),
+                    "MEDIUM",
+                    "let result = \"\";\nfor (let i = 0; i < n; i++) {\n  result += \"item\" + i;\n}",
+                    "const parts = [];\nfor (let i = 0; i < n; i++) {\n  parts.push(\"item\" + i);\n}\nconst result = parts.join(\"\");"
+                );
+                default -> new Suggestion(
                     "Use StringBuilder for string concatenation",
                     "Replace string concatenation with StringBuilder to avoid creating multiple string objects",
                     issue.getLocation(),
                     "MEDIUM",
                     "String result = \"\";\nfor (int i = 0; i < n; i++) {\n  result += \"item\" + i;\n}",
                     "StringBuilder result = new StringBuilder();\nfor (int i = 0; i < n; i++) {\n  result.append(\"item\").append(i);\n}\nString finalResult = result.toString();"
-                ));
-                break;
-                
-            case "Repeated method call detected":
-                suggestions.add(new Suggestion(
-                    "Cache method call results",
-                    "Store the result of expensive method calls in a variable to avoid repeated computation",
-                    issue.getLocation(),
-                    "MEDIUM",
-                    "for (int i = 0; i < n; i++) {\n  process(expensiveCalculation());\n  validate(expensiveCalculation());\n}",
-                    "for (int i = 0; i < n; i++) {\n  String result = expensiveCalculation();\n  process(result);\n  validate(result);\n}"
-                ));
-                break;
+                );
+            });
+        } else if (rule.equals(RuleId.REPEATED_METHOD_CALL)) {
+            suggestions.add(new Suggestion(
+                "Cache method call results",
+                "Store the result of expensive method calls in a variable to avoid repeated computation",
+                issue.getLocation(),
+                "MEDIUM",
+                switch (language) {
+                    case "python" -> "for i in range(n):\n    process(expensive_calculation())\n    validate(expensive_calculation())";
+                    case "javascript" -> "for (let i = 0; i < n; i++) {\n  process(expensiveCalculation());\n  validate(expensiveCalculation());\n}";
+                    default -> "for (int i = 0; i < n; i++) {\n  process(expensiveCalculation());\n  validate(expensiveCalculation());\n}";
+                },
+                switch (language) {
+                    case "python" -> "for i in range(n):\n    result = expensive_calculation()\n    process(result)\n    validate(result)";
+                    case "javascript" -> "for (let i = 0; i < n; i++) {\n  const result = expensiveCalculation();\n  process(result);\n  validate(result);\n}";
+                    default -> "for (int i = 0; i < n; i++) {\n  String result = expensiveCalculation();\n  process(result);\n  validate(result);\n}";
+                }
+            ));
         }
         
         return suggestions;
     }
+    
+    // The frontend that reads the file, which is the first one when no frontend claims its extension
+    private static String languageOf(Issue issue) {
+        Path file = Path.of(issue.getFile());
+        for (LanguageFrontend frontend : FRONTENDS) {
+            if (frontend.accepts(file)) {
+                return frontend.getName();
+            }
+        }
+        return FRONTENDS.get(0).getName();
+    }
 }
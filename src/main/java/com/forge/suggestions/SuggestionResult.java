@@ -1,7 +1,8 @@
 package com.forge.suggestions;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forge.jfr.SerializationEvent;
+import com.forge.json.Json;
 
 import java.util.List;
 
@@ -18,9 +19,17 @@ public class SuggestionResult {
     }
     
     public String toJson() {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.writeValueAsString(this);
+            String json = Json.MAPPER.writeValueAsString(this);
+            if (event.shouldCommit()) {
+                event.format = "json";
+                event.content = "suggestions";
+                event.length = json.length();
+                event.commit();
+            }
+            return json;
         } catch (Exception e) {
             return "{\"error\": \"Failed to serialize to JSON\"}";
         }
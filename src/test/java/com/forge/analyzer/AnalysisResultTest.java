@@ -0,0 +1,109 @@
+package com.forge.analyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisResultTest {
+    
+    @Test
+    void testIssuesAreStoredAndViewedUnchanged() {
+        List<Issue> issues = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            RuleId rule = RuleId.builtIn().get(i % RuleId.builtIn().size());
+            issues.add(new Issue(rule, "src/File" + (i % 7) + ".java", i + 1, i % 5, "details " + i));
+        }
+        
+        AnalysisResult result = new AnalysisResult();
+        result.onFile(new FileResult(Path.of("src/File.java"), issues.subList(0, 60)));
+        result.onFile(new FileResult(Path.of("src/Other.java"), issues.subList(60, 100), true));
+        
+        assertEquals(issues, result.getIssues());
+        assertEquals(100, result.getIssueCount());
+        assertEquals(2, result.getFilesAnalyzed());
+        assertEquals(1, result.getFilesSkipped());
+        assertEquals(RuleId.STRING_CONCATENATION_IN_LOOP, result.getRule(1));
+        assertEquals("src/File3.java:11", result.getIssues().get(10).getLocation());
+        assertEquals(Severity.HIGH, result.getIssues().get(0).getSeverity());
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getRule(100));
+        assertThrows(UnsupportedOperationException.class, () -> result.getIssues().add(issues.get(0)));
+    }
+    
+    @Test
+    void testSpilledIssuesAreReadBackInOrder() throws IOException {
+        Set<Path> spillFiles = spillFiles();
+        List<Issue> issues = new ArrayList<>();
+        AnalysisResult result = new AnalysisResult();
+        result.setMemoryBudget(1);
+        for (int file = 0; file < 100; file++) {
+            List<Issue> fileIssues = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                RuleId rule = RuleId.builtIn().get(i % RuleId.builtIn().size());
+                fileIssues.add(new Issue(rule, "src/Spill" + file + ".java", i + 1, i % 5,
+                    "details " + file + "." + i, i % 2 == 0 ? "Spill.method" + i : null));
+            }
+            issues.addAll(fileIssues);
+            result.onFile(new FileResult(Path.of("src/Spill" + file + ".java"), fileIssues));
+        }
+        
+        assertEquals(15000, result.getIssueCount());
+        assertEquals(issues, result.getIssues());
+        assertEquals(issues.get(4200).getRule(), result.getRule(4200));
+        assertEquals("Spill.method10", result.getMethod(10));
+        assertNull(result.getMethod(14999));
+        List<Issue> replayed = new ArrayList<>();
+        result.replay(file -> replayed.addAll(file.getIssues()));
+        assertEquals(issues, replayed);
+        assertEquals(1, spillFiles().size() - spillFiles.size());
+        
+        result.close();
+        assertEquals(spillFiles, spillFiles());
+        assertThrows(IllegalStateException.class, () -> result.getIssues().get(0));
+        assertThrows(IllegalArgumentException.class, () -> new AnalysisResult().setMemoryBudget(0));
+    }
+    
+    private static Set<Path> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("forge-issues"))
+                .collect(Collectors.toSet());
+        }
+    }
+    
+    @Test
+    void testIssuesCarryLineAndColumn(@TempDir Path tempDir) throws IOException {
+        String code = """
+            public class TestClass {
+                public String join(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                    return result;
+                }
+            }
+            """;
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, code);
+        
+        AnalysisResult result = new CodeAnalyzer().analyze(javaFile, "java");
+        
+        assertEquals(1, result.getIssueCount());
+        Issue issue = result.getIssues().get(0);
+        assertEquals(RuleId.STRING_CONCATENATION_IN_LOOP, issue.getRule());
+        assertEquals(javaFile.toString(), issue.getFile());
+        assertEquals(5, issue.getLine());
+        assertEquals(30, issue.getColumn());
+        assertEquals(javaFile + ":5", issue.getLocation());
+        assertEquals("String concatenation in loop", issue.getDescription());
+    }
+}
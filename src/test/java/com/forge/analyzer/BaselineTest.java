@@ -0,0 +1,80 @@
+package com.forge.analyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineTest {
+    
+    private static final String NEST = """
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        for (int k = 0; k < 10; k++) {
+                            System.out.println(i + j + k);
+                        }
+                    }
+                }
+        """;
+    
+    @Test
+    void testBaselineHidesKnownIssuesAfterLinesShift(@TempDir Path tempDir) throws IOException {
+        Path project = tempDir.resolve("project");
+        Files.createDirectories(project);
+        Files.writeString(project.resolve("Legacy.java"), legacy(""));
+        
+        Baseline recorded = new Baseline(project);
+        new CodeAnalyzer().analyze(project, "java", recorded);
+        Path baselineFile = tempDir.resolve("forge.baseline");
+        recorded.write(baselineFile);
+        assertEquals(2, recorded.size());
+        
+        // Known issues move down and a third copy of the same loops is added
+        Files.writeString(project.resolve("Legacy.java"), "// moved\n\n" + legacy("""
+                public void added() {
+            %s    }
+            """.formatted(NEST)));
+        AnalysisResult result = new AnalysisResult();
+        new CodeAnalyzer().analyze(project, "java", Baseline.load(baselineFile, project).filter(result));
+        
+        assertEquals(1, result.getIssueCount());
+        assertEquals("Legacy.added", result.getMethod(0));
+        assertEquals(1, result.getFilesAnalyzed());
+    }
+    
+    @Test
+    void testBaselineMatchesAnotherCheckout(@TempDir Path tempDir) throws IOException {
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        Files.createDirectories(first);
+        Files.createDirectories(second);
+        Files.writeString(first.resolve("Legacy.java"), legacy(""));
+        Files.writeString(second.resolve("Legacy.java"), legacy(""));
+        
+        Baseline recorded = new Baseline(first);
+        new CodeAnalyzer().analyze(first, "java", recorded);
+        Path baselineFile = tempDir.resolve("forge.baseline");
+        recorded.write(baselineFile);
+        AnalysisResult result = new AnalysisResult();
+        new CodeAnalyzer().analyze(second, "java", Baseline.load(baselineFile, second).filter(result));
+        
+        assertEquals(0, result.getIssueCount());
+        assertThrows(IOException.class, () -> Baseline.load(second.resolve("Legacy.java"), second));
+    }
+    
+    private static String legacy(String extraMethod) {
+        return """
+            public class Legacy {
+                public void method() {
+            %s    }
+                
+                public void other() {
+            %s    }
+            %s}
+            """.formatted(NEST, NEST, extraMethod);
+    }
+}
@@ -0,0 +1,119 @@
+package com.forge.analyzer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeSetTest {
+    private static final Predicate<Path> JAVA = new CodeAnalyzer().sources("java");
+    
+    private static final String NESTED_LOOPS = """
+        public class %s {
+            public void method() {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        for (int k = 0; k < 10; k++) {
+                            System.out.println(i + j + k);
+                        }
+                    }
+                }
+            }
+            
+            public void other() {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        for (int k = 0; k < 10; k++) {
+                            System.out.println(i + j + k);
+                        }
+                    }
+                }
+            }
+        }
+        """;
+    
+    @Test
+    void testGitChangesLimitFilesAndLines(@TempDir Path repository) throws Exception {
+        git(repository, "init", "-q");
+        Files.writeString(repository.resolve("Unchanged.java"), NESTED_LOOPS.formatted("Unchanged"));
+        Files.writeString(repository.resolve("Edited.java"), NESTED_LOOPS.formatted("Edited"));
+        git(repository, "add", ".");
+        git(repository, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "base");
+        
+        String edited = NESTED_LOOPS.formatted("Edited");
+        int lastBound = edited.lastIndexOf("k < 10");
+        Files.writeString(repository.resolve("Edited.java"),
+            edited.substring(0, lastBound) + "k < 20" + edited.substring(lastBound + "k < 10".length()));
+        Files.writeString(repository.resolve("Added.java"), NESTED_LOOPS.formatted("Added"));
+        
+        ChangeSet changes = ChangeSet.fromGit(repository, "HEAD", Path.of(""));
+        List<String> files = changes.filesUnder(repository, JAVA).stream()
+            .map(file -> file.getFileName().toString())
+            .sorted()
+            .toList();
+        assertEquals(List.of("Added.java", "Edited.java"), files);
+        
+        AnalysisResult result = new AnalysisResult();
+        new CodeAnalyzer().analyzeFiles(changes.filesUnder(repository, JAVA), changes.filter(result));
+        
+        List<String> locations = new ArrayList<>();
+        for (Issue issue : result.getIssues()) {
+            locations.add(Path.of(issue.getLocation()).getFileName().toString());
+        }
+        // Both nests of the new file, but only the edited nest of the changed one
+        assertEquals(List.of("Added.java:15", "Added.java:5", "Edited.java:15"), locations.stream().sorted().toList());
+    }
+    
+    @Test
+    void testGitChangesKeepNamesGitQuotes(@TempDir Path repository) throws Exception {
+        List<String> names = List.of("My File.java", "Quoted\"Name.java", "Plain.java");
+        git(repository, "init", "-q");
+        for (String name : names) {
+            Files.writeString(repository.resolve(name), NESTED_LOOPS.formatted("Changed"));
+        }
+        git(repository, "add", ".");
+        git(repository, "-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "base");
+        for (String name : names) {
+            Files.writeString(repository.resolve(name), NESTED_LOOPS.formatted("Changed").replace("k < 10", "k < 20"));
+        }
+        
+        ChangeSet changes = ChangeSet.fromGit(repository, "HEAD", repository);
+        
+        assertEquals(names.stream().map(repository::resolve).sorted().toList(),
+            changes.filesUnder(repository, JAVA).stream().sorted().toList());
+        assertTrue(changes.isChanged(repository.resolve("My File.java"), 5));
+        assertFalse(changes.isChanged(repository.resolve("My File.java"), 6));
+    }
+    
+    @Test
+    void testFileListSelectsWholeFiles(@TempDir Path tempDir) throws IOException {
+        Path listed = tempDir.resolve("Listed.java");
+        Files.writeString(listed, NESTED_LOOPS.formatted("Listed"));
+        Files.writeString(tempDir.resolve("Other.java"), NESTED_LOOPS.formatted("Other"));
+        
+        ChangeSet changes = ChangeSet.fromFileList(new BufferedReader(new StringReader("Listed.java\n\n")), tempDir);
+        AnalysisResult result = new AnalysisResult();
+        new CodeAnalyzer().analyzeFiles(changes.filesUnder(tempDir, JAVA), changes.filter(result));
+        
+        assertEquals(1, result.getFilesAnalyzed());
+        assertEquals(2, result.getIssues().size());
+        assertEquals(listed.toString(), result.getIssues().get(0).getFile());
+        assertTrue(changes.filesUnder(tempDir.resolve("elsewhere"), JAVA).isEmpty());
+    }
+    
+    private void git(Path directory, String... args) throws Exception {
+        List<String> command = new ArrayList<>(List.of("git", "-C", directory.toString()));
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+}
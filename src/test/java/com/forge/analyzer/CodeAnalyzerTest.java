@@ -1,18 +1,41 @@
 package com.forge.analyzer;
 
+import com.forge.analyzer.rules.ParseFeature;
+import com.forge.json.Json;
+import com.forge.analyzer.rules.Rule;
+import com.forge.analyzer.rules.RuleContext;
+import com.forge.analyzer.rules.RuleSet;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.ForStmt;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class CodeAnalyzerTest {
     
+    private static final RuleId FOR_COUNTER = RuleId.define("for-counter", "For loop", Severity.LOW);
+    private static final RuleId COMMENTED_METHOD = RuleId.define("commented-methods", "Commented method", Severity.LOW);
+    
     private CodeAnalyzer analyzer;
     
     @BeforeEach
@@ -172,6 +195,585 @@ class CodeAnalyzerTest {
         assertEquals(2, result.getFilesAnalyzed());
         assertFalse(result.getIssues().isEmpty());
     }
-
-
+    
+    @Test
+    void testParallelAnalysisMatchesSequentialOrder(@TempDir Path tempDir) throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Path dir = Files.createDirectories(tempDir.resolve("pkg" + (i % 3)));
+            Files.writeString(dir.resolve("TestClass" + i + ".java"), """
+                public class TestClass%d {
+                    public void method() {
+                        String result = "";
+                        for (int i = 0; i < 10; i++) {
+                            for (int j = 0; j < 10; j++) {
+                                for (int k = 0; k < 10; k++) {
+                                    result += "item" + k;
+                                }
+                            }
+                        }
+                    }
+                }
+                """.formatted(i));
+        }
+        
+        analyzer.setThreads(1);
+        AnalysisResult sequential = analyzer.analyze(tempDir, "java");
+        analyzer.setThreads(8);
+        AnalysisResult parallel = analyzer.analyze(tempDir, "java");
+        
+        assertEquals(20, parallel.getFilesAnalyzed());
+        assertEquals(sequential.getFilesAnalyzed(), parallel.getFilesAnalyzed());
+        assertEquals(
+            sequential.getIssues().stream().map(Issue::toString).toList(),
+            parallel.getIssues().stream().map(Issue::toString).toList());
+        
+        // A budget below one file's estimate runs the files one at a time
+        analyzer.setHeapBudget(1);
+        AnalysisResult bounded = analyzer.analyze(tempDir, "java");
+        assertEquals(
+            sequential.getIssues().stream().map(Issue::toString).toList(),
+            bounded.getIssues().stream().map(Issue::toString).toList());
+    }
+    
+    @Test
+    void testSlowFileHoldsBackTheFilesAfterIt(@TempDir Path tempDir) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            files.add(Files.writeString(tempDir.resolve("File" + i + ".java"), "class File" + i + " { }"));
+        }
+        CountDownLatch firstFile = new CountDownLatch(1);
+        AtomicInteger analyzed = new AtomicInteger();
+        AnalysisPipeline pipeline = new AnalysisPipeline(2, () -> (file, content) -> {
+            if (file.equals(files.get(0))) {
+                try {
+                    firstFile.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            analyzed.incrementAndGet();
+            return new FileResult(file, List.of());
+        }, null, 0, new PrintWriter(System.err, true));
+        AnalysisResult result = new AnalysisResult();
+        
+        CompletableFuture<Integer> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipeline.run(files.iterator(), result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Thread.sleep(500);
+        int whileFirstWaits = analyzed.get();
+        firstFile.countDown();
+        
+        // Two workers with four queued files each, plus the files the workers hold
+        assertTrue(whileFirstWaits <= 10, "analyzed " + whileFirstWaits + " files ahead of the first");
+        assertEquals(100, run.get(10, TimeUnit.SECONDS));
+        assertEquals(100, result.getFilesAnalyzed());
+    }
+    
+    @Test
+    void testInvalidThreadCountRejected() {
+        assertThrows(IllegalArgumentException.class, () -> analyzer.setThreads(0));
+    }
+    
+    @Test
+    void testMethodsInAnonymousClassesAreReportedOnce(@TempDir Path tempDir) throws IOException {
+        String code = """
+            public class TestClass {
+                public Runnable outerMethod() {
+                    return new Runnable() {
+                        public void run() {
+                            process(expensiveCalculation());
+                            validate(expensiveCalculation());
+                        }
+                    };
+                }
+            }
+            """;
+        
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, code);
+        
+        AnalysisResult result = analyzer.analyze(javaFile, "java");
+        
+        long repeatedCallIssues = result.getIssues().stream()
+            .filter(issue -> issue.getDescription().contains("Repeated method call"))
+            .count();
+        assertEquals(1, repeatedCallIssues);
+    }
+    
+    @Test
+    void testCustomRuleSetReceivesEachSubscribedNodeOnce(@TempDir Path tempDir) throws IOException {
+        String code = """
+            public class TestClass {
+                public void method() {
+                    for (int i = 0; i < 10; i++) {
+                        for (int j = 0; j < 10; j++) {
+                            System.out.println(i + j);
+                        }
+                    }
+                }
+            }
+            """;
+        
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, code);
+        
+        analyzer.setRuleSet(new RuleSet(List.of(() -> new Rule() {
+            @Override
+            public String getId() {
+                return FOR_COUNTER.getId();
+            }
+            
+            @Override
+            public Set<Class<? extends Node>> getNodeTypes() {
+                return Set.of(ForStmt.class);
+            }
+            
+            @Override
+            public void visit(Node node, RuleContext context) {
+                context.report(FOR_COUNTER, node, "Counted");
+            }
+        })));
+        AnalysisResult result = analyzer.analyze(javaFile, "java");
+        
+        assertEquals(2, result.getIssues().size());
+        assertEquals(javaFile + ":3", result.getIssues().get(0).getLocation());
+        assertEquals(javaFile + ":4", result.getIssues().get(1).getLocation());
+        assertEquals(FOR_COUNTER, result.getIssues().get(0).getRule());
+        assertEquals("For loop", result.getIssues().get(0).getDescription());
+        assertEquals(Severity.LOW, result.getIssues().get(0).getSeverity());
+    }
+    
+    @Test
+    void testListenerReceivesFilesInOrderBeforeCompletion(@TempDir Path tempDir) throws IOException {
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(tempDir.resolve("TestClass" + i + ".java"), "public class TestClass" + i + " {}");
+        }
+        
+        List<Path> streamedFiles = new ArrayList<>();
+        int[] completedWith = {-1};
+        int filesAnalyzed = analyzer.analyze(tempDir, "java", new IssueListener() {
+            @Override
+            public void onFile(FileResult file) {
+                assertEquals(-1, completedWith[0]);
+                streamedFiles.add(file.getFile());
+            }
+            
+            @Override
+            public void onComplete(int files) {
+                completedWith[0] = files;
+            }
+        });
+        
+        List<Path> walkOrder;
+        try (Stream<Path> walk = Files.walk(tempDir)) {
+            walkOrder = walk.filter(p -> p.toString().endsWith(".java")).toList();
+        }
+        assertEquals(10, filesAnalyzed);
+        assertEquals(10, completedWith[0]);
+        assertEquals(walkOrder, streamedFiles);
+    }
+    
+    @Test
+    void testRepeatedCallsAreGroupedBySignature(@TempDir Path tempDir) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            body.append("        builder.append(\"line\");\n");
+        }
+        String code = """
+            public class Generated {
+                public String render(StringBuilder builder, StringBuilder other) {
+            %s
+                    other.append("tail");
+                    return builder.toString();
+                }
+            }
+            """.formatted(body);
+        
+        Path javaFile = tempDir.resolve("Generated.java");
+        Files.writeString(javaFile, code);
+        
+        AnalysisResult result = analyzer.analyze(javaFile, "java");
+        
+        List<Issue> repeatedCalls = result.getIssues().stream()
+            .filter(issue -> issue.getDescription().contains("Repeated method call"))
+            .toList();
+        assertEquals(1, repeatedCalls.size());
+        assertEquals(javaFile + ":3", repeatedCalls.get(0).getLocation());
+        assertTrue(repeatedCalls.get(0).getDetails().contains("called 2000 times at lines 3-2002"));
+    }
+    
+    @Test
+    void testRepeatedCallsOnChainsCompareTheWholeReceiver(@TempDir Path tempDir) throws IOException {
+        Path javaFile = tempDir.resolve("Chains.java");
+        Files.writeString(javaFile, """
+            public class Chains {
+                public void run(Config config, int[] sizes) {
+                    config.section("a").get(sizes[0]).value();
+                    config.section("a").get(sizes[0]).value();
+                    config.section("b").get(sizes[0]).value();
+                    config.section("a").get(sizes[1]).value();
+                }
+            }
+            """);
+        
+        List<String> details = analyzer.analyze(javaFile, "java").getIssues().stream()
+            .map(Issue::getDetails)
+            .toList();
+        
+        assertEquals(List.of(
+            "Consider caching result of value() to avoid repeated computation (called 2 times at lines 3-4)",
+            "Consider caching result of get() to avoid repeated computation (called 3 times at lines 3-4, 6)",
+            "Consider caching result of section() to avoid repeated computation (called 4 times at lines 3-6)"
+        ), details);
+    }
+    
+    @Test
+    void testEachMaximalLoopNestOfAnyKindIsReportedOnce(@TempDir Path tempDir) throws IOException {
+        String code = """
+            import java.util.List;
+            
+            public class TestClass {
+                public void method(List<String> items, boolean running) {
+                    for (int i = 0; i < 10; i++) {
+                        while (running) {
+                            items.forEach(item -> {
+                                do {
+                                    System.out.println(item);
+                                } while (running);
+                            });
+                        }
+                        for (String a : items) {
+                            for (String b : items) {
+                                System.out.println(a + b);
+                            }
+                        }
+                    }
+                }
+            }
+            """;
+        
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, code);
+        
+        AnalysisResult result = analyzer.analyze(javaFile, "java");
+        
+        List<Issue> nestedLoops = result.getIssues().stream()
+            .filter(issue -> issue.getDescription().contains("Deep nested loops"))
+            .toList();
+        assertEquals(2, nestedLoops.size());
+        assertEquals(javaFile + ":8", nestedLoops.get(0).getLocation());
+        assertTrue(nestedLoops.get(0).getDetails().contains("depth 4 (for > while > forEach > do)"));
+        assertEquals(javaFile + ":14", nestedLoops.get(1).getLocation());
+        assertTrue(nestedLoops.get(1).getDetails().contains("depth 3 (for > for-each > for-each)"));
+    }
+    
+    @Test
+    void testOptionalMapAndFilterAreNotLoops(@TempDir Path tempDir) throws IOException {
+        String code = """
+            import java.util.List;
+            import java.util.Optional;
+            import java.util.stream.Stream;
+            
+            public class Lookup {
+                private Optional<String> fallback;
+                
+                public void method(List<String> names, Optional<String> prefix, Stream<String> words) {
+                    for (String a : names) {
+                        for (String b : names) {
+                            prefix.map(p -> p + a).filter(p -> p.isEmpty());
+                            Optional.ofNullable(b).flatMap(o -> fallback.map(f -> f + o));
+                            var first = names.stream().filter(n -> n.equals(a)).findFirst();
+                            first.map(f -> f.length());
+                        }
+                    }
+                    for (String a : names) {
+                        for (String b : names) {
+                            words.map(w -> w + a);
+                            names.stream().sorted().filter(n -> n.equals(b)).count();
+                        }
+                    }
+                }
+            }
+            """;
+        
+        Path javaFile = tempDir.resolve("Lookup.java");
+        Files.writeString(javaFile, code);
+        
+        List<String> nestedLoops = analyzer.analyze(javaFile, "java").getIssues().stream()
+            .filter(issue -> issue.getDescription().contains("Deep nested loops"))
+            .map(issue -> issue.getLine() + " " + issue.getDetails())
+            .toList();
+        
+        assertEquals(List.of(
+            "13 Nested loops with depth 3 (for-each > for-each > filter) can cause exponential time complexity",
+            "19 Nested loops with depth 3 (for-each > for-each > map) can cause exponential time complexity",
+            "20 Nested loops with depth 3 (for-each > for-each > filter) can cause exponential time complexity"
+        ), nestedLoops);
+    }
+    
+    @Test
+    void testPrefilterSkipsParsingWithoutChangingFindings(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Loops.java"), """
+            public class Loops {
+                public String join(java.util.List<String> items) {
+                    String result = "";
+                    for (String item : items) {
+                        items.forEach(a -> items.forEach(b -> result.length()));
+                        result += "," + item;
+                    }
+                    return result;
+                }
+            }
+            """);
+        Files.writeString(tempDir.resolve("Calls.java"), """
+            public class Calls {
+                public void method(java.util.List<String> items) {
+                    System.out.println(items.size());
+                    System.out.println(items.size());
+                }
+            }
+            """);
+        Files.writeString(tempDir.resolve("Point.java"), """
+            public class Point {
+                // for (int i = 0; i < 3; i++) { s += "x"; }
+                private final int x;
+                
+                public Point(int x) {
+                    this.x = x;
+                }
+            }
+            """);
+        
+        analyzer.setPrefilterEnabled(false);
+        AnalysisResult full = analyzer.analyze(tempDir, "java");
+        analyzer.setPrefilterEnabled(true);
+        AnalysisResult filtered = analyzer.analyze(tempDir, "java");
+        
+        assertEquals(0, full.getFilesSkipped());
+        assertEquals(1, filtered.getFilesSkipped());
+        assertEquals(3, filtered.getFilesAnalyzed());
+        assertFalse(filtered.getIssues().isEmpty());
+        assertEquals(
+            full.getIssues().stream().map(Issue::toString).sorted().toList(),
+            filtered.getIssues().stream().map(Issue::toString).sorted().toList());
+    }
+    
+    @Test
+    void testPrefilterKeepsCallsToMembersNamedLikeKeywords(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Spinner.java"), """
+            public class Spinner {
+                public void spin() {
+                    Thread.yield();
+                    Thread.yield();
+                }
+            }
+            """);
+        
+        analyzer.setPrefilterEnabled(false);
+        AnalysisResult full = analyzer.analyze(tempDir, "java");
+        analyzer.setPrefilterEnabled(true);
+        AnalysisResult filtered = analyzer.analyze(tempDir, "java");
+        
+        assertEquals(1, full.getIssues().size());
+        assertEquals(0, filtered.getFilesSkipped());
+        assertEquals(
+            full.getIssues().stream().map(Issue::toString).toList(),
+            filtered.getIssues().stream().map(Issue::toString).toList());
+    }
+    
+    @Test
+    void testFastProfileOnlyAttributesCommentsWhenARuleNeedsThem(@TempDir Path tempDir) throws IOException {
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, """
+            public class TestClass {
+                // Documented
+                public void method() {
+                }
+            }
+            """);
+        
+        assertEquals(0, countCommentedMethods(javaFile, ParseProfile.FAST, Set.of()));
+        assertEquals(1, countCommentedMethods(javaFile, ParseProfile.FAST, Set.of(ParseFeature.COMMENTS)));
+        assertEquals(1, countCommentedMethods(javaFile, ParseProfile.FULL, Set.of()));
+    }
+    
+    @Test
+    void testIssuesNameTheirEnclosingMethodAsTheJvmDoes(@TempDir Path tempDir) throws IOException {
+        Path javaFile = tempDir.resolve("Outer.java");
+        Files.writeString(javaFile, """
+            package com.example;
+            
+            public class Outer {
+                private String joined = join(new String[0]);
+                
+                public Outer(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                }
+                
+                static String join(String[] parts) {
+                    Runnable task = () -> {
+                        String result = "";
+                        for (String part : parts) {
+                            result += part + ",";
+                        }
+                    };
+                    return "";
+                }
+                
+                static class Inner {
+                    void run(String[] parts) {
+                        String result = "";
+                        for (String part : parts) {
+                            result += part + ",";
+                        }
+                    }
+                }
+            }
+            """);
+        
+        List<String> methods = analyzer.analyze(javaFile, "java").getIssues().stream()
+            .map(Issue::getMethod)
+            .toList();
+        
+        assertEquals(List.of("com.example.Outer.<init>", "com.example.Outer.join", "com.example.Outer.Inner.run"), methods);
+    }
+    
+    @Test
+    void testAnonymousClassesAreNamedByTheirJavacNumber(@TempDir Path tempDir) throws IOException {
+        Path javaFile = tempDir.resolve("Outer.java");
+        // The anonymous class passed to Thread is entered first, so it is Outer$1
+        Files.writeString(javaFile, """
+            package com.example;
+            
+            public class Outer {
+                public void run(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                }
+                
+                public Thread start(String[] parts) {
+                    return new Thread(new Runnable() {
+                        public void run() {
+                            String result = "";
+                            for (String part : parts) {
+                                result += part + "1";
+                            }
+                        }
+                    }) {
+                        public void run() {
+                            new Object() {
+                                void run() {
+                                    String result = "";
+                                    for (String part : parts) {
+                                        result += part + "21";
+                                    }
+                                }
+                            }.run();
+                        }
+                    };
+                }
+            }
+            """);
+        
+        List<String> methods = analyzer.analyze(javaFile, "java").getIssues().stream()
+            .map(Issue::getMethod)
+            .toList();
+        
+        assertEquals(List.of("com.example.Outer.run", "com.example.Outer.1.run", "com.example.Outer.2.1.run"), methods);
+    }
+    
+    @Test
+    void testIssueJsonKeepsTheOriginalFieldsFirst() throws IOException {
+        Issue issue = new Issue(RuleId.NESTED_LOOPS, "A.java", 3, 5, "Deep", "A.run");
+        
+        assertEquals("{\"description\":\"Deep nested loops detected\",\"location\":\"A.java:3\",\"severity\":\"HIGH\","
+            + "\"details\":\"Deep\",\"rule\":\"NESTED_LOOPS\",\"line\":3,\"column\":5,\"method\":\"A.run\",\"file\":\"A.java\"}",
+            Json.MAPPER.writeValueAsString(issue));
+    }
+    
+    @Test
+    void testProfileRecordsPhasesRulesAndSlowestFiles(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Concat.java"), """
+            public class Concat {
+                public String join(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                    return result;
+                }
+            }
+            """);
+        Files.writeString(tempDir.resolve("Point.java"), """
+            public class Point {
+                private int x;
+            }
+            """);
+        
+        AnalysisProfile profile = new AnalysisProfile(1);
+        analyzer.setProfile(profile);
+        analyzer.analyze(tempDir, "java");
+        
+        Map<String, AnalysisProfile.Timer> phases = new HashMap<>();
+        for (AnalysisProfile.Timer phase : profile.getPhases()) {
+            phases.put(phase.getName(), phase);
+        }
+        assertEquals(2, phases.get("walk").getCount());
+        assertEquals(2, phases.get("read").getCount());
+        assertEquals(2, phases.get("prefilter").getCount());
+        assertEquals(1, phases.get("parse").getCount());
+        assertEquals(1, phases.get("rules").getCount());
+        assertEquals(0, phases.get("cache-lookup").getCount());
+        assertTrue(phases.get("parse").getPercentileNanos(50) > 0);
+        
+        assertEquals(2, profile.getFiles().getCount());
+        assertEquals(1, profile.getSlowestFiles().size());
+        assertEquals(profile.getFiles().getMaxNanos(), profile.getSlowestFiles().get(0).nanos());
+        assertTrue(profile.getElapsedNanos() > 0);
+        
+        List<String> ruleIds = new ArrayList<>();
+        for (AnalysisProfile.RuleTimer rule : profile.getRules()) {
+            ruleIds.add(rule.getName());
+            assertEquals(1, rule.getCount());
+            assertEquals(rule.getName().equals(RuleId.STRING_CONCATENATION_IN_LOOP.getId()) ? 1 : 0, rule.getIssues());
+        }
+        assertEquals(List.of("nested-loops", "string-concatenation-in-loop", "repeated-method-call"), ruleIds);
+    }
+    
+    private int countCommentedMethods(Path file, ParseProfile profile, Set<ParseFeature> features) throws IOException {
+        analyzer.setParseProfile(profile);
+        analyzer.setRuleSet(new RuleSet(List.of(() -> new Rule() {
+            @Override
+            public String getId() {
+                return COMMENTED_METHOD.getId();
+            }
+            
+            @Override
+            public Set<Class<? extends Node>> getNodeTypes() {
+                return Set.of(MethodDeclaration.class);
+            }
+            
+            @Override
+            public Set<ParseFeature> getParseFeatures() {
+                return features;
+            }
+            
+            @Override
+            public void visit(Node node, RuleContext context) {
+                if (node.getComment().isPresent()) {
+                    context.report(COMMENTED_METHOD, node, "Commented");
+                }
+            }
+        })));
+        return analyzer.analyze(file, "java").getIssueCount();
+    }
 }
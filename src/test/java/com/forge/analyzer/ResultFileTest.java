@@ -0,0 +1,122 @@
+package com.forge.analyzer;
+
+import com.forge.carbon.CarbonEstimator;
+import com.forge.suggestions.OptimizationSuggester;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultFileTest {
+    
+    @Test
+    void testShardsCoverAllFilesOnceWithBalancedBytes(@TempDir Path tempDir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < 40; i++) {
+            Path file = tempDir.resolve("File" + i + ".java");
+            Files.writeString(file, "// " + "x".repeat(100 * (i % 7 + 1)) + "\nclass File" + i + " {}\n");
+            files.add(file);
+            total += Files.size(file);
+        }
+        
+        Set<Path> covered = new HashSet<>();
+        for (int index = 1; index <= 3; index++) {
+            List<Path> selected = new Shard(index, 3).select(tempDir, files);
+            assertEquals(selected, new Shard(index, 3).select(tempDir, files));
+            long bytes = 0;
+            for (Path file : selected) {
+                assertTrue(covered.add(file), file + " is in two shards");
+                bytes += Files.size(file);
+            }
+            assertTrue(Math.abs(bytes - total / 3) < 800, "Shard " + index + " has " + bytes + " of " + total + " bytes");
+        }
+        assertEquals(new HashSet<>(files), covered);
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/3"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("two"));
+    }
+    
+    @Test
+    void testMergedShardsMatchSingleRun(@TempDir Path tempDir) throws IOException {
+        Path project = tempDir.resolve("project");
+        Files.createDirectories(project);
+        for (int i = 0; i < 9; i++) {
+            Files.writeString(project.resolve("Loops" + i + ".java"), """
+                public class Loops%d {
+                    public void process(String[] items) {
+                        String result = "";
+                        for (int i = 0; i < %d; i++) {
+                            for (int j = 0; j < 10; j++) {
+                                for (int k = 0; k < 10; k++) {
+                                    result += items[k];
+                                }
+                            }
+                        }
+                    }
+                }
+                """.formatted(i, i + 1));
+        }
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        AnalysisResult single = analyzer.analyze(project, "java");
+        
+        List<Path> files = analyzer.discover(project, "java");
+        Map<Path, Integer> positions = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            positions.put(files.get(i), i);
+        }
+        List<ResultFile> shards = new ArrayList<>();
+        for (int index = 3; index >= 1; index--) {
+            Shard shard = new Shard(index, 3);
+            AnalysisResult part = new AnalysisResult();
+            analyzer.analyzeFiles(shard.select(project, files), part);
+            Path saved = tempDir.resolve("shard" + index + ".forge");
+            new ResultFile(project, "java", shard, part, positions::get).write(saved);
+            shards.add(ResultFile.read(saved));
+        }
+        AnalysisResult merged = ResultFile.merge(shards).getResult();
+        
+        assertEquals(single.getFilesAnalyzed(), merged.getFilesAnalyzed());
+        assertEquals(single.getIssues().toString(), merged.getIssues().toString());
+        assertEquals(new OptimizationSuggester().suggest(single).toJson(),
+            new OptimizationSuggester().suggest(merged).toJson());
+        assertEquals(new CarbonEstimator().estimate(single).toJson(), new CarbonEstimator().estimate(merged).toJson());
+        assertThrows(IllegalArgumentException.class, () -> ResultFile.merge(shards.subList(0, 2)));
+    }
+    
+    @Test
+    void testStoredResultReadsBackExactly(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("Check.java");
+        AnalysisResult result = new AnalysisResult();
+        result.onFile(new FileResult(file, List.of(
+            new Issue(RuleId.NESTED_LOOPS, file.toString(), 40, 9, "Nested loops at depth 3", "Prüfung.run"),
+            new Issue(RuleId.REPEATED_METHOD_CALL, file.toString(), 7, 1, "size() called 4 times", null)), false));
+        result.onFile(new FileResult(tempDir.resolve("Empty.java"), List.of(), true));
+        result.countFiles(2, 1);
+        Path saved = tempDir.resolve("result.forge");
+        new ResultFile(tempDir, "java", result).write(saved);
+        
+        ResultFile read = ResultFile.read(saved);
+        assertEquals(tempDir, read.getRoot());
+        assertEquals("java", read.getLanguage());
+        assertNull(read.getShard());
+        assertEquals(result.getIssues(), read.getResult().getIssues());
+        assertEquals(4, read.getResult().getFilesAnalyzed());
+        assertEquals(2, read.getResult().getFilesSkipped());
+        
+        byte[] bytes = Files.readAllBytes(saved);
+        Files.write(saved, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> ResultFile.read(saved));
+        assertThrows(IOException.class, () -> ResultFile.read(file));
+    }
+}
@@ -0,0 +1,151 @@
+package com.forge.analyzer.cache;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+import com.forge.analyzer.Severity;
+import com.forge.analyzer.rules.Rule;
+import com.forge.analyzer.rules.RuleContext;
+import com.forge.analyzer.rules.RuleSet;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+    
+    private static final RuleId PARSED_FILE = RuleId.define("counting", "Parsed file", Severity.LOW);
+    
+    private static final String NESTED_LOOPS = """
+        public class TestClass {
+            public void method() {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        for (int k = 0; k < 10; k++) {
+                            System.out.println(i + j + k);
+                        }
+                    }
+                }
+            }
+        }
+        """;
+    
+    @Test
+    void testUnchangedFilesAreNotParsedAgain(@TempDir Path tempDir) throws IOException {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        Files.writeString(sources.resolve("A.java"), NESTED_LOOPS);
+        Files.writeString(sources.resolve("B.java"), NESTED_LOOPS.replace("TestClass", "Other"));
+        Path cacheDir = tempDir.resolve("cache");
+        
+        AtomicInteger parsedFiles = new AtomicInteger();
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        analyzer.setRuleSet(countingRuleSet(parsedFiles));
+        
+        AnalysisResult first = analyzeWithCache(analyzer, sources, cacheDir);
+        assertEquals(2, parsedFiles.get());
+        
+        Files.writeString(sources.resolve("B.java"), NESTED_LOOPS.replace("TestClass", "Changed"));
+        AnalysisResult second = analyzeWithCache(analyzer, sources, cacheDir);
+        
+        assertEquals(3, parsedFiles.get());
+        assertEquals(2, second.getFilesAnalyzed());
+        assertEquals(first.getIssues().size(), second.getIssues().size());
+        // Results of a rule defined outside forge survive the round trip through the cache
+        assertEquals(PARSED_FILE, second.getIssues().get(0).getRule());
+        assertEquals("Parsed file", second.getIssues().get(0).getDescription());
+    }
+    
+    @Test
+    void testCachedIssuesAreReboundToTheCurrentPath(@TempDir Path tempDir) throws IOException {
+        Path original = tempDir.resolve("Original.java");
+        Path copy = tempDir.resolve("Copy.java");
+        Files.writeString(original, NESTED_LOOPS);
+        Files.writeString(copy, NESTED_LOOPS);
+        
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        analyzeWithCache(analyzer, original, tempDir.resolve("cache"));
+        AnalysisResult result = analyzeWithCache(analyzer, copy, tempDir.resolve("cache"));
+        
+        assertFalse(result.getIssues().isEmpty());
+        assertTrue(result.getIssues().stream().allMatch(issue -> issue.getLocation().startsWith(copy.toString() + ":")));
+    }
+    
+    @Test
+    void testLeastRecentlyUsedEntriesAreEvicted(@TempDir Path tempDir) throws IOException {
+        Path cacheDir = tempDir.resolve("cache");
+        List<Issue> issues = List.of(new Issue(RuleId.NESTED_LOOPS, "A.java", 3, 9, "details"));
+        
+        try (AnalysisCache cache = AnalysisCache.open(cacheDir, 1)) {
+            for (int i = 0; i < 5; i++) {
+                cache.put(cache.keyOf(new byte[] {(byte) i}, "v1"), "A.java", issues);
+            }
+            assertEquals(5, cache.size());
+        }
+        
+        try (AnalysisCache reopened = AnalysisCache.open(cacheDir, 1)) {
+            assertEquals(0, reopened.size());
+        }
+    }
+    
+    @Test
+    void testIndexSurvivesReopening(@TempDir Path tempDir) throws IOException {
+        Path cacheDir = tempDir.resolve("cache");
+        List<Issue> issues = List.of(
+            new Issue(RuleId.NESTED_LOOPS, "A.java", 3, 9, "details"),
+            new Issue(RuleId.REPEATED_METHOD_CALL, "A.java", 5, 1, "calls", "com.example.A.run"));
+        
+        AnalysisCache.CacheKey key;
+        try (AnalysisCache cache = AnalysisCache.open(cacheDir, AnalysisCache.DEFAULT_MAX_BYTES)) {
+            key = cache.keyOf("content".getBytes(), "v1");
+            cache.put(key, "A.java", issues);
+        }
+        
+        try (AnalysisCache reopened = AnalysisCache.open(cacheDir, AnalysisCache.DEFAULT_MAX_BYTES)) {
+            List<Issue> cached = reopened.get(key, "B.java");
+            assertNotNull(cached);
+            assertEquals("B.java:3", cached.get(0).getLocation());
+            assertNull(cached.get(0).getMethod());
+            assertEquals("com.example.A.run", cached.get(1).getMethod());
+            assertNull(reopened.get(reopened.keyOf("content".getBytes(), "v2"), "B.java"));
+        }
+    }
+    
+    private AnalysisResult analyzeWithCache(CodeAnalyzer analyzer, Path path, Path cacheDir) throws IOException {
+        try (AnalysisCache cache = AnalysisCache.open(cacheDir, AnalysisCache.DEFAULT_MAX_BYTES)) {
+            analyzer.setCache(cache);
+            return analyzer.analyze(path, "java");
+        } finally {
+            analyzer.setCache(null);
+        }
+    }
+    
+    private RuleSet countingRuleSet(AtomicInteger parsedFiles) {
+        return new RuleSet(List.of(() -> new Rule() {
+            @Override
+            public String getId() {
+                return PARSED_FILE.getId();
+            }
+            
+            @Override
+            public Set<Class<? extends Node>> getNodeTypes() {
+                return Set.of(CompilationUnit.class);
+            }
+            
+            @Override
+            public void visit(Node node, RuleContext context) {
+                parsedFiles.incrementAndGet();
+                context.report(PARSED_FILE, node, "Parsed");
+            }
+        }));
+    }
+}
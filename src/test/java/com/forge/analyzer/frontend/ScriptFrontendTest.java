@@ -0,0 +1,173 @@
+package com.forge.analyzer.frontend;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.analyzer.Issue;
+import com.forge.analyzer.RuleId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptFrontendTest {
+    
+    @Test
+    void testPythonReportsTheJavaRules(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("report.py");
+        Files.writeString(file, """
+            class Report:
+                def render(self, rows):
+                    out = ""
+                    for row in rows:
+                        for cell in row:
+                            for ch in cell:
+                                out += ch + ","
+                    return out
+                
+                def totals(self, rows):
+                    # Two levels of comprehension are not too deep
+                    grid = [[x * 2 for x in r] for r in rows]
+                    if len(rows) > 0 and len(rows) < 10:
+                        return grid
+                    return sorted(rows, key=lambda r: r.name + "!")
+            
+            for line in open("x"):
+                print('''not a loop: for a in b:
+                    for c in d:''' + line)
+            """);
+        
+        List<Issue> issues = new CodeAnalyzer().analyze(tempDir, "python").getIssues();
+        
+        assertEquals(List.of(
+            "STRING_CONCATENATION_IN_LOOP report.py:7 report.Report.render",
+            "NESTED_LOOPS report.py:6 report.Report.render",
+            "STRING_CONCATENATION_IN_LOOP report.py:15 report.Report.totals",
+            "REPEATED_METHOD_CALL report.py:13 report.Report.totals",
+            "STRING_CONCATENATION_IN_LOOP report.py:18 null"
+        ), describe(issues));
+        assertEquals("Nested loops with depth 3 (for > for > for) can cause exponential time complexity",
+            issues.get(1).getDetails());
+        assertEquals("Consider caching result of len() to avoid repeated computation (called 2 times at lines 13)",
+            issues.get(3).getDetails());
+        assertEquals("Consider using a list and ''.join() for string concatenation in loops", issues.get(0).getDetails());
+    }
+    
+    @Test
+    void testJavaScriptReportsTheJavaRules(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("report.js");
+        Files.writeString(file, """
+            class Report {
+              render(rows) {
+                let out = '';
+                for (const row of rows) {
+                  row.forEach(cell => {
+                    for (let i = 0; i < cell.length; i++) out += cell[i] + `,${i}`;
+                  });
+                }
+                return out.replace(/"+/g, "'");
+              }
+            }
+            
+            const totals = (items) => {
+              const half = items.length / 2; // a division, not a regex: /
+              do {
+                items.pop();
+              } while (items.size() > half && items.size() > 0);
+              return "Total: " + items.length;
+            };
+            """);
+        
+        List<Issue> issues = new CodeAnalyzer().analyze(tempDir, "javascript").getIssues();
+        
+        assertEquals(List.of(
+            "STRING_CONCATENATION_IN_LOOP report.js:6 report.Report.render",
+            "NESTED_LOOPS report.js:6 report.Report.render",
+            "REPEATED_METHOD_CALL report.js:17 report.totals"
+        ), describe(issues));
+        assertEquals("Nested loops with depth 3 (for-of > forEach > for) can cause exponential time complexity",
+            issues.get(1).getDetails());
+        assertEquals("Consider using an array and join() for string concatenation in loops", issues.get(0).getDetails());
+    }
+    
+    @Test
+    void testPythonAcceptsEveryLineEnding(@TempDir Path tempDir) throws IOException {
+        String source = """
+            def run(items):
+                s = ""
+                for item in items:
+                    s += item + \\
+                        ";"
+                return s \\
+            """;
+        Files.writeString(tempDir.resolve("unix.py"), source);
+        // Old Mac line endings, ending in a backslash with no line feed after it
+        Files.writeString(tempDir.resolve("mac.py"), source.replace("\n", "\r"));
+        Files.writeString(tempDir.resolve("windows.py"), source.replace("\n", "\r\n"));
+        
+        List<Issue> issues = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> new CodeAnalyzer().analyze(tempDir, "python").getIssues());
+        
+        assertEquals(List.of(
+            "STRING_CONCATENATION_IN_LOOP mac.py:5 mac.run",
+            "STRING_CONCATENATION_IN_LOOP unix.py:5 unix.run",
+            "STRING_CONCATENATION_IN_LOOP windows.py:5 windows.run"
+        ), describe(issues).stream().sorted().toList());
+    }
+    
+    @Test
+    void testLanguageSelectsFilesByExtension(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Loop.java"), """
+            class Loop {
+                void run(String[] items) {
+                    String s = "";
+                    for (String item : items) {
+                        s += item + ";";
+                    }
+                }
+            }
+            """);
+        Files.writeString(tempDir.resolve("loop.py"), """
+            def run(items):
+                s = ""
+                for item in items:
+                    s += item + ";"
+            """);
+        Files.writeString(tempDir.resolve("loop.mjs"), """
+            export function run(items) {
+              let s = "";
+              for (const item of items) s += item + ";";
+            }
+            """);
+        Files.writeString(tempDir.resolve("notes.txt"), "for x in y: s += 'a'");
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        
+        AnalysisResult java = analyzer.analyze(tempDir, "java");
+        assertEquals(1, java.getFilesAnalyzed());
+        assertEquals(List.of("STRING_CONCATENATION_IN_LOOP Loop.java:5 Loop.run"), describe(java.getIssues()));
+        
+        AnalysisResult all = analyzer.analyze(tempDir, CodeAnalyzer.AUTO);
+        assertEquals(3, all.getFilesAnalyzed());
+        assertEquals(List.of(
+            "STRING_CONCATENATION_IN_LOOP Loop.java:5 Loop.run",
+            "STRING_CONCATENATION_IN_LOOP loop.mjs:3 loop.run",
+            "STRING_CONCATENATION_IN_LOOP loop.py:4 loop.run"
+        ), describe(all.getIssues()).stream().sorted().toList());
+        
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> analyzer.analyze(tempDir, "cobol"));
+        assertEquals("Unknown language cobol, expected one of java, python, javascript, auto", error.getMessage());
+    }
+    
+    private static List<String> describe(List<Issue> issues) {
+        return issues.stream()
+            .map(issue -> issue.getRule().name() + " " + Path.of(issue.getFile()).getFileName() + ":" + issue.getLine()
+                + " " + issue.getMethod())
+            .toList();
+    }
+}
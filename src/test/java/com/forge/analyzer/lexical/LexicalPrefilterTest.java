@@ -0,0 +1,97 @@
+package com.forge.analyzer.lexical;
+
+import com.forge.analyzer.rules.RuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexicalPrefilterTest {
+    
+    private final LexicalPrefilter prefilter = new LexicalPrefilter(RuleSet.defaults().createEngine().getRules());
+    
+    @Test
+    void testPlainDataClassIsRuledOut() {
+        String code = """
+            public class Point {
+                private final int x;
+                private final int y;
+                
+                public Point(int x, int y) {
+                    this.x = x;
+                    this.y = y;
+                }
+                
+                public int getX() {
+                    return x;
+                }
+            }
+            """;
+        
+        assertFalse(mayMatch(code));
+    }
+    
+    @Test
+    void testTokensInCommentsAndLiteralsAreIgnored() {
+        String code = """
+            public class Documented {
+                // for (int i = 0; i < n; i++) while (true) do { } log(); log();
+                /* list.forEach(item -> item.run()); */
+                private static final String HELP = "for each value call check() and check()";
+                private static final String BLOCK = \"""
+                    while (x) { s += "y"; }
+                    \""";
+                private static final char QUOTE = '"';
+            }
+            """;
+        
+        assertFalse(mayMatch(code));
+    }
+    
+    @Test
+    void testFilesThatCanMatchAreKept() {
+        assertTrue(mayMatch("class A { void m() { for (;;) { } } }"));
+        assertTrue(mayMatch("class A { void m() { items.forEach(i -> { }); } }"));
+        assertTrue(mayMatch("class A { void m() { a.size(); b.size(); } }"));
+        assertTrue(mayMatch("class A { void m() { \\u0066or (;;) { } } }"));
+        assertTrue(mayMatch("class A { void m() { Thread.yield(); Thread.yield(); } }"));
+    }
+    
+    @Test
+    void testCarriageReturnsEndCommentsAndLiterals() {
+        String code = "class A {\r    // note\r    void m(String s) {\r        for (;;) {\r            s += \"x\";\r        }\r    }\r}\r";
+        
+        assertTrue(mayMatch(code));
+        assertTrue(mayMatch("class A {\r    char c = 'x\r    void m() { for (;;) { } }\r}\r"));
+    }
+    
+    @Test
+    void testDeclarationsAndConstructorsAreNotCountedAsCalls() {
+        String code = """
+            public class Shapes {
+                @Override
+                public String toString() {
+                    return new Circle(1).describe() + new Circle(2).area();
+                }
+                
+                @Override
+                public int hashCode() {
+                    return 31;
+                }
+                
+                int[] values() {
+                    return null;
+                }
+            }
+            """;
+        
+        assertFalse(mayMatch(code));
+        assertTrue(mayMatch(code.replace("area()", "describe()")));
+    }
+    
+    private boolean mayMatch(String code) {
+        return prefilter.mayMatch(ByteBuffer.wrap(code.getBytes(StandardCharsets.UTF_8)));
+    }
+}
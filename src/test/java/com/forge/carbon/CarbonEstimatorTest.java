@@ -1,5 +1,7 @@
 package com.forge.carbon;
 
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
@@ -7,6 +9,7 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -167,4 +170,158 @@ class CarbonEstimatorTest {
         assertTrue(json.contains("estimatedCo2Grams"));
         assertFalse(json.contains("error"));
     }
+    
+    @Test
+    void testEstimateWithoutJavaFilesSavesNothing(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("notes.txt"), "for (;;) { s += x; }");
+        
+        EstimateResult result = estimator.estimate(tempDir, "java");
+        
+        assertEquals(0.0, result.getEstimatedEnergyWh(), 0.0);
+        assertEquals(0.0, result.getPotentialSavings(), 0.0);
+        assertEquals(0.0, result.getSavingsPercentage(), 0.0);
+        assertTrue(result.toJson().contains("\"savingsPercentage\":0.0"));
+    }
+    
+    @Test
+    void testEstimateFromExistingAnalysisMatchesPathEstimate(@TempDir Path tempDir) throws IOException {
+        String code = """
+            public class TestClass {
+                public void inefficientMethod() {
+                    String result = "";
+                    for (int i = 0; i < 10; i++) {
+                        result += "item" + i;
+                    }
+                }
+            }
+            """;
+        
+        Files.writeString(tempDir.resolve("TestClass.java"), code);
+        Files.writeString(tempDir.resolve("Clean.java"), "public class Clean {}");
+        
+        AnalysisResult analysis = new CodeAnalyzer().analyze(tempDir, "java");
+        EstimateResult fromAnalysis = estimator.estimate(analysis);
+        EstimateResult fromPath = estimator.estimate(tempDir, "java");
+        
+        assertEquals(fromPath.getEstimatedCpuTimeMs(), fromAnalysis.getEstimatedCpuTimeMs(), 0.001);
+        assertEquals(fromPath.getPotentialSavings(), fromAnalysis.getPotentialSavings(), 0.001);
+    }
+    
+    @Test
+    void testProfileWeightsIssuesBySampledShare(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("Service.java"), """
+            package com.example;
+            
+            public class Service {
+                public String hot(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                    return result;
+                }
+                
+                public String cold(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ";";
+                    }
+                    return result;
+                }
+            }
+            """);
+        Path samples = tempDir.resolve("samples.collapsed");
+        Files.writeString(samples, """
+            java/lang/Thread.run;com/example/Service$1.run_[j];com/example/Service.lambda$hot$0_[j];java/lang/StringBuilder.append_[j] 30
+            java/lang/Thread.run;com/example/Service.hot_[i] 20
+            java/lang/Thread.run;com/example/Other.work_[j] 50
+            """);
+        AnalysisResult analysis = new CodeAnalyzer().analyze(tempDir, "java");
+        
+        CpuProfile profile = CpuProfile.load(samples, Set.of("com.example.Service.hot", "com.example.Service.cold"));
+        EstimateResult unweighted = estimator.estimate(analysis);
+        EstimateResult weighted = estimator.estimate(analysis, profile);
+        
+        assertEquals(100, profile.getTotalSamples());
+        assertEquals(0.5, profile.getShare("com.example.Service.hot"), 0.001);
+        assertEquals(0.0, profile.getShare("com.example.Service.cold"), 0.001);
+        assertEquals(0.4, unweighted.getPotentialSavings(), 0.001);
+        assertEquals(0.1, weighted.getPotentialSavings(), 0.001);
+        assertTrue(weighted.getEstimatedCpuTimeMs() < unweighted.getEstimatedCpuTimeMs());
+    }
+    
+    @Test
+    void testManyIssuesKeepTheEstimateFinite(@TempDir Path tempDir) throws IOException {
+        StringBuilder code = new StringBuilder("public class Big {\n    public void work(String[] parts) {\n");
+        for (int i = 0; i < 3000; i++) {
+            code.append("        for (int a = 0; a < 2; a++) { for (int b = 0; b < 2; b++) { for (int c = 0; c < 2; c++) { } } }\n");
+        }
+        code.append("    }\n}\n");
+        Files.writeString(tempDir.resolve("Big.java"), code.toString());
+        
+        EstimateResult result = estimator.estimate(tempDir, "java");
+        
+        assertTrue(Double.isFinite(result.getEstimatedCpuTimeMs()));
+        assertTrue(Double.isFinite(result.getEstimatedEnergyWh()));
+        assertTrue(Double.isFinite(result.getSavingsPercentage()));
+        assertEquals(3000, result.getBreakdown().getIssueCount());
+    }
+    
+    @Test
+    void testBreakdownRollsUpMethodsIntoPackagesAndModules(@TempDir Path tempDir) throws IOException {
+        Path core = tempDir.resolve("core");
+        Path sources = core.resolve("src/main/java/com/example/core");
+        Files.createDirectories(sources);
+        Files.writeString(core.resolve("pom.xml"), "<project/>");
+        Files.writeString(sources.resolve("Loops.java"), """
+            package com.example.core;
+            
+            public class Loops {
+                public void nested() {
+                    for (int i = 0; i < 10; i++) {
+                        for (int j = 0; j < 10; j++) {
+                            for (int k = 0; k < 10; k++) {
+                            }
+                        }
+                    }
+                }
+            }
+            """);
+        Files.writeString(sources.resolve("Clean.java"), "package com.example.core;\npublic class Clean {}");
+        Files.writeString(tempDir.resolve("Tool.java"), "public class Tool {}");
+        
+        EstimateResult result = estimator.estimate(tempDir, "java");
+        CostNode project = result.getBreakdown();
+        
+        assertEquals(3, project.getFileCount());
+        assertEquals(result.getEstimatedCpuTimeMs(), project.getCpuTimeMs(), 0.001);
+        CostNode module = project.getChildren().get(0);
+        assertEquals(CostNode.Level.MODULE, module.getLevel());
+        assertEquals("core", module.getName());
+        CostNode pkg = module.getChildren().get(0);
+        assertEquals("com.example.core", pkg.getName());
+        assertEquals(2, pkg.getFileCount());
+        CostNode file = pkg.getChildren().get(0);
+        assertEquals("Loops.java", file.getName());
+        assertEquals("com.example.core.Loops.nested", file.getChildren().get(0).getName());
+        
+        double sum = 0;
+        for (CostNode child : project.getChildren()) {
+            sum += child.getCpuTimeMs();
+        }
+        assertEquals(project.getCpuTimeMs(), sum, 0.001);
+        assertEquals(".", project.getChildren().get(1).getName());
+        assertEquals("(default package)", project.getChildren().get(1).getChildren().get(0).getName());
+    }
+    
+    @Test
+    void testJvmFrameNamesMapToSourceMethods() {
+        assertEquals("com.example.Outer.Inner.run", CpuProfile.methodOf("com.example.Outer$Inner", "run"));
+        assertEquals("com.example.Outer.1.run", CpuProfile.methodOf("com.example.Outer$1", "run"));
+        assertEquals("com.example.Outer.2.1.run", CpuProfile.methodOf("com.example.Outer$2$1", "run"));
+        assertEquals("com.example.Outer.1.run", CpuProfile.methodOf("com.example.Outer$1", "lambda$run$0"));
+        assertEquals("com.example.Outer.Local.run", CpuProfile.methodOf("com.example.Outer$1Local", "run"));
+        assertEquals("com.example.Outer.join", CpuProfile.methodOf("com.example.Outer", "lambda$join$2"));
+        assertEquals("com.example.Outer.<clinit>", CpuProfile.methodOf("com.example.Outer", "lambda$static$0"));
+    }
 }
@@ -0,0 +1,71 @@
+package com.forge.cli;
+
+import com.forge.analyzer.CodeAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisWatcherTest {
+    
+    private static final String NESTED_LOOPS = """
+        public class TestClass {
+            public void method() {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 10; j++) {
+                        for (int k = 0; k < 10; k++) {
+                            System.out.println(i + j + k);
+                        }
+                    }
+                }
+            }
+        }
+        """;
+    
+    @Test
+    void testChangedFilesReportIssueDeltas(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("TestClass.java");
+        Files.writeString(file, "public class TestClass {}\n");
+        
+        StringWriter output = new StringWriter();
+        CodeAnalyzer analyzer = new CodeAnalyzer();
+        AnalysisWatcher watcher = new AnalysisWatcher(analyzer, tempDir, "java", new PrintWriter(output, true));
+        analyzer.analyze(tempDir, "java", watcher);
+        Thread watching = new Thread(() -> {
+            try {
+                watcher.watch();
+            } catch (IOException | InterruptedException e) {
+                // Stopped by the test
+            }
+        });
+        watching.setDaemon(true);
+        watching.start();
+        
+        try {
+            awaitOutput(output, "Watching");
+            Files.writeString(file, NESTED_LOOPS);
+            awaitOutput(output, "Issues found: 1 (+1, -0)");
+            assertTrue(output.toString().contains("+ Deep nested loops detected at " + file + ":5 (HIGH)"), output.toString());
+            
+            Files.delete(file);
+            awaitOutput(output, "Issues found: 0 (+0, -1)");
+            assertTrue(output.toString().contains("- Deep nested loops detected at " + file + ":5 (HIGH)"), output.toString());
+        } finally {
+            watching.interrupt();
+        }
+    }
+    
+    private void awaitOutput(StringWriter output, String expected) throws InterruptedException {
+        // WatchService implementations without native support poll every few seconds
+        for (int i = 0; i < 300 && !output.toString().contains(expected); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(output.toString().contains(expected), output.toString());
+    }
+}
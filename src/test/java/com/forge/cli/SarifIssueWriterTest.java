@@ -0,0 +1,113 @@
+package com.forge.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.forge.ForgeMain;
+import com.forge.json.Json;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SarifIssueWriterTest {
+    
+    @Test
+    void testReportStreamsSarifWithSuggestionsAndEstimate(@TempDir Path tempDir) throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve("project/src/main/java/app"));
+        Files.writeString(project.resolve("Builder.java"), """
+            package app;
+            
+            public class Builder {
+                public String build(String[] items) {
+                    String result = "";
+                    for (String item : items) {
+                        result += "," + item;
+                    }
+                    return result;
+                }
+            }
+            """);
+        Path output = tempDir.resolve("forge.sarif");
+        
+        int exitCode = run("report", tempDir.resolve("project").toString(), "--output", "sarif",
+            "--output-file", output.toString());
+        
+        assertEquals(0, exitCode);
+        JsonNode log = Json.MAPPER.readTree(output.toFile());
+        assertEquals("2.1.0", log.get("version").asText());
+        JsonNode run = log.get("runs").get(0);
+        assertEquals(3, run.at("/tool/driver/rules").size());
+        JsonNode result = run.get("results").get(0);
+        assertEquals("string-concatenation-in-loop", result.get("ruleId").asText());
+        assertEquals("warning", result.get("level").asText());
+        JsonNode location = result.at("/locations/0/physicalLocation");
+        assertEquals("src/main/java/app/Builder.java", location.at("/artifactLocation/uri").asText());
+        assertEquals("SRCROOT", location.at("/artifactLocation/uriBaseId").asText());
+        assertEquals(7, location.at("/region/startLine").asInt());
+        assertEquals("app.Builder.build", result.at("/locations/0/logicalLocations/0/fullyQualifiedName").asText());
+        assertEquals("Use StringBuilder for string concatenation",
+            result.at("/properties/suggestions/0/title").asText());
+        assertEquals(1, run.at("/properties/filesAnalyzed").asInt());
+        assertTrue(run.at("/properties/estimate/estimatedCpuTimeMs").asDouble() > 0);
+    }
+    
+    @Test
+    void testRenderPrintsWhatEachViewPrintedWithEncodedUris(@TempDir Path tempDir) throws IOException {
+        Path project = tempDir.resolve("project");
+        Path file = Files.createDirectories(project.resolve("src/100% app")).resolve("Builder #1.java");
+        Files.writeString(file, """
+            public class Builder {
+                public String build(String[] items) {
+                    String result = "";
+                    for (String item : items) {
+                        result += "," + item;
+                    }
+                    return result;
+                }
+            }
+            """);
+        Path result = tempDir.resolve("forge.result");
+        
+        for (String view : List.of("analyze", "suggest", "estimate", "report")) {
+            for (String format : List.of("text", "json", "sarif")) {
+                StringWriter printed = new StringWriter();
+                StringWriter rendered = new StringWriter();
+                assertEquals(0, run(printed, view, project.toString(), "--output", format,
+                    "--save-result", result.toString()));
+                assertEquals(0, run(rendered, "render", result.toString(), "--view", view, "--output", format));
+                assertEquals(printed.toString(), rendered.toString(), view + " " + format);
+            }
+        }
+        StringWriter sarif = new StringWriter();
+        run(sarif, "render", result.toString(), "--view", "analyze", "--output", "sarif");
+        JsonNode run = Json.MAPPER.readTree(sarif.toString()).get("runs").get(0);
+        String uri = run.at("/results/0/locations/0/physicalLocation/artifactLocation/uri").asText();
+        URI root = URI.create(run.at("/originalUriBaseIds/SRCROOT/uri").asText());
+        assertEquals("src/100%25%20app/Builder%20%231.java", uri);
+        assertEquals(file.toRealPath(), Path.of(root.resolve(uri)).toRealPath());
+    }
+    
+    private static int run(StringWriter out, String... args) {
+        CommandLine commandLine = ForgeMain.createCommandLine(args, CommandLine.defaultFactory());
+        commandLine.setOut(new PrintWriter(out));
+        commandLine.setErr(new PrintWriter(new StringWriter()));
+        int exitCode = commandLine.execute(args);
+        commandLine.getOut().flush();
+        return exitCode;
+    }
+    
+    private static int run(String... args) {
+        CommandLine commandLine = ForgeMain.createCommandLine(args, CommandLine.defaultFactory());
+        commandLine.setOut(new PrintWriter(new StringWriter()));
+        commandLine.setErr(new PrintWriter(new StringWriter()));
+        return commandLine.execute(args);
+    }
+}
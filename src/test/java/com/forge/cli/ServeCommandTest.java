@@ -0,0 +1,194 @@
+package com.forge.cli;
+
+import com.forge.ForgeMain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServeCommandTest {
+    
+    @Test
+    void testRequestsRunAgainstTheClientWorkingDirectory(@TempDir Path tempDir) throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(project.resolve("TestClass.java"), """
+            public class TestClass {
+                public void method() {
+                    for (int i = 0; i < 10; i++) {
+                        for (int j = 0; j < 10; j++) {
+                            for (int k = 0; k < 10; k++) {
+                                System.out.println(i + j + k);
+                            }
+                        }
+                    }
+                }
+            }
+            """);
+        Path socket = tempDir.resolve("forge.sock");
+        startDaemon(socket);
+        
+        String first = request(socket, project + "\tanalyze\t.");
+        String second = request(socket, project + "\tanalyze\t.\t--output\tndjson");
+        
+        assertTrue(first.contains("Deep nested loops detected"), first);
+        assertTrue(first.contains("Files analyzed: 1"), first);
+        assertTrue(first.endsWith(ServeCommand.EXIT_PREFIX + "0\n"), first);
+        assertTrue(second.contains("\"severity\":\"HIGH\""), second);
+        assertTrue(second.endsWith(ServeCommand.EXIT_PREFIX + "0\n"), second);
+    }
+    
+    @Test
+    void testListedFilesAreResolvedAgainstTheClientWorkingDirectory(@TempDir Path tempDir) throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        String code = """
+            public class %s {
+                public String join(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                    return result;
+                }
+            }
+            """;
+        Files.writeString(project.resolve("Listed.java"), code.formatted("Listed"));
+        Files.writeString(project.resolve("Other.java"), code.formatted("Other"));
+        Files.writeString(project.resolve("files.txt"), "Listed.java\n");
+        Path socket = tempDir.resolve("forge.sock");
+        startDaemon(socket);
+        
+        String listed = request(socket, project + "\tanalyze\t.\t--files-from\tfiles.txt");
+        String stdin = request(socket, project + "\tanalyze\t.\t--files-from\t-");
+        
+        assertTrue(listed.contains(project.resolve("Listed.java") + ":5"), listed);
+        assertFalse(listed.contains("Other.java"), listed);
+        assertTrue(listed.endsWith(ServeCommand.EXIT_PREFIX + "0\n"), listed);
+        assertTrue(stdin.contains("- cannot be used through the daemon"), stdin);
+        assertTrue(stdin.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), stdin);
+    }
+    
+    @Test
+    void testFailuresAreReportedWithTheirExitCode(@TempDir Path tempDir) throws Exception {
+        Path socket = tempDir.resolve("forge.sock");
+        startDaemon(socket);
+        
+        assertTrue(request(socket, tempDir + "\tanalyze").endsWith(ServeCommand.EXIT_PREFIX + "2\n"));
+        assertTrue(request(socket, tempDir + "\tserve").endsWith(ServeCommand.EXIT_PREFIX + "2\n"));
+        String budget = request(socket, tempDir + "\tanalyze\t.\t--max-heap-budget\t0");
+        assertTrue(budget.contains("--max-heap-budget must be a positive number of megabytes, got 0"), budget);
+        assertTrue(budget.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), budget);
+        for (String command : List.of("analyze", "suggest", "estimate", "report")) {
+            String language = request(socket, tempDir + "\t" + command + "\t.\t--lang\tcobol");
+            assertTrue(language.contains("Unknown language cobol"), language);
+            assertTrue(language.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), language);
+        }
+        String xml = request(socket, tempDir + "\tanalyze\t.\t-o\txml");
+        assertTrue(xml.contains("Invalid value for option '--output'"), xml);
+        assertTrue(xml.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), xml);
+        for (String command : List.of("suggest", "estimate", "report", "merge")) {
+            String ndjson = request(socket, tempDir + "\t" + command + "\tx\t-o\tndjson");
+            assertTrue(ndjson.contains("ndjson output needs --view analyze"), ndjson);
+            assertTrue(ndjson.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), ndjson);
+        }
+    }
+    
+    @Test
+    void testParseWarningsAreSentToTheClient(@TempDir Path tempDir) throws Exception {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        // The loops keep the lexical prefilter from ruling the file out before it is parsed
+        Files.writeString(project.resolve("Broken.java"), "public class Broken { void run() { for (;;) { for (;;) { for (;;) {");
+        Path socket = tempDir.resolve("forge.sock");
+        startDaemon(socket);
+        
+        String response = request(socket, project + "\tanalyze\t.");
+        
+        assertTrue(response.contains("Warning: Could not parse " + project.resolve(".").resolve("Broken.java")), response);
+        assertTrue(response.endsWith(ServeCommand.EXIT_PREFIX + "0\n"), response);
+    }
+    
+    @Test
+    void testPortRequestsMustStartWithTheToken(@TempDir Path tempDir) throws Exception {
+        Path tokenFile = Files.writeString(tempDir.resolve("token"), "s3cret\n");
+        Files.setPosixFilePermissions(tokenFile, PosixFilePermissions.fromString("rw-------"));
+        String output = startDaemon("serve", "--port", "0", "--token-file", tokenFile.toString());
+        Matcher port = Pattern.compile(":(\\d+)\\s").matcher(output);
+        assertTrue(port.find(), output);
+        SocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port.group(1)));
+        
+        String missing = request(address, tempDir + "\tanalyze\t.");
+        String wrong = request(address, "secret\n" + tempDir + "\tanalyze\t.");
+        String right = request(address, "s3cret\n" + tempDir + "\tanalyze\t.");
+        
+        assertTrue(missing.contains("must start with the daemon's token"), missing);
+        assertTrue(missing.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), missing);
+        assertTrue(wrong.endsWith(ServeCommand.EXIT_PREFIX + "2\n"), wrong);
+        assertTrue(right.contains("Files analyzed: 0"), right);
+        assertTrue(right.endsWith(ServeCommand.EXIT_PREFIX + "0\n"), right);
+    }
+    
+    @Test
+    void testPortNeedsATokenOnlyItsOwnerCanRead(@TempDir Path tempDir) throws Exception {
+        Path tokenFile = Files.writeString(tempDir.resolve("token"), "s3cret\n");
+        Files.setPosixFilePermissions(tokenFile, PosixFilePermissions.fromString("rw-r-----"));
+        
+        assertEquals(2, run("serve", "--port", "0"));
+        assertEquals(2, run("serve", "--port", "0", "--token-file", tokenFile.toString()));
+    }
+    
+    private int run(String... args) {
+        CommandLine commandLine = ForgeMain.createCommandLine(args, CommandLine.defaultFactory());
+        commandLine.setOut(new PrintWriter(new StringWriter()));
+        commandLine.setErr(new PrintWriter(new StringWriter()));
+        return commandLine.execute(args);
+    }
+    
+    private void startDaemon(Path socket) throws InterruptedException {
+        startDaemon("serve", "--socket", socket.toString());
+    }
+    
+    private String startDaemon(String... args) throws InterruptedException {
+        CommandLine commandLine = ForgeMain.createCommandLine(args, CommandLine.defaultFactory());
+        StringWriter output = new StringWriter();
+        commandLine.setOut(new PrintWriter(output));
+        Thread daemon = new Thread(() -> commandLine.execute(args));
+        daemon.setDaemon(true);
+        daemon.start();
+        
+        // The socket file appears on bind, just before the daemon starts listening
+        for (int i = 0; i < 200 && !output.toString().contains("listening"); i++) {
+            Thread.sleep(25);
+        }
+        assertTrue(output.toString().contains("listening"), output.toString());
+        return output.toString();
+    }
+    
+    private String request(Path socket, String line) throws IOException {
+        return request(UnixDomainSocketAddress.of(socket), line);
+    }
+    
+    private String request(SocketAddress address, String line) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+            return new String(Channels.newInputStream(channel).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.forge.jfr;
+
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
+import com.forge.carbon.CarbonEstimator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForgeEventsTest {
+    
+    @Test
+    void testAnalysisEmitsEventsWhileRecording(@TempDir Path tempDir) throws IOException {
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, """
+            public class TestClass {
+                public String join(String[] parts) {
+                    String result = "";
+                    for (String part : parts) {
+                        result += part + ",";
+                    }
+                    return result;
+                }
+            }
+            """);
+        
+        Path dump = tempDir.resolve("forge.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("FileRead", "Parse", "RuleEvaluation", "Estimate", "Serialization")) {
+                recording.enable("com.forge." + name);
+            }
+            recording.start();
+            AnalysisResult result = new CodeAnalyzer().analyze(javaFile, "java");
+            new CarbonEstimator().estimate(result).toJson();
+            recording.stop();
+            recording.dump(dump);
+        }
+        
+        Map<String, RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            events.put(event.getEventType().getName(), event);
+        }
+        
+        RecordedEvent read = events.get("com.forge.FileRead");
+        assertEquals(javaFile.toString(), read.getString("path"));
+        assertEquals(Files.size(javaFile), read.getLong("size"));
+        assertTrue(events.get("com.forge.Parse").getBoolean("successful"));
+        
+        RecordedEvent rules = events.get("com.forge.RuleEvaluation");
+        assertEquals(3, rules.getInt("ruleCount"));
+        assertEquals(1, rules.getInt("issueCount"));
+        assertTrue(rules.getInt("nodeCount") > 10);
+        
+        assertEquals(1, events.get("com.forge.Estimate").getInt("issueCount"));
+        RecordedEvent serialization = events.get("com.forge.Serialization");
+        assertEquals("estimate", serialization.getString("content"));
+        assertTrue(serialization.getLong("length") > 0);
+    }
+}
@@ -1,5 +1,7 @@
 package com.forge.suggestions;
 
+import com.forge.analyzer.AnalysisResult;
+import com.forge.analyzer.CodeAnalyzer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
@@ -93,6 +95,38 @@ class OptimizationSuggesterTest {
         assertTrue(foundStringBuilderSuggestion);
     }
     
+    @Test
+    void testExamplesAreInTheLanguageOfTheFile(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("join.py"), """
+            def join(parts):
+                result = ""
+                for part in parts:
+                    result += part + ","
+                return result
+            """);
+        Files.writeString(tempDir.resolve("join.js"), """
+            function join(parts) {
+              let result = "";
+              for (const part of parts) {
+                result += part + ",";
+              }
+              return result;
+            }
+            """);
+        
+        List<Suggestion> python = suggester.suggest(tempDir.resolve("join.py"), "python").getSuggestions();
+        List<Suggestion> javaScript = suggester.suggest(tempDir.resolve("join.js"), "javascript").getSuggestions();
+        
+        assertEquals(List.of("Use str.join for string concatenation"), python.stream().map(Suggestion::getTitle).toList());
+        assertTrue(python.get(0).getAfterExample().contains("\"\".join(parts)"));
+        assertEquals(List.of("Use Array.join for string concatenation"), javaScript.stream().map(Suggestion::getTitle).toList());
+        assertTrue(javaScript.get(0).getAfterExample().contains("parts.join(\"\")"));
+        for (Suggestion suggestion : List.of(python.get(0), javaScript.get(0))) {
+            assertFalse(suggestion.getDescription().contains("StringBuilder"));
+            assertFalse(suggestion.getBeforeExample().contains("String result"));
+        }
+    }
+    
     @Test
     void testSuggestForRepeatedMethodCalls(@TempDir Path tempDir) throws IOException {
         String code = """
@@ -151,4 +185,27 @@ class OptimizationSuggesterTest {
         assertTrue(json.contains("suggestions"));
         assertFalse(json.contains("error"));
     }
+    
+    @Test
+    void testSuggestFromExistingAnalysis(@TempDir Path tempDir) throws IOException {
+        String code = """
+            public class TestClass {
+                public void inefficientMethod() {
+                    String result = "";
+                    for (int i = 0; i < 10; i++) {
+                        result += "item" + i;
+                    }
+                }
+            }
+            """;
+        
+        Path javaFile = tempDir.resolve("TestClass.java");
+        Files.writeString(javaFile, code);
+        
+        AnalysisResult analysis = new CodeAnalyzer().analyze(javaFile, "java");
+        SuggestionResult result = suggester.suggest(analysis);
+        
+        assertEquals(analysis.getIssues().size(), result.getSuggestions().size());
+        assertEquals(suggester.suggest(javaFile, "java").getSuggestions().size(), result.getSuggestions().size());
+    }
 }